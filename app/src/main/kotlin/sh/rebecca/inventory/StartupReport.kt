@@ -0,0 +1,83 @@
+package sh.rebecca.inventory
+
+import org.slf4j.LoggerFactory
+import java.lang.management.ManagementFactory
+import java.util.concurrent.TimeUnit
+
+/**
+ * Times the phases of startup, from the JVM starting until the item list is filled and showing icons, and logs them
+ * once the list is filled. Each phase is listed with when it finished, counted from the JVM starting, and how long
+ * it took if it was timed, so "window shown" gives the time until the editor can be used.
+ *
+ * The first icon may only arrive after the list is filled, or never if nothing is shown, so it's listed as missing
+ * until then and logged on its own if it comes later. A phase is only recorded the first time it's reported.
+ */
+object StartupReport {
+
+    private val started = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(ManagementFactory.getRuntimeMXBean().uptime)
+    private val phases = LinkedHashMap<String, Phase>()
+    private var logged = false
+
+    /**
+     * Runs [block] and records how long it took as [phase].
+     */
+    inline fun <T> time(phase: String, block: () -> T): T {
+        val start = System.nanoTime()
+        try {
+            return block()
+        } finally {
+            record(phase, start)
+        }
+    }
+
+    /**
+     * Records [phase] as having run from [start], a [System.nanoTime], until now. For phases spanning threads.
+     */
+    fun record(phase: String, start: Long) {
+        add(phase, System.nanoTime() - start)
+    }
+
+    /**
+     * Records [phase] as reached now, for milestones which don't have a start of their own.
+     */
+    fun mark(phase: String) {
+        add(phase, -1)
+    }
+
+    @Synchronized
+    fun report(): String {
+        val lines = phases.entries.map { (name, phase) -> describe(name, phase) }
+        val missing = LATE_PHASES.filter { it !in phases }.map { "$it: not reached yet" }
+        return (lines + missing).joinToString("\n")
+    }
+
+    @Synchronized
+    private fun add(name: String, duration: Long) {
+        if (name in phases) {
+            return
+        }
+        val phase = Phase(duration, System.nanoTime())
+        phases[name] = phase
+        if (logged) {
+            log.info("Startup phase after the report: {}", describe(name, phase))
+        } else if (name == LAST_PHASE) {
+            logged = true
+            log.info("Startup report:\n{}", report())
+        }
+    }
+
+    private fun describe(name: String, phase: Phase): String {
+        val finished = "%s: finished at %d ms".format(name, millis(phase.finished - started))
+        return if (phase.duration < 0) finished else "$finished, took ${millis(phase.duration)} ms"
+    }
+
+    private fun millis(nanos: Long): Long {
+        return TimeUnit.NANOSECONDS.toMillis(nanos)
+    }
+
+    private class Phase(val duration: Long, val finished: Long)
+
+    private const val LAST_PHASE = "list population"
+    private val LATE_PHASES = listOf("first icon")
+    private val log = LoggerFactory.getLogger(StartupReport::class.java)
+}
@@ -4,23 +4,66 @@ import com.displee.cache.CacheLibrary
 import com.github.benmanes.caffeine.cache.Caffeine
 import org.springframework.boot.context.properties.ConfigurationProperties
 import org.springframework.cache.CacheManager
+import org.springframework.cache.annotation.EnableCaching
 import org.springframework.cache.caffeine.CaffeineCacheManager
 import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.Configuration
+import org.springframework.util.unit.DataSize
+import sh.rebecca.inventory.StartupReport
+import java.nio.file.Path
 
+/**
+ * Cached values are shared between every caller, so they're never to be changed in place. Models are only ever drawn
+ * through a [media.ModelInstance], which copies whatever it changes.
+ */
 @Configuration
+@EnableCaching
 @ConfigurationProperties(prefix = "inventorytool")
-class CacheConfig(var cacheDir: String = "") {
+class CacheConfig(
+    var cacheDir: String = "",
+    var iconDir: String = "",
+    var cacheBudget: DataSize = DataSize.ofMegabytes(256),
+    var caches: MutableMap<String, CacheSpec> = mutableMapOf("models" to CacheSpec(3.0), "objsprite" to CacheSpec(1.0)),
+    var prefetchCount: Int = 32,
+    var listIconCount: Int = 1024
+) {
+
+    /**
+     * The configuration of one cache. Each cache is given its [share] of [cacheBudget] against the shares of the
+     * others, and is bounded by the estimated size of its values rather than their count.
+     */
+    class CacheSpec(var share: Double = 1.0)
 
     @Bean
     fun cacheLibrary(): CacheLibrary {
-        return CacheLibrary(cacheDir)
+        return StartupReport.time("cache open") { CacheLibrary(cacheDir) }
+    }
+
+    @Bean
+    fun iconStore(): IconStore {
+        return IconStore(Path.of(iconDir))
     }
 
     @Bean
     fun cacheManager(): CacheManager {
         val cacheManager = CaffeineCacheManager()
-        cacheManager.setCaffeine(Caffeine.newBuilder().maximumSize(100))
+        for (name in caches.keys) {
+            cacheManager.registerCustomCache(name, Caffeine.newBuilder()
+                .maximumWeight(getCacheBytes(name))
+                .weigher { _: Any, value: Any -> CacheWeights.weigh(value) }
+                .recordStats()
+                .build())
+        }
+        // caches which aren't configured fall back to a small count bound outside the budget
+        cacheManager.setCaffeine(Caffeine.newBuilder().maximumSize(100).recordStats())
         return cacheManager
     }
+
+    /**
+     * Returns the share of [cacheBudget] given to the cache called [name], or 0 if it isn't configured.
+     */
+    fun getCacheBytes(name: String): Long {
+        val spec = caches[name] ?: return 0
+        return (cacheBudget.toBytes() * (spec.share / caches.values.sumOf { it.share })).toLong()
+    }
 }
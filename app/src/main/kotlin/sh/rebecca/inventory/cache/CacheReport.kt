@@ -0,0 +1,44 @@
+package sh.rebecca.inventory.cache
+
+import com.github.benmanes.caffeine.cache.Cache
+import org.slf4j.LoggerFactory
+import org.springframework.cache.CacheManager
+import org.springframework.stereotype.Component
+import javax.annotation.PreDestroy
+
+/**
+ * Summarizes the hit rate, evictions and memory use of every cache, and logs the summary on shutdown.
+ */
+@Component
+class CacheReport(private val cacheManager: CacheManager) {
+
+    fun report(): String {
+        return cacheManager.cacheNames.sorted().joinToString("\n") { name ->
+            val cache = cacheManager.getCache(name)?.nativeCache as? Cache<*, *> ?: return@joinToString "$name: not a caffeine cache"
+            val stats = cache.stats()
+            val eviction = cache.policy().eviction().orElse(null)
+            val weight = eviction?.weightedSize()
+            val size = when {
+                eviction == null -> "unbounded"
+                weight != null && weight.isPresent -> "${megabytes(weight.asLong)} of ${megabytes(eviction.maximum)}"
+                else -> "at most ${eviction.maximum} entries"
+            }
+            "%s: %d entries, %s, hit rate %.1f%% (%d hits, %d misses), %d evictions".format(
+                name, cache.estimatedSize(), size, stats.hitRate() * 100, stats.hitCount(), stats.missCount(), stats.evictionCount()
+            )
+        }
+    }
+
+    @PreDestroy
+    fun logReport() {
+        log.info("Cache report:\n{}", report())
+    }
+
+    private fun megabytes(bytes: Long): String {
+        return "%.1f MB".format(bytes / (1024.0 * 1024.0))
+    }
+
+    companion object {
+        private val log = LoggerFactory.getLogger(CacheReport::class.java)
+    }
+}
@@ -0,0 +1,43 @@
+package sh.rebecca.inventory.cache
+
+import image.Sprite
+import media.Model
+
+/**
+ * Estimates how many bytes of heap a cached value holds, so caches can be bounded by memory rather than entry count.
+ * The estimates count the arrays a value owns plus a flat overhead, which is close enough to compare a large model
+ * with an icon.
+ */
+object CacheWeights {
+
+    private const val OBJECT_BYTES = 16
+    private const val ARRAY_BYTES = 16
+
+    fun weigh(value: Any?): Int {
+        return when (value) {
+            is Model -> weigh(value)
+            is Sprite -> weigh(value)
+            else -> OBJECT_BYTES
+        }
+    }
+
+    fun weigh(sprite: Sprite): Int {
+        return OBJECT_BYTES + ints(sprite.pixels)
+    }
+
+    fun weigh(model: Model): Int {
+        val bytes = OBJECT_BYTES.toLong() +
+            ints(model.vertexX) + ints(model.vertexY) + ints(model.vertexZ) +
+            ints(model.triangleVertexA) + ints(model.triangleVertexB) + ints(model.triangleVertexC) +
+            ints(model.triangleColor) + ints(model.colorA) + ints(model.colorB) + ints(model.colorC) +
+            ints(model.triangleType) + ints(model.trianglePriorities) + ints(model.triangleAlpha) +
+            ints(model.normalX) + ints(model.normalY) + ints(model.normalZ) + ints(model.normalMagnitude) +
+            ints(model.unmodifiedNormalX) + ints(model.unmodifiedNormalY) + ints(model.unmodifiedNormalZ) +
+            ints(model.unmodifiedNormalMagnitude)
+        return minOf(bytes, Int.MAX_VALUE.toLong()).toInt()
+    }
+
+    private fun ints(array: IntArray?): Int {
+        return if (array == null) 0 else ARRAY_BYTES + array.size * Int.SIZE_BYTES
+    }
+}
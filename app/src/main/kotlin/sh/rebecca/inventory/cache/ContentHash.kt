@@ -0,0 +1,41 @@
+package sh.rebecca.inventory.cache
+
+import java.nio.ByteBuffer
+import java.security.MessageDigest
+
+/**
+ * Builds a 64-bit key from the SHA-256 of everything written to it, for keys which have to stay stable across
+ * launches.
+ */
+class ContentHash {
+
+    private val digest = MessageDigest.getInstance("SHA-256")
+    private val scratch = ByteBuffer.allocate(Long.SIZE_BYTES)
+
+    fun put(value: Int): ContentHash {
+        digest.update(scratch.clear().putInt(value).flip())
+        return this
+    }
+
+    fun put(value: Long): ContentHash {
+        digest.update(scratch.clear().putLong(value).flip())
+        return this
+    }
+
+    fun put(values: IntArray?): ContentHash {
+        // the length goes first so null, empty and neighbouring arrays can't run into each other
+        put(values?.size ?: -1)
+        values?.forEach { put(it) }
+        return this
+    }
+
+    fun put(bytes: ByteArray): ContentHash {
+        put(bytes.size)
+        digest.update(bytes)
+        return this
+    }
+
+    fun finish(): Long {
+        return ByteBuffer.wrap(digest.digest()).long
+    }
+}
@@ -0,0 +1,141 @@
+package sh.rebecca.inventory.cache
+
+import image.Sprite
+import java.io.Closeable
+import java.nio.ByteBuffer
+import java.nio.IntBuffer
+import java.nio.MappedByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption.CREATE
+import java.nio.file.StandardOpenOption.READ
+import java.nio.file.StandardOpenOption.WRITE
+
+/**
+ * A disk backed store of rendered icons. The icons live as 32x32 tiles in one memory mapped file and an append-only
+ * index maps content keys to tiles, so icons rendered on an earlier launch come back without touching a model.
+ *
+ * Keys are expected to cover everything that affects the output, so entries are never replaced or invalidated. That
+ * makes a torn tile permanent, so each tile is forced to disk before the index entry pointing at it is written.
+ */
+class IconStore(directory: Path) : Closeable {
+
+    private val tiles: FileChannel
+    private val index: FileChannel
+    private val slots = HashMap<Long, Int>()
+    private val mappings = ArrayList<MappedByteBuffer>()
+    private val regions = ArrayList<IntBuffer>()
+
+    init {
+        Files.createDirectories(directory)
+        tiles = FileChannel.open(directory.resolve("icons.dat"), CREATE, READ, WRITE)
+        index = FileChannel.open(directory.resolve("icons.idx"), CREATE, READ, WRITE)
+        load()
+    }
+
+    val size: Int
+        @Synchronized get() = slots.size
+
+    @Synchronized
+    fun contains(key: Long): Boolean {
+        return slots.containsKey(key)
+    }
+
+    /**
+     * Returns a new sprite holding the icon stored under [key], or null if there isn't one.
+     */
+    fun get(key: Long): Sprite? {
+        var region: IntBuffer
+        var slot: Int
+        synchronized(this) {
+            slot = slots[key] ?: return null
+            region = region(slot)
+        }
+        // absolute reads don't touch the buffer's position, so the copy needs no lock
+        val sprite = Sprite(SIZE, SIZE)
+        region.get((slot % REGION_TILES) * TILE_INTS, sprite.pixels)
+        return sprite
+    }
+
+    /**
+     * Stores a 32x32 [sprite] under [key], unless something is already stored there.
+     */
+    @Synchronized
+    fun put(key: Long, sprite: Sprite) {
+        require(sprite.width == SIZE && sprite.height == SIZE) { "icons must be ${SIZE}x$SIZE" }
+        if (slots.containsKey(key)) {
+            return
+        }
+        val slot = slots.size
+        region(slot).put((slot % REGION_TILES) * TILE_INTS, sprite.pixels)
+
+        // the tile reaches the disk before its index entry is even written, so an entry which survives a crash never
+        // points at a tile which didn't. An entry lost instead only costs rendering the icon again
+        mappings[slot / REGION_TILES].force((slot % REGION_TILES) * TILE_BYTES, TILE_BYTES)
+        val entry = ByteBuffer.allocate(ENTRY_BYTES).putLong(key).putInt(slot).flip()
+        index.write(entry, index.size())
+        slots[key] = slot
+    }
+
+    @Synchronized
+    override fun close() {
+        mappings.clear()
+        regions.clear()
+        tiles.close()
+        index.close()
+    }
+
+    private fun load() {
+        val header = ByteBuffer.allocate(HEADER_BYTES)
+        if (index.read(header, 0) != HEADER_BYTES || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            reset()
+            return
+        }
+
+        // a trailing partial entry is left from a write that never finished, so it's dropped and overwritten
+        val count = ((index.size() - HEADER_BYTES) / ENTRY_BYTES).toInt()
+        val entries = ByteBuffer.allocate(count * ENTRY_BYTES)
+        index.read(entries, HEADER_BYTES.toLong())
+        entries.flip()
+        for (i in 0 until count) {
+            val key = entries.long
+            val slot = entries.int
+            // slots are handed out in order, so anything else is a corrupt entry, which ends the index
+            if (slot != slots.size) {
+                break
+            }
+            slots[key] = slot
+        }
+        index.truncate(HEADER_BYTES + slots.size.toLong() * ENTRY_BYTES)
+    }
+
+    private fun reset() {
+        tiles.truncate(0)
+        index.truncate(0)
+        index.write(ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).flip(), 0)
+    }
+
+    private fun region(slot: Int): IntBuffer {
+        val region = slot / REGION_TILES
+        while (regions.size <= region) {
+            // mapping past the end grows the file, so its size says nothing about how many tiles were written
+            val bytes = REGION_TILES.toLong() * TILE_BYTES
+            val mapping = tiles.map(FileChannel.MapMode.READ_WRITE, regions.size * bytes, bytes)
+            mappings += mapping
+            regions += mapping.asIntBuffer()
+        }
+        return regions[region]
+    }
+
+    companion object {
+        const val SIZE = 32
+        private const val TILE_INTS = SIZE * SIZE
+        private const val TILE_BYTES = TILE_INTS * 4
+        private const val REGION_TILES = 1024
+        private const val MAGIC = 0x49434f4e
+        private const val VERSION = 1
+        private const val HEADER_BYTES = 8
+        private const val ENTRY_BYTES = 12
+    }
+}
@@ -2,16 +2,17 @@ package sh.rebecca.inventory.editor
 
 import javafx.beans.property.SimpleIntegerProperty
 import javafx.beans.property.SimpleStringProperty
-import javafx.embed.swing.SwingNode
 import javafx.geometry.Pos
 import javafx.scene.layout.Priority
+import sh.rebecca.inventory.obj.Obj
+import sh.rebecca.inventory.obj.ObjService
 import tornadofx.*
 
 class EditorRenderer : View() {
 
     private val scene: Scene by di()
-    private val modelWrapper = SwingNode()
     private val editorViewModel: EditorViewModel by di()
+    private val objService: ObjService by di()
     val objZoomLabel = SimpleStringProperty("Model zoom")
     val objZoom = SimpleIntegerProperty()
     val translateXLabel = SimpleStringProperty("Translate X")
@@ -25,8 +26,10 @@ class EditorRenderer : View() {
     val rollLabel = SimpleStringProperty("Roll")
     val roll = SimpleIntegerProperty()
 
+    // set while the sliders are being filled from a newly selected obj, which is no edit
+    private var syncing = false
+
     override val root = stackpane {
-            modelWrapper.content = this@EditorRenderer.scene
             vbox {
                 paddingAll = 25
                 paddingTop = 120
@@ -81,45 +84,67 @@ class EditorRenderer : View() {
                 vgrow = Priority.ALWAYS
                 alignment = Pos.BOTTOM_CENTER
             }
-            add(modelWrapper)
+            add(this@EditorRenderer.scene.view)
             alignment = Pos.TOP_CENTER
     }
 
     init {
         editorViewModel.selectedItem.onChange {
             if (it != null) {
-                objZoom.value = it.zoom
-                objTranslateX.value = it.translateX
-                objTranslateY.value = it.translateY
-                pitch.value = it.pitch
-                yaw.value = it.yaw
-                roll.value = it.roll
+                syncing = true
+                try {
+                    objZoom.value = it.zoom
+                    objTranslateX.value = it.translateX
+                    objTranslateY.value = it.translateY
+                    pitch.value = it.pitch
+                    yaw.value = it.yaw
+                    roll.value = it.roll
+                } finally {
+                    syncing = false
+                }
             }
         }
         objZoom.onChange {
             objZoomLabel.value = "Model Zoom: $it"
-            editorViewModel.selectedItem.get()?.zoom = it
+            edit { obj -> obj.zoom = it }
         }
         objTranslateX.onChange {
             translateXLabel.value = "Translate X: $it"
-            editorViewModel.selectedItem.get()?.translateX = it
+            edit { obj -> obj.translateX = it }
         }
         objTranslateY.onChange {
             translateYLabel.value = "Translate Y: $it"
-            editorViewModel.selectedItem.get()?.translateY = it
+            edit { obj -> obj.translateY = it }
         }
         pitch.onChange {
             pitchLabel.value = "Pitch: $it"
-            editorViewModel.selectedItem.get()?.pitch = it
+            edit { obj -> obj.pitch = it }
         }
         yaw.onChange {
             yawLabel.value = "Yaw: $it"
-            editorViewModel.selectedItem.get()?.yaw = it
+            edit { obj -> obj.yaw = it }
         }
         roll.onChange {
             rollLabel.value = "Roll: $it"
-            editorViewModel.selectedItem.get()?.roll = it
+            edit { obj -> obj.roll = it }
         }
+    }
 
+    /**
+     * Applies [change] to the selected obj, evicts the icon cached for its previous state, which is left unused by the
+     * edit, and asks the scene for a new frame. Setting a slider to the value it already holds does none of that, nor
+     * does filling the sliders from a new selection.
+     */
+    private fun edit(change: (Obj) -> Unit) {
+        if (syncing) {
+            return
+        }
+        val obj = editorViewModel.selectedItem.get() ?: return
+        val before = obj.renderKey
+        change(obj)
+        if (obj.renderKey != before) {
+            objService.evictObjSprite(before)
+            scene.invalidateFrame()
+        }
     }
 }
@@ -0,0 +1,138 @@
+package sh.rebecca.inventory.editor
+
+import image.Sprite
+import javafx.application.Platform
+import javafx.scene.image.Image
+import javafx.scene.image.PixelFormat
+import javafx.scene.image.WritableImage
+import org.slf4j.LoggerFactory
+import org.springframework.stereotype.Component
+import sh.rebecca.inventory.StartupReport
+import sh.rebecca.inventory.cache.CacheConfig
+import sh.rebecca.inventory.obj.ObjRenderKey
+import sh.rebecca.inventory.obj.ObjService
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.atomic.AtomicBoolean
+import javax.annotation.PreDestroy
+
+/**
+ * Loads the icons shown in the item list. Icons are rendered and turned into FX images on background threads, and the
+ * last [CacheConfig.listIconCount] shown are kept ready in an LRU so scrolling back finds them straight away.
+ *
+ * Finished icons are handed to the FX thread in batches, at most one pending hand-off at a time, so a burst of them
+ * can't flood the FX thread while the list is scrolling. Only the FX thread touches the LRU.
+ */
+@Component
+class IconLoader(private val objService: ObjService, private val config: CacheConfig) {
+
+    private val executor = Executors.newFixedThreadPool(maxOf(1, Runtime.getRuntime().availableProcessors() / 2)) { task ->
+        Thread(task, "icon-loader").apply {
+            isDaemon = true
+            priority = Thread.MIN_PRIORITY
+        }
+    }
+    private val images = object : LinkedHashMap<ObjRenderKey, Image>(256, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<ObjRenderKey, Image>): Boolean {
+            return size > config.listIconCount
+        }
+    }
+    private val loaded = ConcurrentLinkedQueue<Request>()
+    private val delivering = AtomicBoolean()
+
+    /**
+     * Returns the icon for [key] if it's ready, marking it as recently used.
+     */
+    fun getLoaded(key: ObjRenderKey): Image? {
+        return images[key]
+    }
+
+    /**
+     * Starts loading the icon for [key], which is stored on disk if [persist] is set, as for
+     * [ObjService.getObjSprite]. [onLoaded] is called on the FX thread once it's ready, unless the request has been
+     * cancelled by then. Nothing is called if the obj has no icon.
+     */
+    fun load(key: ObjRenderKey, persist: Boolean, onLoaded: (Image) -> Unit): Request {
+        val request = Request(key, persist, onLoaded)
+        request.future = executor.submit { render(request) }
+        return request
+    }
+
+    @PreDestroy
+    fun shutdown() {
+        executor.shutdownNow()
+    }
+
+    private fun render(request: Request) {
+        if (request.cancelled) {
+            return
+        }
+        try {
+            val sprite = objService.getObjSprite(request.key, request.persist) ?: return
+            request.image = toImage(sprite)
+        } catch (e: Exception) {
+            log.warn("Failed to load the icon for {}", request.key, e)
+            return
+        }
+        loaded += request
+        if (delivering.compareAndSet(false, true)) {
+            Platform.runLater(::deliver)
+        }
+    }
+
+    private fun deliver() {
+        // cleared first, so an icon queued while these are handed over gets a hand-off of its own
+        delivering.set(false)
+        while (true) {
+            val request = loaded.poll() ?: break
+            val image = request.image ?: continue
+            // kept even when cancelled, since the work is done and the row may well scroll back
+            images[request.key] = image
+            if (!request.cancelled) {
+                request.onLoaded(image)
+                StartupReport.mark("first icon")
+            }
+        }
+    }
+
+    /**
+     * Sprites leave the alpha byte clear and mark transparent pixels with 0, which FX needs spelled out.
+     */
+    private fun toImage(sprite: Sprite): Image {
+        val pixels = sprite.pixels
+        val argb = IntArray(pixels.size) { if (pixels[it] == 0) 0 else pixels[it] or OPAQUE }
+        // the image isn't shown anywhere yet, so it may be written off the FX thread
+        val image = WritableImage(sprite.width, sprite.height)
+        image.pixelWriter.setPixels(0, 0, sprite.width, sprite.height, PixelFormat.getIntArgbInstance(), argb, 0, sprite.width)
+        return image
+    }
+
+    /**
+     * A pending icon, which the list cell that asked for it cancels once it's showing something else.
+     */
+    class Request internal constructor(val key: ObjRenderKey, internal val persist: Boolean, internal val onLoaded: (Image) -> Unit) {
+
+        internal var future: Future<*>? = null
+
+        @Volatile
+        internal var image: Image? = null
+
+        @Volatile
+        internal var cancelled = false
+            private set
+
+        /**
+         * Called on the FX thread. The icon is dropped if it hasn't started rendering yet.
+         */
+        fun cancel() {
+            cancelled = true
+            future?.cancel(false)
+        }
+    }
+
+    companion object {
+        private const val OPAQUE = 0xff shl 24
+        private val log = LoggerFactory.getLogger(IconLoader::class.java)
+    }
+}
@@ -19,11 +19,14 @@ class InventoryEditorApp : App(InventoryEditorView::class, InventoryEditorStyle:
     override fun start(stage: Stage) {
         stage.isResizable = false
         super.start(stage)
+        StartupReport.mark("window shown")
     }
 
     override fun init() {
         super.init()
-        context = SpringApplicationBuilder(InventoryEditorApp::class.java).headless(false).web(WebApplicationType.NONE).run(*parameters.raw.toTypedArray())
+        context = StartupReport.time("context refresh") {
+            SpringApplicationBuilder(InventoryEditorApp::class.java).headless(false).web(WebApplicationType.NONE).run(*parameters.raw.toTypedArray())
+        }
         FX.dicontainer = object : DIContainer {
             override fun <T : Any> getInstance(type: KClass<T>): T = context.getBean(type.java)
             override fun <T : Any> getInstance(type: KClass<T>, name: String): T = context.getBean(type.java, name)
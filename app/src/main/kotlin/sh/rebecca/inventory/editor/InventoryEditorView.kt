@@ -3,7 +3,10 @@ package sh.rebecca.inventory.editor
 import javafx.geometry.Pos
 import javafx.scene.control.ListView
 import javafx.scene.control.SelectionMode
+import javafx.scene.control.skin.VirtualFlow
 import javafx.scene.layout.Priority
+import sh.rebecca.inventory.StartupReport
+import sh.rebecca.inventory.obj.Obj
 import sh.rebecca.inventory.obj.ObjService
 import tornadofx.*
 import java.util.*
@@ -25,6 +28,9 @@ class InventoryEditorView : View() {
     private val itemService: ObjService by di()
     private val editorViewModel: EditorViewModel by di()
     private val scene: Scene by di()
+    private val prefetcher: ModelPrefetcher by di()
+    private val search: ItemSearch by di()
+    private val icons: IconLoader by di()
 
     private var list = ListView(editorViewModel.items)
 
@@ -56,18 +62,15 @@ class InventoryEditorView : View() {
            vbox {
                textfield("Search...") {
                    textProperty().addListener { obs, old, new ->
-                       list.items = editorViewModel.items.filter { obj ->
-                           obj.name.lowercase().contains(new.lowercase()) || obj.id == new.toIntOrNull()
-                       }.toObservable()
+                       search.search(new) { list.items = it.toObservable() }
                    }
                }
                list = listview(editorViewModel.items) {
                    prefWidth = 200.0
                    selectionModel.selectionMode = SelectionMode.SINGLE
                    bindSelected(editorViewModel.selectedItem)
-                   cellFormat {
-                       text = "${it?.id}: ${it?.name}"
-                   }
+                   setCellFactory { ItemCell(icons) }
+                   skinProperty().onChange { watchVisibleRange(this) }
 
                    vgrow = Priority.ALWAYS
                }
@@ -77,20 +80,55 @@ class InventoryEditorView : View() {
    }
     init {
         title = "Inventory Tool"
-        editorViewModel.selectedItem.value = scene.obj
         editorViewModel.selectedItem.onChange {
             if (it != null) {
                 scene.obj = it
             }
         }
-        editorViewModel.items.addAll((0 until itemService.getCount()).mapNotNull {
-            if (itemService.getObj(it)!!.name.isNotEmpty()) {
-                itemService.getObj(it)
-            } else {
-                null
+        loadItems()
+    }
+
+    /**
+     * Fills the item list from a background task once the window is up. The objs are decoded there, and the items
+     * added in batches so the list is usable while the rest arrive.
+     */
+    private fun loadItems() {
+        val start = System.nanoTime()
+        runAsync {
+            val ids = itemService.getNamedIds()
+            val first = itemService.getObj(1)
+            runLater {
+                if (editorViewModel.selectedItem.value == null) {
+                    editorViewModel.selectedItem.value = first
+                }
             }
-        }.toList())
+            for (from in ids.indices step ITEM_BATCH) {
+                val batch = (from until minOf(from + ITEM_BATCH, ids.size)).map { itemService.getObj(ids[it])!! }
+                runLater { editorViewModel.items.addAll(batch) }
+            }
+            // queued behind the last batch, so this runs once it's in the list
+            runLater { StartupReport.record("list population", start) }
+        }
     }
-}
 
+    /**
+     * Tells the prefetcher which rows [list] shows whenever it scrolls or its items change. Only the skin's
+     * VirtualFlow knows the rows, so this waits for the skin.
+     */
+    private fun watchVisibleRange(list: ListView<Obj>) {
+        val flow = list.lookup(".virtual-flow") as? VirtualFlow<*> ?: return
+        val update = {
+            val first = flow.firstVisibleCell?.index
+            val last = flow.lastVisibleCell?.index
+            if (first != null && last != null) {
+                prefetcher.onVisibleRange(list.items, first, last)
+            }
+        }
+        flow.positionProperty().onChange { update() }
+        list.itemsProperty().onChange { update() }
+    }
 
+    companion object {
+        private const val ITEM_BATCH = 1000
+    }
+}
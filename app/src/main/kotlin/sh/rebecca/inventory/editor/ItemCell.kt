@@ -0,0 +1,56 @@
+package sh.rebecca.inventory.editor
+
+import javafx.scene.control.ListCell
+import javafx.scene.image.ImageView
+import javafx.scene.layout.StackPane
+import sh.rebecca.inventory.obj.Obj
+import sh.rebecca.inventory.obj.ObjRenderKey
+
+/**
+ * A row of the item list showing the item's icon beside its id and name. The list only creates cells for the rows on
+ * screen and reuses them while scrolling, so icons are only asked for while a row is visible, and the request is
+ * cancelled as soon as the cell moves on to another item.
+ */
+class ItemCell(private val icons: IconLoader) : ListCell<Obj>() {
+
+    private val icon = ImageView()
+    private val iconPane = StackPane(icon).apply {
+        // sized up front, so rows don't change height as their icons arrive
+        setMinSize(ICON_SIZE, ICON_SIZE)
+        setPrefSize(ICON_SIZE, ICON_SIZE)
+    }
+    private var request: IconLoader.Request? = null
+
+    override fun updateItem(item: Obj?, empty: Boolean) {
+        super.updateItem(item, empty)
+        if (empty || item == null) {
+            cancel()
+            text = null
+            graphic = null
+            icon.image = null
+            return
+        }
+        text = "${item.id}: ${item.name}"
+        graphic = iconPane
+
+        val key = item.renderKey
+        // layout updates the same item over and over, which mustn't restart its request
+        if (request?.key == key) {
+            return
+        }
+        cancel()
+        icon.image = icons.getLoaded(key)
+        if (icon.image == null) {
+            request = icons.load(key, !item.edited) { icon.image = it }
+        }
+    }
+
+    private fun cancel() {
+        request?.cancel()
+        request = null
+    }
+
+    companion object {
+        private const val ICON_SIZE = 32.0
+    }
+}
@@ -0,0 +1,72 @@
+package sh.rebecca.inventory.editor
+
+import javafx.application.Platform
+import org.slf4j.LoggerFactory
+import org.springframework.stereotype.Component
+import sh.rebecca.inventory.obj.Obj
+import sh.rebecca.inventory.obj.ObjSearchIndex
+import sh.rebecca.inventory.obj.ObjService
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.TimeUnit
+import javax.annotation.PreDestroy
+
+/**
+ * Runs the item list's searches on a background thread. A query only runs once typing has paused for
+ * [DEBOUNCE_MILLIS], and each one narrows the result of the last, so typing a name a character at a time only ever
+ * rechecks the names which still matched.
+ */
+@Component
+class ItemSearch(private val objService: ObjService) {
+
+    private val executor = Executors.newSingleThreadScheduledExecutor { task ->
+        Thread(task, "item-search").apply { isDaemon = true }
+    }
+    private var pending: ScheduledFuture<*>? = null
+
+    // only touched by the search thread
+    private var previous: ObjSearchIndex.Result? = null
+
+    @Volatile
+    private var latest = ""
+
+    init {
+        // the index decodes every name, which is better done before the first keystroke
+        executor.execute { objService.searchIndex }
+    }
+
+    /**
+     * Called on the FX thread as [query] is typed. [onResult] is called on the FX thread with the matching items,
+     * unless another query has been typed since.
+     */
+    fun search(query: String, onResult: (List<Obj>) -> Unit) {
+        latest = query
+        pending?.cancel(false)
+        pending = executor.schedule({ run(query, onResult) }, DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)
+    }
+
+    @PreDestroy
+    fun shutdown() {
+        executor.shutdownNow()
+    }
+
+    private fun run(query: String, onResult: (List<Obj>) -> Unit) {
+        try {
+            val result = objService.searchIndex.search(query, previous)
+            previous = result
+            val items = result.ids.map { objService.getObj(it)!! }
+            Platform.runLater {
+                if (latest == query) {
+                    onResult(items)
+                }
+            }
+        } catch (e: Exception) {
+            log.warn("Failed to search for {}", query, e)
+        }
+    }
+
+    companion object {
+        private const val DEBOUNCE_MILLIS = 100L
+        private val log = LoggerFactory.getLogger(ItemSearch::class.java)
+    }
+}
@@ -0,0 +1,103 @@
+package sh.rebecca.inventory.editor
+
+import com.github.benmanes.caffeine.cache.Cache
+import org.springframework.cache.CacheManager
+import org.springframework.stereotype.Component
+import sh.rebecca.inventory.cache.CacheConfig
+import sh.rebecca.inventory.cache.CacheWeights
+import sh.rebecca.inventory.model.ModelService
+import sh.rebecca.inventory.obj.Obj
+import sh.rebecca.inventory.obj.ObjService
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+import javax.annotation.PreDestroy
+
+/**
+ * Renders the icons of the items around the visible part of the item list on a background thread, so selecting one
+ * finds its model decoded and its icon already in the cache. Items are fetched in scroll order: the visible ones
+ * first, then the next [CacheConfig.prefetchCount] in the direction the list last moved.
+ *
+ * Every update supersedes the one before, so a jump abandons whatever was still queued for the old position. A
+ * single update never decodes more than half of the models cache, so prefetching can't evict the working set. Only
+ * models which have to be decoded count against that, so a list of cached items is prefetched in full.
+ */
+@Component
+class ModelPrefetcher(
+    private val objService: ObjService,
+    private val modelService: ModelService,
+    private val cacheManager: CacheManager,
+    private val config: CacheConfig
+) {
+
+    private val executor = Executors.newSingleThreadExecutor { task ->
+        Thread(task, "model-prefetch").apply {
+            isDaemon = true
+            priority = Thread.MIN_PRIORITY
+        }
+    }
+    private val generation = AtomicInteger()
+    private var lastFirst = 0
+
+    /**
+     * Called on the FX thread whenever the visible rows [first, last] of [items] change.
+     */
+    fun onVisibleRange(items: List<Obj>, first: Int, last: Int) {
+        if (items.isEmpty() || first > last) {
+            return
+        }
+        val backwards = first < lastFirst
+        lastFirst = first
+
+        // the items are picked here, since the list may change under the prefetch thread
+        val ordered = ArrayList<Obj>(last - first + 1 + config.prefetchCount)
+        for (index in first..minOf(last, items.size - 1)) {
+            ordered += items[index]
+        }
+        for (step in 1..config.prefetchCount) {
+            val index = if (backwards) first - step else last + step
+            if (index < 0 || index >= items.size) {
+                break
+            }
+            ordered += items[index]
+        }
+
+        val current = generation.incrementAndGet()
+        executor.execute { prefetch(ordered, current) }
+    }
+
+    private fun prefetch(objs: List<Obj>, current: Int) {
+        var budget = config.getCacheBytes("models") / 2
+        for (obj in objs) {
+            if (generation.get() != current) {
+                return
+            }
+            val key = obj.renderKey
+            if (isCached("objsprite", key)) {
+                continue
+            }
+            // stored icons are only read back, which doesn't touch the model at all
+            if (!objService.hasStoredIcon(key) && !isCached("models", key.model)) {
+                val model = modelService.getModel(key.model) ?: continue
+                budget -= CacheWeights.weigh(model)
+                if (budget < 0) {
+                    return
+                }
+            }
+            // the model is cached by now, so rendering doesn't decode it again
+            objService.getObjSprite(key, !obj.edited)
+        }
+    }
+
+    /**
+     * Returns whether [key] is in the cache called [name], without counting as a hit or a miss or as a use.
+     */
+    private fun isCached(name: String, key: Any): Boolean {
+        val cache = cacheManager.getCache(name)?.nativeCache as? Cache<*, *> ?: return false
+        return cache.asMap().containsKey(key)
+    }
+
+    @PreDestroy
+    fun shutdown() {
+        executor.shutdownNow()
+    }
+}
@@ -0,0 +1,51 @@
+package sh.rebecca.inventory.editor
+
+import org.slf4j.LoggerFactory
+import java.io.Closeable
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * Runs [frame] on a background thread whenever something asks for it, at most once every [frameNanos]. Any number of
+ * requests made before a frame starts are served by that one frame, and nothing runs while nobody asks.
+ */
+class RenderScheduler(name: String, private val frameNanos: Long, private val frame: () -> Unit) : Closeable {
+
+    private val executor = Executors.newSingleThreadScheduledExecutor { task ->
+        Thread(task, name).apply { isDaemon = true }
+    }
+    private val scheduled = AtomicBoolean()
+
+    @Volatile
+    private var lastFrame = System.nanoTime() - frameNanos
+
+    /**
+     * Asks for a frame. The frame is run as soon as a tick has passed since the last one.
+     */
+    fun request() {
+        if (scheduled.compareAndSet(false, true)) {
+            val delay = lastFrame + frameNanos - System.nanoTime()
+            executor.schedule(::run, maxOf(delay, 0), TimeUnit.NANOSECONDS)
+        }
+    }
+
+    override fun close() {
+        executor.shutdownNow()
+    }
+
+    private fun run() {
+        // cleared first, so a request made while this frame renders gets a frame of its own
+        scheduled.set(false)
+        lastFrame = System.nanoTime()
+        try {
+            frame()
+        } catch (e: Exception) {
+            log.warn("Failed to render a frame", e)
+        }
+    }
+
+    companion object {
+        private val log = LoggerFactory.getLogger(RenderScheduler::class.java)
+    }
+}
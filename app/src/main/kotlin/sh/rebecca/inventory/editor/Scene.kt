@@ -1,42 +1,193 @@
 package sh.rebecca.inventory.editor
 
-import com.displee.cache.CacheLibrary
 import image.Graphics2D
 import image.ImageProducer3D
-import javafx.embed.swing.JFXPanel
+import image.RenderContext
+import image.Sprite
+import javafx.application.Platform
+import javafx.geometry.Rectangle2D
+import javafx.scene.image.ImageView
+import javafx.scene.image.PixelBuffer
+import javafx.scene.image.PixelFormat
+import javafx.scene.image.WritableImage
 import org.springframework.stereotype.Component
-import reader.ModelReader
-import sh.rebecca.inventory.input.fixRotation
+import sh.rebecca.inventory.obj.Obj
 import sh.rebecca.inventory.obj.ObjService
-import java.awt.Dimension
-import java.awt.Graphics
-import java.awt.event.*
-import java.awt.event.MouseEvent.*
-import javax.swing.JComponent
+import java.nio.IntBuffer
+import java.util.concurrent.CountDownLatch
+import javax.annotation.PreDestroy
 
 @Component
-class Scene(private val objService: ObjService) : JComponent() {
+class Scene(private val objService: ObjService) {
 
-    var obj = objService.getObj(1)!!
+    /**
+     * The obj being shown, which is none until the items have loaded. Setting it renders a new frame.
+     */
+    @Volatile
+    var obj: Obj? = null
+        set(value) {
+            field = value
+            invalidateFrame()
+        }
+
+    // frames are rendered off the FX thread into the frame's own pixels, and only what changed is copied into the
+    // shown buffer, which JavaFX only lets the FX thread change from inside updateBuffer
+    private val frame = Frame()
+    private val shownPixels = IntArray(SIZE * SIZE)
+    private val shown = PixelBuffer(SIZE, SIZE, IntBuffer.wrap(shownPixels), PixelFormat.getIntArgbPreInstance())
+    private val context = RenderContext()
+
+    /**
+     * The node showing the frames. Each frame only copies the area which changed into the image.
+     */
+    val view = ImageView(WritableImage(shown))
+
+    private val scheduler = RenderScheduler("scene-render", FRAME_NANOS, ::renderFrame)
 
     init {
-        this.maximumSize = Dimension(320, 320)
+        invalidateFrame()
     }
 
-    override fun paintComponent(g: Graphics) {
-        super.paintComponent(g)
-        val viewport = ImageProducer3D(320, 320)
-        viewport.bind()
-        Graphics2D.fillRect(0, 0, 320, 320, 0xff00ff)
-        setup()
-        viewport.draw(graphics, 0, 0)
+    /**
+     * Asks for the obj to be rendered again, for when it's been edited in place. Bursts of calls are coalesced into
+     * one frame per tick.
+     */
+    fun invalidateFrame() {
+        scheduler.request()
     }
 
     var mouseX = 0
     var mouseY = 0
 
-    private fun setup() {
-        objService.getObjSprite(obj)?.draw(0, 0, 320, 320)
-        repaint()
+    @PreDestroy
+    fun close() {
+        scheduler.close()
+    }
+
+    private fun renderFrame() {
+        frame.producer.bind(context)
+
+        val sprite = obj?.let { objService.getObjSprite(it.renderKey, !it.edited) }
+        val background = if (sprite == null) EMPTY_BACKGROUND else ICON_BACKGROUND
+        if (background != frame.background) {
+            // nothing drawn over the old background can stay, so the whole frame is cleared
+            frame.background = background
+            frame.setCovered(0, 0, SIZE, SIZE)
+        }
+
+        // the rest of the frame still holds the background, so only what the last icon covered is cleared
+        val left = frame.left
+        val top = frame.top
+        val right = frame.right
+        val bottom = frame.bottom
+        if (right > left && bottom > top) {
+            Graphics2D.fillRect(context, left, top, right - left, bottom - top, background)
+        }
+        // drawn straight rather than through Sprite.draw, which fills the whole area behind the sprite first
+        sprite?.let { Graphics2D.drawSprite(context, it, 0, 0, SIZE, SIZE) }
+
+        // what changed is everything the old icon or the new one covers, an empty area being left > right
+        frame.setBounds(sprite)
+        val dirtyLeft = minOf(left, frame.left)
+        val dirtyTop = minOf(top, frame.top)
+        val dirtyRight = maxOf(right, frame.right)
+        val dirtyBottom = maxOf(bottom, frame.bottom)
+        if (dirtyRight <= dirtyLeft || dirtyBottom <= dirtyTop) {
+            return
+        }
+
+        // wait for the copy, since the next frame is drawn over the pixels it reads
+        val copied = CountDownLatch(1)
+        Platform.runLater {
+            shown.updateBuffer {
+                frame.copyTo(shownPixels, dirtyLeft, dirtyTop, dirtyRight, dirtyBottom)
+                Rectangle2D(dirtyLeft.toDouble(), dirtyTop.toDouble(), (dirtyRight - dirtyLeft).toDouble(), (dirtyBottom - dirtyTop).toDouble())
+            }
+            copied.countDown()
+        }
+        copied.await()
+    }
+
+    /**
+     * A rasterizer target along with its background and the area the last icon drawn into it covers. Every pixel
+     * outside that area holds the background.
+     */
+    private class Frame {
+        val producer = ImageProducer3D(SIZE, SIZE)
+
+        // none yet, so the first frame clears everything
+        var background = -1
+        var left = 0
+        var top = 0
+        var right = 0
+        var bottom = 0
+
+        fun setCovered(left: Int, top: Int, right: Int, bottom: Int) {
+            this.left = left
+            this.top = top
+            this.right = right
+            this.bottom = bottom
+        }
+
+        /**
+         * Sets the covered area to the opaque pixels of [sprite] as [Graphics2D.drawSprite] scales it to the frame,
+         * which steps through the sprite in fixed point, so a sprite pixel may cover a pixel more than an even share.
+         */
+        fun setBounds(sprite: Sprite?) {
+            setCovered(SIZE, SIZE, 0, 0)
+            if (sprite == null) {
+                return
+            }
+            val icon = sprite.pixels
+            var minX = sprite.width
+            var minY = sprite.height
+            var maxX = -1
+            var maxY = -1
+            for (y in 0 until sprite.height) {
+                for (x in 0 until sprite.width) {
+                    if (icon[x + y * sprite.width] != 0) {
+                        minX = minOf(minX, x)
+                        minY = minOf(minY, y)
+                        maxX = maxOf(maxX, x)
+                        maxY = maxOf(maxY, y)
+                    }
+                }
+            }
+            if (maxX < 0) {
+                return
+            }
+            // frame pixel i shows sprite pixel (i * step) shr 8, so sprite pixel x starts at ceil(x * 256 / step)
+            val stepX = (sprite.width shl 8) / SIZE
+            val stepY = (sprite.height shl 8) / SIZE
+            setCovered(
+                ((minX shl 8) + stepX - 1) / stepX,
+                ((minY shl 8) + stepY - 1) / stepY,
+                minOf(SIZE, (((maxX + 1) shl 8) + stepX - 1) / stepX),
+                minOf(SIZE, (((maxY + 1) shl 8) + stepY - 1) / stepY)
+            )
+        }
+
+        /**
+         * Copies an area of the frame into [target]. The rasterizer leaves the alpha byte clear, which FX would take
+         * as transparent, so it's set on the way. Everything outside the area was set by an earlier frame, the first
+         * of which changes the whole frame.
+         */
+        fun copyTo(target: IntArray, left: Int, top: Int, right: Int, bottom: Int) {
+            val source = producer.pixels
+            for (y in top until bottom) {
+                for (offset in y * SIZE + left until y * SIZE + right) {
+                    target[offset] = source[offset] or OPAQUE
+                }
+            }
+        }
+    }
+
+    companion object {
+        private const val SIZE = 320
+        private const val FRAME_NANOS = 16_000_000L
+        private const val EMPTY_BACKGROUND = 0xff00ff
+        // what Sprite.draw fills behind a scaled sprite, which the preview has always shown icons on
+        private const val ICON_BACKGROUND = 0x554b3f
+        private const val OPAQUE = 0xff shl 24
     }
 }
@@ -4,15 +4,24 @@ import com.displee.cache.CacheLibrary
 import media.Model
 import org.springframework.stereotype.Component
 import sh.rebecca.inventory.repository.Repository
-import java.io.ByteArrayInputStream
+import java.nio.ByteBuffer
 
-interface ModelRepository : Repository<Model>
+interface ModelRepository : Repository<Model> {
+
+    fun findDataById(id: Int): ByteArray?
+}
 
 @Component
 class CacheModelRepository(private val reader: RSModelReader, private val cache: CacheLibrary) : ModelRepository {
 
     override fun findById(id: Int): Model? {
-        return cache.data(1, id)?.let { reader.read(ByteArrayInputStream(it)) }
+        // decoded in place, the cache library already hands back a fresh array
+        return findDataById(id)?.let { reader.decode(ByteBuffer.wrap(it)) }
+    }
+
+    override fun findDataById(id: Int): ByteArray? {
+        // the library reads through a shared file handle, so only the read is serialized and decoding runs in parallel
+        return synchronized(cache) { cache.data(1, id) }
     }
 
     override fun getCount(): Int {
@@ -3,12 +3,25 @@ package sh.rebecca.inventory.model
 import media.Model
 import org.springframework.cache.annotation.Cacheable
 import org.springframework.stereotype.Service
+import sh.rebecca.inventory.cache.ContentHash
+import java.util.concurrent.ConcurrentHashMap
 
 @Service
 class ModelService(private val repository: ModelRepository) {
 
+    private val hashes = ConcurrentHashMap<Int, Long>()
+
     @Cacheable("models")
     fun getModel(id: Int): Model? {
         return repository.findById(id)
     }
+
+    /**
+     * Returns a hash of the encoded model, which reads it from the cache the first time but never decodes it.
+     */
+    fun getModelHash(id: Int): Long? {
+        hashes[id]?.let { return it }
+        val data = repository.findDataById(id) ?: return null
+        return ContentHash().put(data).finish().also { hashes[id] = it }
+    }
 }
@@ -0,0 +1,84 @@
+package sh.rebecca.inventory.obj
+
+import image.Sprite
+import image.SpriteAtlas
+import java.util.concurrent.RecursiveAction
+import java.util.concurrent.atomic.AtomicInteger
+
+class BulkRenderResult(
+    val from: Int,
+    val atlas: SpriteAtlas,
+    private val present: BooleanArray,
+    val rendered: Int,
+    val elapsedNanos: Long,
+    val cancelled: Boolean
+) {
+
+    val itemsPerSecond: Double
+        get() = if (elapsedNanos == 0L) 0.0 else rendered * 1_000_000_000.0 / elapsedNanos
+
+    /**
+     * Returns the handle of [id]'s icon in [atlas], or -1 if it wasn't rendered.
+     */
+    fun getHandle(id: Int): Int {
+        val index = id - from
+        return if (present.getOrElse(index) { false }) index else -1
+    }
+
+    /**
+     * Returns a copy of [id]'s icon, or null if it wasn't rendered. Prefer drawing from [atlas] with [getHandle].
+     */
+    fun getSprite(id: Int): Sprite? {
+        val handle = getHandle(id)
+        return if (handle == -1) null else atlas.toSprite(handle)
+    }
+
+    override fun toString(): String {
+        return "rendered $rendered of ${present.size} icons in ${elapsedNanos / 1_000_000} ms (${"%.1f".format(itemsPerSecond)} items/sec)${if (cancelled) ", cancelled" else ""}"
+    }
+}
+
+internal class BulkRenderTask(
+    private val from: Int,
+    private val to: Int,
+    private val base: Int,
+    private val present: BooleanArray,
+    private val render: (Int) -> Boolean,
+    private val completed: AtomicInteger,
+    private val rendered: AtomicInteger,
+    private val onProgress: (Int, Int) -> Unit,
+    private val cancelled: () -> Boolean
+) : RecursiveAction() {
+
+    override fun compute() {
+        if (cancelled()) {
+            return
+        }
+        if (to - from > THRESHOLD) {
+            val mid = (from + to) ushr 1
+            invokeAll(
+                BulkRenderTask(from, mid, base, present, render, completed, rendered, onProgress, cancelled),
+                BulkRenderTask(mid, to, base, present, render, completed, rendered, onProgress, cancelled)
+            )
+            return
+        }
+        var processed = 0
+        var count = 0
+        for (id in from until to) {
+            if (cancelled()) {
+                break
+            }
+            processed++
+            if (render(id)) {
+                present[id - base] = true
+                count++
+            }
+        }
+        rendered.addAndGet(count)
+        onProgress(completed.addAndGet(processed), present.size)
+    }
+
+    companion object {
+        const val THRESHOLD = 32
+    }
+}
@@ -1,21 +1,182 @@
 package sh.rebecca.inventory.obj
 
+/**
+ * A view of one row of an [ObjTable]. Views hold no data of their own, so they're cheap to create for every list
+ * cell and two views of the same row are equal. Setting a field writes it to the table, so every view of the row
+ * sees the edit.
+ */
+class Obj internal constructor(private val table: ObjTable, val id: Int) {
 
-data class Obj(
-    var id: Int,
-    var name: String,
-    var model: Int,
-    var originalColors: IntArray? = null,
-    var replacementColors: IntArray? = null,
-    var pitch: Int,
-    var yaw: Int,
-    var roll: Int,
-    var translateX: Int,
-    var translateY: Int,
-    var zoom: Int,
-    var ambient: Int,
-    var attenuation: Int,
-    var scaleX: Int,
-    var scaleY: Int,
-    var scaleZ: Int)
+    val name: String
+        get() = table.getName(id)
 
+    var model: Int
+        get() = table.model[id]
+        set(value) {
+            if (table.model[id] != value) {
+                table.model[id] = value
+                table.edited[id] = true
+            }
+        }
+
+    var zoom: Int
+        get() = table.zoom[id].toInt() and 0xffff
+        set(value) {
+            val stored = value.toShort()
+            if (table.zoom[id] != stored) {
+                table.zoom[id] = stored
+                table.edited[id] = true
+            }
+        }
+
+    var pitch: Int
+        get() = table.pitch[id].toInt() and 0xffff
+        set(value) {
+            val stored = value.toShort()
+            if (table.pitch[id] != stored) {
+                table.pitch[id] = stored
+                table.edited[id] = true
+            }
+        }
+
+    var yaw: Int
+        get() = table.yaw[id].toInt() and 0xffff
+        set(value) {
+            val stored = value.toShort()
+            if (table.yaw[id] != stored) {
+                table.yaw[id] = stored
+                table.edited[id] = true
+            }
+        }
+
+    var roll: Int
+        get() = table.roll[id].toInt() and 0xffff
+        set(value) {
+            val stored = value.toShort()
+            if (table.roll[id] != stored) {
+                table.roll[id] = stored
+                table.edited[id] = true
+            }
+        }
+
+    var translateX: Int
+        get() = table.translateX[id].toInt()
+        set(value) {
+            val stored = value.toShort()
+            if (table.translateX[id] != stored) {
+                table.translateX[id] = stored
+                table.edited[id] = true
+            }
+        }
+
+    var translateY: Int
+        get() = table.translateY[id].toInt()
+        set(value) {
+            val stored = value.toShort()
+            if (table.translateY[id] != stored) {
+                table.translateY[id] = stored
+                table.edited[id] = true
+            }
+        }
+
+    var ambient: Int
+        get() = table.ambient[id].toInt()
+        set(value) {
+            val stored = value.toShort()
+            if (table.ambient[id] != stored) {
+                table.ambient[id] = stored
+                table.edited[id] = true
+            }
+        }
+
+    var attenuation: Int
+        get() = table.attenuation[id].toInt()
+        set(value) {
+            val stored = value.toShort()
+            if (table.attenuation[id] != stored) {
+                table.attenuation[id] = stored
+                table.edited[id] = true
+            }
+        }
+
+    var scaleX: Int
+        get() = table.scaleX[id].toInt() and 0xffff
+        set(value) {
+            val stored = value.toShort()
+            if (table.scaleX[id] != stored) {
+                table.scaleX[id] = stored
+                table.edited[id] = true
+            }
+        }
+
+    var scaleY: Int
+        get() = table.scaleY[id].toInt() and 0xffff
+        set(value) {
+            val stored = value.toShort()
+            if (table.scaleY[id] != stored) {
+                table.scaleY[id] = stored
+                table.edited[id] = true
+            }
+        }
+
+    var scaleZ: Int
+        get() = table.scaleZ[id].toInt() and 0xffff
+        set(value) {
+            val stored = value.toShort()
+            if (table.scaleZ[id] != stored) {
+                table.scaleZ[id] = stored
+                table.edited[id] = true
+            }
+        }
+
+    /**
+     * Whether any field has been changed since the table was read. Setting a field to the value it holds doesn't count.
+     */
+    val edited: Boolean
+        get() = table.edited[id]
+
+    /**
+     * The number of recolors, which is 0 when there are none.
+     */
+    val recolorCount: Int
+        get() = maxOf(table.recolorCount[id].toInt(), 0)
+
+    fun getOriginalColor(index: Int): Int {
+        return table.recolors[table.recolorStart[id] + index * 2].toInt() and 0xffff
+    }
+
+    fun getReplacementColor(index: Int): Int {
+        return table.recolors[table.recolorStart[id] + index * 2 + 1].toInt() and 0xffff
+    }
+
+    /**
+     * A copy of the recolored colors, or null if the definition has no recolors. Prefer [getOriginalColor].
+     */
+    val originalColors: IntArray?
+        get() = if (table.recolorCount[id] < 0) null else IntArray(recolorCount) { getOriginalColor(it) }
+
+    /**
+     * A copy of the colors they're replaced with, or null if the definition has no recolors. Prefer
+     * [getReplacementColor].
+     */
+    val replacementColors: IntArray?
+        get() = if (table.recolorCount[id] < 0) null else IntArray(recolorCount) { getReplacementColor(it) }
+
+    /**
+     * A snapshot of the fields the icon renderer reads, which keys the rendered icon.
+     */
+    val renderKey: ObjRenderKey
+        get() = ObjRenderKey.of(this)
+
+    override fun equals(other: Any?): Boolean {
+        return other is Obj && other.table === table && other.id == id
+    }
+
+    override fun hashCode(): Int {
+        return id
+    }
+
+    override fun toString(): String {
+        return "Obj(id=$id, name=$name, model=$model)"
+    }
+}
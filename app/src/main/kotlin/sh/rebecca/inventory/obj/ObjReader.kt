@@ -6,7 +6,21 @@ import org.springframework.stereotype.Component
 @Component
 class ObjReader {
 
-    fun read(buffer: Buffer, id: Int): Obj {
+    /**
+     * Decodes every definition in [data] into a new table, with definition n starting at [offsets] n.
+     */
+    fun read(data: ByteArray, offsets: IntArray): ObjTable {
+        val table = ObjTable(data, offsets.size - 1)
+        val buffer = Buffer(data)
+        for (id in 0 until table.size) {
+            buffer.position = offsets[id]
+            read(buffer, table, id)
+        }
+        table.trim()
+        return table
+    }
+
+    private fun read(buffer: Buffer, table: ObjTable, id: Int) {
         var modelId = 0
         var zoom = 2000
         var translateX = 0
@@ -14,20 +28,24 @@ class ObjReader {
         var pitch = 0
         var yaw = 0
         var roll = 0
-        var originalColors: IntArray? = null
-        var replacementColors: IntArray? = null
         var ambient = 0
         var attenuation = 0
         var scaleX = 128
         var scaleY = 128
         var scaleZ = 128
-        var name = ""
 
         do {
             val opcode = buffer.read()
             when(opcode) {
                 1 ->  modelId = buffer.readUShort()
-                2 -> name = buffer.readString()
+                2 -> {
+                    // only the position is kept, the string is decoded when it's first asked for
+                    val start = buffer.position
+                    while (buffer.read() != 10) {
+                    }
+                    table.nameOffset[id] = start
+                    table.nameLength[id] = (buffer.position - start - 1).toShort()
+                }
                 3 -> buffer.readStringBytes()
                 4 -> zoom = buffer.readUShort()
                 5 -> pitch = buffer.readUShort()
@@ -64,11 +82,11 @@ class ObjReader {
                 }
                 40 -> {
                     val count = buffer.read()
-                    originalColors = IntArray(count)
-                    replacementColors = IntArray(count)
+                    table.startRecolors(id, count)
+                    var offset = table.recolorStart[id]
                     for(i in 0 until count) {
-                        originalColors[i] = buffer.readUShort()
-                        replacementColors[i] = buffer.readUShort()
+                        table.recolors[offset++] = buffer.readUShort().toShort()
+                        table.recolors[offset++] = buffer.readUShort().toShort()
                     }
                 }
                 78 -> buffer.readUShort()
@@ -90,7 +108,21 @@ class ObjReader {
                 113 -> ambient = buffer.readByte().toInt()
                 114 -> attenuation = buffer.readByte() * 5
                 115 -> buffer.read()
-                0 -> return Obj(id, name, modelId, originalColors, replacementColors, pitch, yaw, roll, translateX, translateY, zoom, ambient, attenuation, scaleX, scaleY, scaleZ)
+                0 -> {
+                    table.model[id] = modelId
+                    table.zoom[id] = zoom.toShort()
+                    table.pitch[id] = pitch.toShort()
+                    table.yaw[id] = yaw.toShort()
+                    table.roll[id] = roll.toShort()
+                    table.translateX[id] = translateX.toShort()
+                    table.translateY[id] = translateY.toShort()
+                    table.ambient[id] = ambient.toShort()
+                    table.attenuation[id] = attenuation.toShort()
+                    table.scaleX[id] = scaleX.toShort()
+                    table.scaleY[id] = scaleY.toShort()
+                    table.scaleZ[id] = scaleZ.toShort()
+                    return
+                }
             }
         } while (true)
     }
@@ -0,0 +1,110 @@
+package sh.rebecca.inventory.obj
+
+/**
+ * An immutable snapshot of every [Obj] field the icon renderer reads, used to key rendered icons. Unlike the [Obj]
+ * view it doesn't change when the obj is edited, compares recolors by content, and carries a 64-bit hash computed
+ * once up front so lookups don't walk the fields.
+ */
+class ObjRenderKey private constructor(
+    val model: Int,
+    val zoom: Int,
+    val pitch: Int,
+    val yaw: Int,
+    val roll: Int,
+    val translateX: Int,
+    val translateY: Int,
+    val scaleX: Int,
+    val scaleY: Int,
+    val scaleZ: Int,
+    val ambient: Int,
+    val attenuation: Int,
+    private val originalColors: IntArray?,
+    private val replacementColors: IntArray?
+) {
+
+    val hash: Long
+
+    init {
+        var h = mix(model.toLong(), zoom)
+        h = mix(h, pitch)
+        h = mix(h, yaw)
+        h = mix(h, roll)
+        h = mix(h, translateX)
+        h = mix(h, translateY)
+        h = mix(h, scaleX)
+        h = mix(h, scaleY)
+        h = mix(h, scaleZ)
+        h = mix(h, ambient)
+        h = mix(h, attenuation)
+        h = mix(h, originalColors?.size ?: -1)
+        for (i in 0 until recolorCount) {
+            h = mix(h, originalColors!![i])
+            h = mix(h, replacementColors!![i])
+        }
+        hash = h
+    }
+
+    val recolorCount: Int
+        get() = originalColors?.size ?: 0
+
+    fun getOriginalColor(index: Int): Int {
+        return originalColors!![index]
+    }
+
+    fun getReplacementColor(index: Int): Int {
+        return replacementColors!![index]
+    }
+
+    /**
+     * Returns a copy of the recolored colors, or null if there are no recolors.
+     */
+    fun copyOriginalColors(): IntArray? {
+        return originalColors?.copyOf()
+    }
+
+    /**
+     * Returns a copy of the colors they're replaced with, or null if there are no recolors.
+     */
+    fun copyReplacementColors(): IntArray? {
+        return replacementColors?.copyOf()
+    }
+
+    override fun equals(other: Any?): Boolean {
+        if (this === other) {
+            return true
+        }
+        return other is ObjRenderKey && other.hash == hash &&
+            other.model == model && other.zoom == zoom &&
+            other.pitch == pitch && other.yaw == yaw && other.roll == roll &&
+            other.translateX == translateX && other.translateY == translateY &&
+            other.scaleX == scaleX && other.scaleY == scaleY && other.scaleZ == scaleZ &&
+            other.ambient == ambient && other.attenuation == attenuation &&
+            other.originalColors.contentEquals(originalColors) && other.replacementColors.contentEquals(replacementColors)
+    }
+
+    override fun hashCode(): Int {
+        return (hash xor (hash ushr 32)).toInt()
+    }
+
+    override fun toString(): String {
+        return "ObjRenderKey(model=$model, hash=${hash.toULong().toString(16)})"
+    }
+
+    companion object {
+
+        fun of(obj: Obj): ObjRenderKey {
+            return ObjRenderKey(
+                obj.model, obj.zoom, obj.pitch, obj.yaw, obj.roll, obj.translateX, obj.translateY,
+                obj.scaleX, obj.scaleY, obj.scaleZ, obj.ambient, obj.attenuation,
+                obj.originalColors, obj.replacementColors
+            )
+        }
+
+        private fun mix(hash: Long, value: Int): Long {
+            // one round of a multiply-xorshift, enough to spread neighbouring slider positions across the table
+            var h = (hash + value) * -0x61c8864680b583ebL
+            h = h xor (h ushr 29)
+            return h
+        }
+    }
+}
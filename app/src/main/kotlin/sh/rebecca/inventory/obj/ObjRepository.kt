@@ -3,30 +3,40 @@ package sh.rebecca.inventory.obj
 import com.displee.cache.CacheLibrary
 import io.Buffer
 import org.springframework.stereotype.Component
+import sh.rebecca.inventory.StartupReport
 import sh.rebecca.inventory.repository.Repository
 
-interface ObjRepository : Repository<Obj>
+interface ObjRepository : Repository<Obj> {
+
+    val table: ObjTable
+}
 
 @Component
 class CacheObjRepository(private val reader: ObjReader, private val cache: CacheLibrary) : ObjRepository {
 
-    private val objects: List<Obj>
+    // decoded on first use rather than while the context starts, so the window can show first
+    override val table: ObjTable by lazy { StartupReport.time("obj decode") { decode() } }
 
-    init {
+    private fun decode(): ObjTable {
+        // obj.idx holds the count and then the encoded size of each definition, which are packed from 2 bytes into obj.dat
         val idxBuffer = Buffer(cache.data(0, 2, "obj.idx")!!)
-        val dataBuffer = Buffer(cache.data(0, 2, "obj.dat")!!)
-
-        objects = (0 until idxBuffer.readUShort()).map { id ->
-            reader.read(dataBuffer, id)
-        }.toList()
-
+        val count = idxBuffer.readUShort()
+        val offsets = IntArray(count + 1)
+        offsets[0] = 2
+        for (id in 0 until count) {
+            offsets[id + 1] = offsets[id] + idxBuffer.readUShort()
+        }
+        return reader.read(cache.data(0, 2, "obj.dat")!!, offsets)
     }
 
     override fun findById(id: Int): Obj? {
-        return objects.getOrNull(id)
+        if (id < 0 || id >= table.size) {
+            return null
+        }
+        return table[id]
     }
 
     override fun getCount(): Int {
-        return objects.size
+        return table.size
     }
 }
@@ -0,0 +1,126 @@
+package sh.rebecca.inventory.obj
+
+/**
+ * Finds the named objs whose name contains a query, ignoring case, or whose id is the query. Every substring of up to
+ * three characters of every lowercased name is indexed, so a query that short is a single lookup, and a longer one
+ * only checks the names holding its rarest trigram.
+ *
+ * Results are in id order. A query which contains the one before it, like one typed a character at a time, narrows
+ * that [Result] instead when it holds fewer names than the rarest trigram. The index is never changed once built, so
+ * it may be searched from any thread.
+ */
+class ObjSearchIndex(table: ObjTable) {
+
+    private val ids = table.findNamed()
+    private val names = Array(ids.size) { table.getName(ids[it]).lowercase() }
+    private val postings = HashMap<Long, Postings>()
+
+    init {
+        for (row in names.indices) {
+            val name = names[row]
+            for (start in name.indices) {
+                for (length in 1..minOf(MAX_GRAM, name.length - start)) {
+                    postings.getOrPut(pack(name, start, length)) { Postings() }.add(row)
+                }
+            }
+        }
+        postings.values.forEach { it.trim() }
+    }
+
+    /**
+     * Searches for [query], narrowing [previous] when it still holds every match.
+     */
+    fun search(query: String, previous: Result? = null): Result {
+        val lowercase = query.lowercase()
+        val rows = when {
+            lowercase.isEmpty() -> IntArray(names.size) { it }
+            lowercase.length <= MAX_GRAM -> postings[pack(lowercase, 0, lowercase.length)]?.rows ?: EMPTY
+            else -> {
+                var candidates = rarestTrigram(lowercase)
+                if (previous != null && lowercase.contains(previous.query) && previous.nameRows.size < candidates.size) {
+                    candidates = previous.nameRows
+                }
+                filter(candidates, lowercase)
+            }
+        }
+        return Result(lowercase, rows, withId(rows, query.toIntOrNull()))
+    }
+
+    private fun rarestTrigram(query: String): IntArray {
+        var rarest: IntArray? = null
+        for (start in 0..query.length - MAX_GRAM) {
+            val rows = postings[pack(query, start, MAX_GRAM)]?.rows ?: return EMPTY
+            if (rarest == null || rows.size < rarest.size) {
+                rarest = rows
+            }
+        }
+        return rarest ?: EMPTY
+    }
+
+    private fun filter(rows: IntArray, query: String): IntArray {
+        val matches = IntArray(rows.size)
+        var count = 0
+        for (row in rows) {
+            if (names[row].contains(query)) {
+                matches[count++] = row
+            }
+        }
+        return matches.copyOf(count)
+    }
+
+    /**
+     * Returns the ids for [rows], with the obj whose id is [id] added in order if it's named and not already there.
+     */
+    private fun withId(rows: IntArray, id: Int?): IntArray {
+        val row = if (id == null) -1 else ids.binarySearch(id)
+        if (row < 0 || rows.binarySearch(row) >= 0) {
+            return IntArray(rows.size) { ids[rows[it]] }
+        }
+        val insert = -(rows.binarySearch(row) + 1)
+        return IntArray(rows.size + 1) {
+            when {
+                it < insert -> ids[rows[it]]
+                it == insert -> id!!
+                else -> ids[rows[it - 1]]
+            }
+        }
+    }
+
+    /**
+     * The matches for a query: [ids] holds the name matches along with the id match, if any.
+     */
+    class Result internal constructor(internal val query: String, internal val nameRows: IntArray, val ids: IntArray)
+
+    private class Postings {
+        var rows = IntArray(4)
+        private var size = 0
+
+        fun add(row: Int) {
+            // rows arrive in order, so a gram seen twice in one name is only the last entry
+            if (size > 0 && rows[size - 1] == row) {
+                return
+            }
+            if (size == rows.size) {
+                rows = rows.copyOf(size * 2)
+            }
+            rows[size++] = row
+        }
+
+        fun trim() {
+            rows = rows.copyOf(size)
+        }
+    }
+
+    companion object {
+        private const val MAX_GRAM = 3
+        private val EMPTY = IntArray(0)
+
+        private fun pack(text: String, start: Int, length: Int): Long {
+            var key = length.toLong()
+            for (i in start until start + length) {
+                key = (key shl 16) or text[i].code.toLong()
+            }
+            return key
+        }
+    }
+}
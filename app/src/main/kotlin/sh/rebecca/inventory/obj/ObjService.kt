@@ -1,15 +1,29 @@
 package sh.rebecca.inventory.obj
 
-import image.Graphics2D
+import image.FramebufferPool
 import image.Graphics3D
+import image.RenderContext
 import image.Sprite
+import image.SpriteAtlas
 import media.Model
+import media.ModelInstance
+import org.springframework.cache.annotation.CacheEvict
 import org.springframework.cache.annotation.Cacheable
 import org.springframework.stereotype.Service
+import sh.rebecca.inventory.cache.ContentHash
+import sh.rebecca.inventory.cache.IconStore
 import sh.rebecca.inventory.model.ModelService
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.atomic.AtomicInteger
 
 @Service
-class ObjService(private val repository: ObjRepository, private val modelService: ModelService) {
+class ObjService(private val repository: ObjRepository, private val modelService: ModelService, private val iconStore: IconStore) {
+
+    private val contexts = ThreadLocal.withInitial { RenderContext() }
+    private val instances = ThreadLocal<ModelInstance>()
+    private val scratch = ThreadLocal.withInitial { Sprite(32, 32) }
+    private val framebuffers = FramebufferPool(Runtime.getRuntime().availableProcessors() * 2)
+    private val renderPool by lazy { ForkJoinPool(Runtime.getRuntime().availableProcessors()) }
 
     fun getCount(): Int {
         return repository.getCount()
@@ -19,42 +33,150 @@ class ObjService(private val repository: ObjRepository, private val modelService
         return repository.findById(id)
     }
 
-   @Cacheable("objsprite")
-    fun getObjSprite(obj: Obj): Sprite? {
-        val model = modelService.getModel(obj.model) ?: return null
-        Graphics3D.createPalette(0.7)
+    /**
+     * Returns the ids of every obj with a name, found by scanning the name column without decoding any names.
+     */
+    fun getNamedIds(): IntArray {
+        return repository.table.findNamed()
+    }
+
+    /**
+     * The index the item list is searched with, built on first use. Building decodes every name, so it's best first
+     * used off the FX thread.
+     */
+    val searchIndex by lazy { ObjSearchIndex(repository.table) }
+
+    /**
+     * Returns the icon for an obj in the state captured by [key], which is usually [Obj.renderKey]. A newly rendered
+     * icon is only written to the [IconStore] if [persist] is set, which it shouldn't be for an [Obj.edited] obj:
+     * every slider step gives a new key, and the store never drops any.
+     */
+    @Cacheable("objsprite", key = "#p0")
+    fun getObjSprite(key: ObjRenderKey, persist: Boolean): Sprite? {
+        val iconKey = getIconKey(key) ?: return null
+        iconStore.get(iconKey)?.let { return it }
+        val model = modelService.getModel(key.model) ?: return null
+        val sprite = render(key, model)
+        if (persist) {
+            iconStore.put(iconKey, sprite)
+        }
+        return sprite
+    }
+
+    /**
+     * Returns whether the icon for [key] is in the [IconStore], so getting it won't need the model.
+     */
+    fun hasStoredIcon(key: ObjRenderKey): Boolean {
+        return getIconKey(key)?.let { iconStore.contains(it) } ?: false
+    }
+
+    /**
+     * Drops the icon cached under [key], for when the obj it was taken from has been edited.
+     */
+    @CacheEvict("objsprite")
+    fun evictObjSprite(key: ObjRenderKey) {
+    }
+
+    /**
+     * Returns the key an icon is stored under in the [IconStore], or null if its model doesn't exist. The key
+     * covers the model data rather than its id, along with every field [render] reads and [RENDER_VERSION].
+     */
+    fun getIconKey(key: ObjRenderKey): Long? {
+        val modelHash = modelService.getModelHash(key.model) ?: return null
+        return ContentHash()
+            .put(RENDER_VERSION)
+            .put(modelHash)
+            .put(key.copyOriginalColors())
+            .put(key.copyReplacementColors())
+            .put(key.pitch)
+            .put(key.yaw)
+            .put(key.roll)
+            .put(key.translateX)
+            .put(key.translateY)
+            .put(key.zoom)
+            .put(key.ambient)
+            .put(key.attenuation)
+            .put(key.scaleX)
+            .put(key.scaleY)
+            .put(key.scaleZ)
+            .finish()
+    }
+
+    fun renderAll(onProgress: (Int, Int) -> Unit = { _, _ -> }, cancelled: () -> Boolean = { false }): BulkRenderResult {
+        return renderRange(0, getCount(), onProgress, cancelled)
+    }
+
+    /**
+     * Renders the icons for the ids in [from, to) across all cores, blocking until done or cancelled. [onProgress] is
+     * called from the worker threads with the number of ids processed so far and the total.
+     */
+    fun renderRange(from: Int, to: Int, onProgress: (Int, Int) -> Unit = { _, _ -> }, cancelled: () -> Boolean = { false }): BulkRenderResult {
+        val count = maxOf(0, to - from)
+        // every icon goes straight into one off-heap atlas at handle id - from, rather than a sprite each
+        val atlas = SpriteAtlas(32, 32, true)
+        atlas.reserve(count)
+        val present = BooleanArray(count)
+        val rendered = AtomicInteger()
+        val start = System.nanoTime()
+        renderPool.invoke(BulkRenderTask(from, to, from, present, { id -> renderInto(id, atlas, id - from) }, AtomicInteger(), rendered, onProgress, cancelled))
+        return BulkRenderResult(from, atlas, present, rendered.get(), System.nanoTime() - start, cancelled())
+    }
+
+    /**
+     * Renders the icons for the ids in [from, to) across all cores like [renderRange], but hands each one to [consumer]
+     * on the worker thread which rendered it rather than keeping it, so memory doesn't grow with the range. The pixels
+     * are only valid until [consumer] returns. Returns the number of icons rendered.
+     */
+    fun renderEach(from: Int, to: Int, consumer: (Int, IntArray) -> Unit, onProgress: (Int, Int) -> Unit = { _, _ -> }, cancelled: () -> Boolean = { false }): Int {
+        val rendered = AtomicInteger()
+        renderPool.invoke(BulkRenderTask(from, to, from, BooleanArray(maxOf(0, to - from)), { id -> renderTo(id, consumer) }, AtomicInteger(), rendered, onProgress, cancelled))
+        return rendered.get()
+    }
+
+    private fun renderTo(id: Int, consumer: (Int, IntArray) -> Unit): Boolean {
+        val obj = getObj(id) ?: return false
+        val model = modelService.getModel(obj.model) ?: return false
+        consumer(id, render(obj.renderKey, model, scratch.get()).pixels)
+        return true
+    }
+
+    private fun renderInto(id: Int, atlas: SpriteAtlas, handle: Int): Boolean {
+        val obj = getObj(id) ?: return false
+        val model = modelService.getModel(obj.model) ?: return false
+        atlas.set(handle, render(obj.renderKey, model, scratch.get()))
+        return true
+    }
+
+    private fun render(obj: ObjRenderKey, source: Model, rendered: Sprite = Sprite(32, 32)): Sprite {
+        val context = contexts.get()
+        // the cached model is shared, so scaling, recoloring and lighting go to an instance of it, which is reused
+        // by this thread so its arrays only grow
+        val model = instances.get()?.apply { set(source) } ?: ModelInstance(source).also { instances.set(it) }
+        Graphics3D.createPalette(context, 0.7)
 
         if ((obj.scaleX != 128) || (obj.scaleZ != 128) || (obj.scaleY != 128)) {
             model.scale(obj.scaleX, obj.scaleZ, obj.scaleY);
         }
 
-        if (obj.originalColors != null) {
-            for (i in 0 until obj.originalColors!!.size) {
-                model.recolor(obj.originalColors!![i], obj.replacementColors!![i])
-            }
+        for (i in 0 until obj.recolorCount) {
+            model.recolor(obj.getOriginalColor(i), obj.getReplacementColor(i))
         }
         model.applyLighting(64 + obj.ambient, 768 + obj.attenuation, -50, -10, -50, true)
 
-        val rendered = Sprite(32, 32)
-        val centreX: Int = Graphics3D.centerX
-        val centreY: Int = Graphics3D.centerY
-        val scanOffsets: IntArray = Graphics3D.offsets
-        val raster: IntArray = Graphics2D.target
-        val width: Int = Graphics2D.targetWidth
-        val height: Int = Graphics2D.targetHeight
-        val clipLeft: Int = Graphics2D.left
-        val clipRight: Int = Graphics2D.right
-        val clipBottom: Int = Graphics2D.bottom
-        val clipTop: Int = Graphics2D.top
-
-        Graphics3D.texturedShading = true
-        Graphics2D.setTarget(rendered.pixels, 32, 32)
-        Graphics2D.fillRect(0, 0, 32, 32, 0)
-        Graphics3D.setOffsets()
-
-        val sinPitch: Int = (Graphics3D.sin[obj.pitch] * obj.zoom) shr 16
-        val cosPitch: Int = (Graphics3D.cos[obj.pitch] * obj.zoom) shr 16
-        model.drawSimple(0, obj.yaw ,obj.roll, obj.pitch, obj.translateX, sinPitch + (model.maxBoundY / 2) + obj.translateY, cosPitch + obj.translateY)
+        context.texturedShading = true
+        // a pooled target comes with its offsets and depth buffer, so drawing into it only costs a clear
+        val target = framebuffers.acquire(32, 32)
+        try {
+            target.reset(0)
+            target.bind(context)
+
+            val sinPitch: Int = (Graphics3D.sin[obj.pitch] * obj.zoom) shr 16
+            val cosPitch: Int = (Graphics3D.cos[obj.pitch] * obj.zoom) shr 16
+            model.drawSimple(context, 0, obj.yaw, obj.roll, obj.pitch, obj.translateX, sinPitch + (model.maxBoundY / 2) + obj.translateY, cosPitch + obj.translateY)
+            System.arraycopy(target.pixels, 0, rendered.pixels, 0, rendered.pixels.size)
+        } finally {
+            framebuffers.release(target)
+        }
 
         for (x in 31 downTo 0) {
             for (y in 31 downTo 0) {
@@ -78,16 +200,11 @@ class ObjService(private val repository: ObjRepository, private val modelService
                 }
             }
         }
-        Graphics2D.setTarget(raster, width, height)
-        Graphics2D.setBounds(clipLeft, clipTop, clipRight, clipBottom)
-        Graphics3D.centerX = centreX
-        Graphics3D.centerY = centreY
-        Graphics3D.offsets = scanOffsets
-
         return rendered
     }
 
-    fun getObjSprite(id: Int): Sprite? {
-        return getObj(id)?.let { getObjSprite(it) }
+    companion object {
+        // bump whenever a change to the renderer changes its output, so icons stored by older versions aren't used
+        const val RENDER_VERSION = 1
     }
 }
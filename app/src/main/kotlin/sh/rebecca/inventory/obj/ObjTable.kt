@@ -0,0 +1,93 @@
+package sh.rebecca.inventory.obj
+
+/**
+ * Every obj definition held as one primitive column per field, so the whole table costs a few dozen bytes per item
+ * and scanning a field walks a single array. Recolors share one pool of (original, replacement) pairs addressed by
+ * offset, and names stay encoded in the definition data until they're first asked for.
+ *
+ * Rows are filled by [ObjReader] and read through [Obj] views or the scans below.
+ */
+class ObjTable internal constructor(private val data: ByteArray, val size: Int) {
+
+    internal val model = IntArray(size)
+    internal val zoom = ShortArray(size)
+    internal val pitch = ShortArray(size)
+    internal val yaw = ShortArray(size)
+    internal val roll = ShortArray(size)
+    internal val translateX = ShortArray(size)
+    internal val translateY = ShortArray(size)
+    internal val ambient = ShortArray(size)
+    internal val attenuation = ShortArray(size)
+    internal val scaleX = ShortArray(size)
+    internal val scaleY = ShortArray(size)
+    internal val scaleZ = ShortArray(size)
+
+    // set once a field of a row is changed through an Obj, which the reader doesn't go through
+    internal val edited = BooleanArray(size)
+
+    internal val nameOffset = IntArray(size)
+    internal val nameLength = ShortArray(size)
+    private val names = arrayOfNulls<String>(size)
+
+    // -1 when the definition has no recolor opcode, which is kept apart from an empty one
+    internal val recolorCount = ShortArray(size) { -1 }
+    internal val recolorStart = IntArray(size)
+    internal var recolors = ShortArray(256)
+    private var recolorSize = 0
+
+    operator fun get(id: Int): Obj {
+        return Obj(this, id)
+    }
+
+    fun getName(id: Int): String {
+        // a racing thread decodes the same string at worst
+        names[id]?.let { return it }
+        val length = nameLength[id].toInt()
+        val name = if (length == 0) "" else String(data, nameOffset[id], length)
+        names[id] = name
+        return name
+    }
+
+    fun hasName(id: Int): Boolean {
+        return nameLength[id] > 0
+    }
+
+    fun getModel(id: Int): Int {
+        return model[id]
+    }
+
+    /**
+     * Returns the ids of every row matching [predicate], in order.
+     */
+    inline fun filter(predicate: (Int) -> Boolean): IntArray {
+        val ids = IntArray(size)
+        var count = 0
+        for (id in 0 until size) {
+            if (predicate(id)) {
+                ids[count++] = id
+            }
+        }
+        return ids.copyOf(count)
+    }
+
+    fun findNamed(): IntArray {
+        return filter { hasName(it) }
+    }
+
+    fun findByModel(model: Int): IntArray {
+        return filter { this.model[it] == model }
+    }
+
+    internal fun startRecolors(id: Int, count: Int) {
+        if (recolorSize + count * 2 > recolors.size) {
+            recolors = recolors.copyOf(maxOf(recolors.size * 2, recolorSize + count * 2))
+        }
+        recolorStart[id] = recolorSize
+        recolorCount[id] = count.toShort()
+        recolorSize += count * 2
+    }
+
+    internal fun trim() {
+        recolors = recolors.copyOf(recolorSize)
+    }
+}
@@ -0,0 +1,62 @@
+package sh.rebecca.inventory.render
+
+import org.springframework.boot.DefaultApplicationArguments
+import org.springframework.boot.WebApplicationType
+import org.springframework.boot.autoconfigure.SpringBootApplication
+import org.springframework.boot.builder.SpringApplicationBuilder
+import sh.rebecca.inventory.cache.CacheConfig
+import sh.rebecca.inventory.model.ModelService
+import sh.rebecca.inventory.obj.ObjService
+import java.nio.file.Path
+import kotlin.system.exitProcess
+
+/**
+ * Renders icons without a display, for dumping them on machines with no UI. Only the cache, model and obj beans are
+ * started, configured from the same application.toml as the editor.
+ *
+ * Arguments:
+ * - `--out=<path>` the directory to write `<id>.png` files to, `icons` by default, or with `--sheet` the sheet file,
+ *   `icons.png` by default
+ * - `--from=<id>` the first id to render, 0 by default
+ * - `--to=<id>` the id to stop before, every obj by default
+ * - `--sheet` to write one sprite sheet rather than a PNG per item
+ * - `--columns=<count>` the width of the sheet in icons, 32 by default
+ */
+@SpringBootApplication(scanBasePackageClasses = [CacheConfig::class, ModelService::class, ObjService::class, BatchRenderer::class])
+class BatchRenderApp
+
+fun main(args: Array<String>) {
+    val arguments = DefaultApplicationArguments(*args)
+    fun option(name: String): String? = arguments.getOptionValues(name)?.lastOrNull()
+
+    val context = SpringApplicationBuilder(BatchRenderApp::class.java).headless(true).web(WebApplicationType.NONE).run(*args)
+    val result = try {
+        val objService = context.getBean(ObjService::class.java)
+        val renderer = context.getBean(BatchRenderer::class.java)
+        val from = option("from")?.toInt() ?: 0
+        val to = option("to")?.toInt() ?: objService.getCount()
+        var reported = 0
+        val onProgress = { done: Int, total: Int ->
+            // called from the workers, so only one report per tenth gets through
+            val tenth = if (total == 0) 10 else done * 10 / total
+            synchronized(arguments) {
+                if (tenth > reported) {
+                    reported = tenth
+                    println("${tenth * 10}% ($done of $total)")
+                }
+            }
+        }
+
+        if (arguments.containsOption("sheet")) {
+            renderer.writeSheet(Path.of(option("out") ?: "icons.png"), from, to, option("columns")?.toInt() ?: 32, onProgress)
+        } else {
+            renderer.writePngs(Path.of(option("out") ?: "icons"), from, to, onProgress)
+        }
+    } catch (e: Exception) {
+        System.err.println("Failed to render icons: $e")
+        context.close()
+        exitProcess(1)
+    }
+    context.close()
+    println(result)
+}
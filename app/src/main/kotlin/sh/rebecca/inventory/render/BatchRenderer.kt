@@ -0,0 +1,95 @@
+package sh.rebecca.inventory.render
+
+import org.springframework.stereotype.Component
+import sh.rebecca.inventory.obj.ObjService
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Renders a range of icons across all cores and writes them out as they're rendered, either as one PNG per item or
+ * as a single sprite sheet. Neither keeps more than a band of icons in memory, however many items there are.
+ */
+@Component
+class BatchRenderer(private val objService: ObjService) {
+
+    /**
+     * Writes the icon of every id in [from, to) with a model to `<id>.png` in [directory]. Each icon is written by the
+     * worker thread which rendered it.
+     */
+    fun writePngs(directory: Path, from: Int, to: Int, onProgress: (Int, Int) -> Unit = { _, _ -> }): BatchRenderResult {
+        Files.createDirectories(directory)
+        val start = System.nanoTime()
+        val written = AtomicInteger()
+        val rendered = objService.renderEach(from, to, { id, pixels ->
+            PngWriter(Files.newOutputStream(directory.resolve("$id.png")), ICON_SIZE, ICON_SIZE).use { png ->
+                for (y in 0 until ICON_SIZE) {
+                    png.writeRow(pixels, y * ICON_SIZE)
+                }
+            }
+            written.incrementAndGet()
+        }, onProgress)
+        return BatchRenderResult(maxOf(0, to - from), rendered, written.get(), System.nanoTime() - start)
+    }
+
+    /**
+     * Writes the icons of every id in [from, to) to one PNG sheet [columns] icons wide, the icon of id at column
+     * `(id - from) % columns` and row `(id - from) / columns`. Ids without a model are left transparent. The sheet is
+     * rendered a band of rows at a time, each band written out before the next is rendered.
+     */
+    fun writeSheet(file: Path, from: Int, to: Int, columns: Int, onProgress: (Int, Int) -> Unit = { _, _ -> }): BatchRenderResult {
+        require(columns > 0) { "columns must be positive: $columns" }
+        val count = maxOf(0, to - from)
+        val rows = (count + columns - 1) / columns
+        val width = columns * ICON_SIZE
+        val band = IntArray(BAND_ROWS * columns * ICON_PIXELS)
+        val line = IntArray(width)
+        val start = System.nanoTime()
+        var rendered = 0
+
+        file.toAbsolutePath().parent?.let { Files.createDirectories(it) }
+        PngWriter(Files.newOutputStream(file), width, maxOf(1, rows) * ICON_SIZE).use { png ->
+            if (rows == 0) {
+                // a PNG needs at least one row, so an empty range makes a single transparent one
+                repeat(ICON_SIZE) { png.writeRow(line, 0) }
+            }
+            for (firstRow in 0 until rows step BAND_ROWS) {
+                val bandFrom = from + firstRow * columns
+                val bandTo = minOf(to, bandFrom + BAND_ROWS * columns)
+                band.fill(0)
+                // every worker copies into its own tile, so the band needs no locking
+                rendered += objService.renderEach(bandFrom, bandTo, { id, pixels ->
+                    System.arraycopy(pixels, 0, band, (id - bandFrom) * ICON_PIXELS, ICON_PIXELS)
+                })
+                onProgress(bandTo - from, count)
+
+                for (row in 0 until minOf(BAND_ROWS, rows - firstRow)) {
+                    for (y in 0 until ICON_SIZE) {
+                        for (column in 0 until columns) {
+                            System.arraycopy(band, (row * columns + column) * ICON_PIXELS + y * ICON_SIZE, line, column * ICON_SIZE, ICON_SIZE)
+                        }
+                        png.writeRow(line, 0)
+                    }
+                }
+            }
+        }
+        return BatchRenderResult(count, rendered, 1, System.nanoTime() - start)
+    }
+
+    companion object {
+        private const val ICON_SIZE = 32
+        private const val ICON_PIXELS = ICON_SIZE * ICON_SIZE
+        // rows of the sheet rendered at once, enough to keep every core busy
+        private const val BAND_ROWS = 32
+    }
+}
+
+class BatchRenderResult(val items: Int, val rendered: Int, val files: Int, val elapsedNanos: Long) {
+
+    val itemsPerSecond: Double
+        get() = if (elapsedNanos == 0L) 0.0 else rendered * 1_000_000_000.0 / elapsedNanos
+
+    override fun toString(): String {
+        return "rendered $rendered of $items icons into $files files in ${elapsedNanos / 1_000_000} ms (${"%.1f".format(itemsPerSecond)} items/sec)"
+    }
+}
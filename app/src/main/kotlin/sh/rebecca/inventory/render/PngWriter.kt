@@ -0,0 +1,103 @@
+package sh.rebecca.inventory.render
+
+import java.io.Closeable
+import java.io.DataOutputStream
+import java.io.OutputStream
+import java.nio.ByteBuffer
+import java.util.zip.CRC32
+import java.util.zip.Deflater
+
+/**
+ * Writes a PNG one row at a time, compressing each row as it arrives and emitting the compressed data in bounded
+ * chunks, so an image of any height costs no more memory than a row. Pixels are given the way sprites hold them,
+ * 0xRRGGBB with 0 being transparent, and written as 8-bit RGBA.
+ *
+ * Exactly [height] rows must be written before closing.
+ */
+class PngWriter(out: OutputStream, private val width: Int, private val height: Int) : Closeable {
+
+    private val out = DataOutputStream(out)
+    private val deflater = Deflater(Deflater.BEST_SPEED)
+    private val row = ByteArray(1 + width * 4)
+    private val compressed = ByteArray(CHUNK_SIZE)
+    private var compressedSize = 0
+    private var rows = 0
+
+    init {
+        this.out.write(SIGNATURE)
+        val header = ByteBuffer.allocate(13)
+            .putInt(width)
+            .putInt(height)
+            .put(8) // bit depth
+            .put(6) // truecolor with alpha
+            .put(0) // deflate
+            .put(0) // adaptive filtering
+            .put(0) // no interlacing
+        writeChunk("IHDR", header.array(), header.position())
+    }
+
+    /**
+     * Writes the next row from [width] pixels of [pixels] starting at [offset].
+     */
+    fun writeRow(pixels: IntArray, offset: Int) {
+        check(rows < height) { "already wrote all $height rows" }
+        // each row starts with its filter type, which is none
+        row[0] = 0
+        for (x in 0 until width) {
+            val rgb = pixels[offset + x]
+            val i = 1 + x * 4
+            row[i] = (rgb shr 16).toByte()
+            row[i + 1] = (rgb shr 8).toByte()
+            row[i + 2] = rgb.toByte()
+            row[i + 3] = if (rgb == 0) 0 else -1
+        }
+        deflater.setInput(row)
+        while (!deflater.needsInput()) {
+            deflate()
+        }
+        rows++
+    }
+
+    override fun close() {
+        try {
+            check(rows == height) { "wrote $rows of $height rows" }
+            deflater.finish()
+            while (!deflater.finished()) {
+                deflate()
+            }
+            if (compressedSize > 0) {
+                writeChunk("IDAT", compressed, compressedSize)
+            }
+            writeChunk("IEND", compressed, 0)
+            out.flush()
+        } finally {
+            deflater.end()
+            out.close()
+        }
+    }
+
+    private fun deflate() {
+        // the compressed data is only written out a full chunk at a time, rather than in the dribs each row yields
+        compressedSize += deflater.deflate(compressed, compressedSize, compressed.size - compressedSize)
+        if (compressedSize == compressed.size) {
+            writeChunk("IDAT", compressed, compressedSize)
+            compressedSize = 0
+        }
+    }
+
+    private fun writeChunk(type: String, data: ByteArray, length: Int) {
+        val typeBytes = type.toByteArray(Charsets.US_ASCII)
+        val crc = CRC32()
+        crc.update(typeBytes)
+        crc.update(data, 0, length)
+        out.writeInt(length)
+        out.write(typeBytes)
+        out.write(data, 0, length)
+        out.writeInt(crc.value.toInt())
+    }
+
+    companion object {
+        private const val CHUNK_SIZE = 64 * 1024
+        private val SIGNATURE = byteArrayOf(0x89.toByte(), 'P'.code.toByte(), 'N'.code.toByte(), 'G'.code.toByte(), 0x0d, 0x0a, 0x1a, 0x0a)
+    }
+}
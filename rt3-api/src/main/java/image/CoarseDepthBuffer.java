@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2015 Dane.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package image;
+
+import media.Model;
+
+import java.util.Arrays;
+
+/**
+ * A coarse level over a depth buffer which keeps the farthest depth of every 8x8 tile, so triangles and spans hidden
+ * behind what has already been drawn can be rejected before any of their pixels are depth tested.
+ *
+ * The depth kept for a tile is only ever an upper bound. A tile which has been drawn over is marked dirty and
+ * recomputed the next time a triangle asks for it, and spans never reject against a dirty tile.
+ *
+ * Like the depth buffer, this is shared by the tiles of a {@link TileRasterizer}. The tile height is a multiple of ours
+ * and each tile only tests and marks its own rows, so they never touch the same coarse tile.
+ *
+ * @see RenderContext#coarseDepth
+ */
+public class CoarseDepthBuffer {
+
+	/**
+	 * The log2 of the tile size.
+	 */
+	public static final int TILE_SHIFT = 3;
+
+	/**
+	 * The width and height of a tile in pixels.
+	 */
+	public static final int TILE_SIZE = 1 << TILE_SHIFT;
+
+	/**
+	 * The dimensions of the depth buffer.
+	 */
+	private final int width, height;
+
+	/**
+	 * The number of tiles across.
+	 */
+	private final int columns;
+
+	/**
+	 * The farthest depth of each tile, as of when it was last computed.
+	 */
+	private final int[] maxDepth;
+
+	/**
+	 * Whether each tile has been drawn over since its depth was last computed.
+	 */
+	private final boolean[] dirty;
+
+	/**
+	 * Constructs a new coarse depth buffer. Every tile starts dirty and as far away as possible, since nothing is known
+	 * of the depth buffer it's attached to, which may well have been drawn into already.
+	 *
+	 * @param width the width of the depth buffer.
+	 * @param height the height of the depth buffer.
+	 */
+	public CoarseDepthBuffer(int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.columns = (width + TILE_SIZE - 1) >> TILE_SHIFT;
+		int rows = (height + TILE_SIZE - 1) >> TILE_SHIFT;
+		this.maxDepth = new int[this.columns * rows];
+		this.dirty = new boolean[this.columns * rows];
+		Arrays.fill(this.maxDepth, Integer.MAX_VALUE);
+		Arrays.fill(this.dirty, true);
+	}
+
+	public int getWidth() {
+		return this.width;
+	}
+
+	public int getHeight() {
+		return this.height;
+	}
+
+	/**
+	 * Resets every tile to match a depth buffer which has just been cleared.
+	 */
+	public void clear() {
+		Arrays.fill(this.maxDepth, Model.FAR_Z_1616);
+		Arrays.fill(this.dirty, false);
+	}
+
+	/**
+	 * Returns whether every pixel in the provided area already holds a depth closer than the provided one, computing
+	 * the depth of any dirty tile which can't be ruled out without it.
+	 *
+	 * @param depthBuffer the depth buffer.
+	 * @param left the leftmost column.
+	 * @param top the topmost row.
+	 * @param right the rightmost column, inclusive.
+	 * @param bottom the bottommost row, inclusive.
+	 * @param z the depth. (16.16)
+	 * @return {@code true} if nothing at that depth would pass the depth test.
+	 */
+	public boolean isHidden(int[] depthBuffer, int left, int top, int right, int bottom, int z) {
+		int first = left >> TILE_SHIFT;
+		int last = right >> TILE_SHIFT;
+
+		for (int row = top >> TILE_SHIFT, end = bottom >> TILE_SHIFT; row <= end; row++) {
+			int tile = row * this.columns;
+
+			for (int column = first; column <= last; column++) {
+				// a stale depth is still an upper bound, so it's only worth computing when it can't rule the tile out
+				if (this.maxDepth[tile + column] >= z && (!this.dirty[tile + column] || resolve(depthBuffer, tile + column) >= z)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns whether every pixel of a span already holds a depth closer than the provided one. Unlike
+	 * {@link #isHidden}, dirty tiles are not computed, since a span is too short to pay for it; a span over one is never
+	 * hidden.
+	 *
+	 * @param off the offset of the first pixel.
+	 * @param length the number of pixels.
+	 * @param z the depth. (16.16)
+	 * @return {@code true} if nothing at that depth would pass the depth test.
+	 */
+	public boolean isSpanHidden(int off, int length, int z) {
+		int y = off / this.width;
+		int x = off - y * this.width;
+		int tile = (y >> TILE_SHIFT) * this.columns;
+
+		for (int column = x >> TILE_SHIFT, last = (x + length - 1) >> TILE_SHIFT; column <= last; column++) {
+			if (this.dirty[tile + column] || this.maxDepth[tile + column] >= z) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Marks the tiles covering the provided area as drawn over.
+	 *
+	 * @param left the leftmost column.
+	 * @param top the topmost row.
+	 * @param right the rightmost column, inclusive.
+	 * @param bottom the bottommost row, inclusive.
+	 */
+	public void invalidate(int left, int top, int right, int bottom) {
+		int first = left >> TILE_SHIFT;
+		int last = right >> TILE_SHIFT;
+
+		for (int row = top >> TILE_SHIFT, end = bottom >> TILE_SHIFT; row <= end; row++) {
+			int tile = row * this.columns;
+			Arrays.fill(this.dirty, tile + first, tile + last + 1, true);
+		}
+	}
+
+	/**
+	 * Computes the farthest depth of a tile.
+	 *
+	 * @param depthBuffer the depth buffer.
+	 * @param tile the tile.
+	 * @return the depth.
+	 */
+	private int resolve(int[] depthBuffer, int tile) {
+		int x = (tile % this.columns) << TILE_SHIFT;
+		int y = (tile / this.columns) << TILE_SHIFT;
+		int w = Math.min(TILE_SIZE, this.width - x);
+		int h = Math.min(TILE_SIZE, this.height - y);
+		int max = Integer.MIN_VALUE;
+
+		for (int row = 0, off = y * this.width + x; row < h; row++, off += this.width) {
+			for (int i = off, end = off + w; i < end; i++) {
+				if (depthBuffer[i] > max) {
+					max = depthBuffer[i];
+				}
+			}
+		}
+
+		this.maxDepth[tile] = max;
+		this.dirty[tile] = false;
+		return max;
+	}
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2015 Dane.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package image;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recycles {@link ImageProducer3D}s by dimensions, so code which draws many short lived frames, such as icon
+ * renderers, reuses the same images, offsets and depth buffers instead of allocating them each time. A producer is
+ * handed out by {@link #acquire(int, int)}, must not be used after it is given back by {@link #release(ImageProducer3D)},
+ * and still holds whatever was last drawn into it, so it's usually {@link ImageProducer3D#reset(int) reset} first.
+ *
+ * The pool is safe to share between threads.
+ */
+public class FramebufferPool {
+
+	/**
+	 * The number of idle producers kept for each size when none is given.
+	 */
+	public static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * The idle producers of each size. A program only draws a handful of sizes, so they're found by a scan which
+	 * allocates nothing, and the array is replaced whole when a size is added.
+	 */
+	private volatile Sized[] sizes = new Sized[0];
+
+	/**
+	 * The number of producers the pool had to create, for telling whether it's big enough.
+	 */
+	private final AtomicInteger created = new AtomicInteger();
+
+	/**
+	 * The number of idle producers kept for each size. Producers released past it are left to the collector.
+	 */
+	private final int capacity;
+
+	/**
+	 * Constructs a new pool which keeps {@link #DEFAULT_CAPACITY} idle producers of each size.
+	 */
+	public FramebufferPool() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a new pool.
+	 *
+	 * @param capacity the number of idle producers to keep of each size.
+	 */
+	public FramebufferPool(int capacity) {
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Takes an idle producer of the provided size, or creates one with its offsets and depth buffer already built if
+	 * there is none.
+	 *
+	 * @param width the width.
+	 * @param height the height.
+	 * @return the producer.
+	 */
+	public ImageProducer3D acquire(int width, int height) {
+		ImageProducer3D producer = getSized(width, height).pop();
+
+		if (producer == null) {
+			producer = new ImageProducer3D(width, height);
+			producer.reset(0);
+			this.created.incrementAndGet();
+		}
+		return producer;
+	}
+
+	/**
+	 * Gives a producer back to the pool.
+	 *
+	 * @param producer the producer, which the caller must not use again.
+	 */
+	public void release(ImageProducer3D producer) {
+		getSized(producer.getWidth(), producer.getHeight()).push(producer);
+	}
+
+	/**
+	 * Returns the number of producers the pool has created.
+	 *
+	 * @return the count.
+	 */
+	public int getCreatedCount() {
+		return this.created.get();
+	}
+
+	private Sized getSized(int width, int height) {
+		for (Sized sized : this.sizes) {
+			if (sized.width == width && sized.height == height) {
+				return sized;
+			}
+		}
+		return addSized(width, height);
+	}
+
+	private synchronized Sized addSized(int width, int height) {
+		// another thread may have added it since the scan
+		for (Sized sized : this.sizes) {
+			if (sized.width == width && sized.height == height) {
+				return sized;
+			}
+		}
+
+		Sized sized = new Sized(width, height, this.capacity);
+		Sized[] sizes = Arrays.copyOf(this.sizes, this.sizes.length + 1);
+		sizes[sizes.length - 1] = sized;
+		this.sizes = sizes;
+		return sized;
+	}
+
+	/**
+	 * The idle producers of one size, kept in a fixed array so pushing and popping allocate nothing.
+	 */
+	private static final class Sized {
+
+		final int width, height;
+		private final ImageProducer3D[] idle;
+		private int count;
+
+		Sized(int width, int height, int capacity) {
+			this.width = width;
+			this.height = height;
+			this.idle = new ImageProducer3D[capacity];
+		}
+
+		synchronized ImageProducer3D pop() {
+			if (this.count == 0) {
+				return null;
+			}
+			ImageProducer3D producer = this.idle[--this.count];
+			this.idle[this.count] = null;
+			return producer;
+		}
+
+		synchronized void push(ImageProducer3D producer) {
+			// past the capacity it's left to the collector
+			if (this.count < this.idle.length) {
+				this.idle[this.count++] = producer;
+			}
+		}
+	}
+}
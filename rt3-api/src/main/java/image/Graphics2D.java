@@ -21,7 +21,7 @@ package image;
 import media.Model;
 
 import java.awt.Font;
-import java.util.Arrays;
+import java.nio.IntBuffer;
 
 /**
  *
@@ -29,56 +29,11 @@ import java.util.Arrays;
  */
 public class Graphics2D {
 
-	/**
-	 * The array being modified by the operations in this class.
-	 */
-	public static int[] target;
-
 	/**
 	 * The font being used to draw strings.
 	 */
 	public static BitmapFont font;
 
-	/**
-	 * The dimensions of the destintaion.
-	 */
-	public static int targetWidth, targetHeight;
-
-	/**
-	 * The clipped drawing boundaries.
-	 */
-	public static int left, top, right, bottom;
-
-	/**
-	 * The center of the destination.
-	 */
-	public static int halfWidth, halfHeight;
-
-	/**
-	 * The rightmost horizontal position in our destination.
-	 */
-	public static int rightX;
-
-	/**
-	 * Used for drawing ovals.
-	 */
-	private static final int[] ovalPointX = new int[1024], ovalPointY = new int[1024];
-
-	/**
-	 * Offsets for drawing pixels
-	 */
-	private static int targetOffset, srcOffset;
-
-	/**
-	 * Stride length for drawing pixels
-	 */
-	private static int targetStep, srcStep;
-
-	/**
-	 * Dimension for drawing pixels
-	 */
-	private static int drawWidth, drawHeight;
-
 	static {
 		// I just wanted a default font to play with.
 		try {
@@ -88,50 +43,41 @@ public class Graphics2D {
 	}
 
 	/**
-	 * Fills our target with 0's.
+	 * Fills the target of the default context with 0's.
 	 */
 	public static void clear() {
 		clear(0);
 	}
 
 	/**
-	 * Fills our target with the provided color.
+	 * Fills the target of the default context with the provided color.
 	 *
 	 * @param rgb the clear color. (INT24_RGB)
 	 */
 	public static void clear(int rgb) {
-		Arrays.fill(target, rgb);
+		RenderContext.DEFAULT.clear(rgb);
 	}
 
 	/**
-	 * Sets our destination and resets the boundaries to accomodate.
+	 * Sets the destination of the default context and resets the boundaries to accomodate.
 	 *
 	 * @param pixels the pixels.
 	 * @param width the width.
 	 * @param height the height.
 	 */
 	public static void setTarget(int[] pixels, int width, int height) {
-		Graphics2D.target = pixels;
-		Graphics2D.targetWidth = width;
-		Graphics2D.targetHeight = height;
-		setBounds(0, 0, width, height);
+		RenderContext.DEFAULT.setTarget(pixels, width, height);
 	}
 
 	/**
-	 * Resets the boundaries to fit the destintaion.
+	 * Resets the boundaries of the default context.
 	 */
 	public static void resetBounds() {
-		left = 0;
-		top = 0;
-		right = 0;
-		bottom = 0;
-		rightX = right - 1;
-		halfWidth = right / 2;
-		halfHeight = bottom / 2;
+		RenderContext.DEFAULT.resetBounds();
 	}
 
 	/**
-	 * Sets the area which we allow ourselves to draw into.
+	 * Sets the area which the default context allows drawing into.
 	 *
 	 * @param left the leftmost horizontal pixel.
 	 * @param top the topmost vertical pixel.
@@ -139,29 +85,7 @@ public class Graphics2D {
 	 * @param bottom the bottommost vertical pixel.
 	 */
 	public static void setBounds(int left, int top, int right, int bottom) {
-		if (left < 0) {
-			left = 0;
-		}
-
-		if (right > targetWidth) {
-			right = targetWidth;
-		}
-
-		if (top < 0) {
-			top = 0;
-		}
-
-		if (bottom > targetHeight) {
-			bottom = targetHeight;
-		}
-
-		Graphics2D.left = left;
-		Graphics2D.top = top;
-		Graphics2D.right = right;
-		Graphics2D.bottom = bottom;
-		Graphics2D.rightX = right - 1;
-		Graphics2D.halfWidth = right / 2;
-		Graphics2D.halfHeight = bottom / 2;
+		RenderContext.DEFAULT.setBounds(left, top, right, bottom);
 	}
 
 	/**
@@ -176,6 +100,22 @@ public class Graphics2D {
 	 * @param angle the starting angle.
 	 */
 	public static void fillOval(int x, int y, int w, int h, int rgb, int points, int angle) {
+		fillOval(RenderContext.DEFAULT, x, y, w, h, rgb, points, angle);
+	}
+
+	/**
+	 * Fills an opaque oval.
+	 *
+	 * @param ctx the context to draw into.
+	 * @param x the x.
+	 * @param y the y.
+	 * @param w the width.
+	 * @param h the height.
+	 * @param rgb the color. (INT24_RGB)
+	 * @param points the segment count.
+	 * @param angle the starting angle.
+	 */
+	public static void fillOval(RenderContext ctx, int x, int y, int w, int h, int rgb, int points, int angle) {
 		if (points < 3) {
 			return;
 		}
@@ -191,22 +131,22 @@ public class Graphics2D {
 
 			a %= 2047; // keep it within the 0-2047 range
 
-			ovalPointX[i] = x + ((hw * Model.cos[a]) >> 16);
-			ovalPointY[i] = y + ((hh * Model.sin[a]) >> 16);
+			ctx.ovalPointX[i] = x + ((hw * Model.cos[a]) >> 16);
+			ctx.ovalPointY[i] = y + ((hh * Model.sin[a]) >> 16);
 		}
 
 		int cx = x;
 		int cy = y;
 
 		for (int i = 1; i < points; i++) {
-			x = ovalPointX[i - 1];
-			y = ovalPointY[i - 1];
+			x = ctx.ovalPointX[i - 1];
+			y = ctx.ovalPointY[i - 1];
 
-			Graphics3D.fillTriangleDepth(cx, cy, 0, x, y, 0, ovalPointX[i], ovalPointY[i], 0, rgb);
+			Graphics3D.fillTriangleDepth(ctx, cx, cy, 0, x, y, 0, ctx.ovalPointX[i], ctx.ovalPointY[i], 0, rgb);
 		}
 
 		// fill from last point to first point (last triangle)
-		Graphics3D.fillTriangleDepth(cx, cy, 0, ovalPointX[0], ovalPointY[0], 0, ovalPointX[points - 1], ovalPointY[points - 1], 0, rgb);
+		Graphics3D.fillTriangleDepth(ctx, cx, cy, 0, ctx.ovalPointX[0], ctx.ovalPointY[0], 0, ctx.ovalPointX[points - 1], ctx.ovalPointY[points - 1], 0, rgb);
 	}
 
 	/**
@@ -222,8 +162,25 @@ public class Graphics2D {
 	 * @param angle the starting angle.
 	 */
 	public static void fillOval(int x, int y, int w, int h, int rgb, int segments, int angle, int alpha) {
-		Graphics3D.alpha = alpha;
-		fillOval(x, y, w, h, rgb, segments, angle);
+		fillOval(RenderContext.DEFAULT, x, y, w, h, rgb, segments, angle, alpha);
+	}
+
+	/**
+	 * Fills an opaque oval.
+	 *
+	 * @param ctx the context to draw into.
+	 * @param x the x.
+	 * @param y the y.
+	 * @param w the width.
+	 * @param h the height.
+	 * @param rgb the color. (INT24_RGB)
+	 * @param segments the segment count.
+	 * @param alpha the alpha. (0-FF)
+	 * @param angle the starting angle.
+	 */
+	public static void fillOval(RenderContext ctx, int x, int y, int w, int h, int rgb, int segments, int angle, int alpha) {
+		ctx.alpha = alpha;
+		fillOval(ctx, x, y, w, h, rgb, segments, angle);
 	}
 
 	/**
@@ -235,15 +192,28 @@ public class Graphics2D {
 	 * @param color the color. (INT24_RGB)
 	 */
 	public static void fillCircle(int x, int y, int radius, int color) {
+		fillCircle(RenderContext.DEFAULT, x, y, radius, color);
+	}
+
+	/**
+	 * Fills an opaque circle.
+	 *
+	 * @param ctx the context to draw into.
+	 * @param x the center x of the circle.
+	 * @param y the center y of the circle.
+	 * @param radius the radius of the circle.
+	 * @param color the color. (INT24_RGB)
+	 */
+	public static void fillCircle(RenderContext ctx, int x, int y, int radius, int color) {
 		int radius2 = radius * radius; // used to avoid Math.sqrt
 
 		for (int xA = x - radius; xA < x + radius; xA++) {
-			if (xA < left || xA >= right) {
+			if (xA < ctx.left || xA >= ctx.right) {
 				continue;
 			}
 
 			for (int yA = y - radius; yA < y + radius; yA++) {
-				if (yA < top || yA >= bottom) {
+				if (yA < ctx.top || yA >= ctx.bottom) {
 					continue;
 				}
 
@@ -252,7 +222,7 @@ public class Graphics2D {
 				int distance2 = xD * xD + yD * yD;
 
 				if (distance2 < radius2) { // hey look! no sqrt
-					target[xA + (yA * targetWidth)] = color;
+					ctx.target[xA + (yA * ctx.targetWidth)] = color;
 				}
 			}
 		}
@@ -268,6 +238,20 @@ public class Graphics2D {
 	 * @param alpha the alpha. (0-FF)
 	 */
 	public static void fillCircle(int x, int y, int radius, int color, int alpha) {
+		fillCircle(RenderContext.DEFAULT, x, y, radius, color, alpha);
+	}
+
+	/**
+	 * Fills an opaque circle.
+	 *
+	 * @param ctx the context to draw into.
+	 * @param x the center x of the circle.
+	 * @param y the center y of the circle.
+	 * @param radius the radius of the circle.
+	 * @param color the color. (INT24_RGB)
+	 * @param alpha the alpha. (0-FF)
+	 */
+	public static void fillCircle(RenderContext ctx, int x, int y, int radius, int color, int alpha) {
 		int radius2 = radius * radius;
 
 		color = ((color & 0xFF00FF) * alpha >> 8 & 0xFF00FF) + ((color & 0xFF00) * alpha >> 8 & 0xFF00);
@@ -275,12 +259,12 @@ public class Graphics2D {
 		int alphaB = 256 - alpha;
 
 		for (int xA = x - radius; xA < x + radius; xA++) {
-			if (xA < left || xA > right) {
+			if (xA < ctx.left || xA > ctx.right) {
 				continue;
 			}
 
 			for (int yA = y - radius; yA < y + radius; yA++) {
-				if (yA < top || yA > bottom) {
+				if (yA < ctx.top || yA > ctx.bottom) {
 					continue;
 				}
 
@@ -289,10 +273,10 @@ public class Graphics2D {
 				int distance2 = (xD * xD + yD * yD);
 
 				if (distance2 < radius2) {
-					int pos = xA + (yA * targetWidth);
-					int old = target[pos];
+					int pos = xA + (yA * ctx.targetWidth);
+					int old = ctx.target[pos];
 					old = ((old & 0xFF00FF) * alphaB >> 8 & 0xFF00FF) + ((old & 0xFF00) * alphaB >> 8 & 0xFF00);
-					target[pos] = color + old;
+					ctx.target[pos] = color + old;
 				}
 			}
 		}
@@ -308,10 +292,24 @@ public class Graphics2D {
 	 * @param color the color. (INT24_RGB)
 	 */
 	public static void drawRect(int x, int y, int w, int h, int color) {
-		drawHorizontalLine(x, y, w, color);
-		drawHorizontalLine(x, y + h - 1, w, color);
-		drawVerticalLine(x, y, h, color);
-		drawVerticalLine(x + w - 1, y, h, color);
+		drawRect(RenderContext.DEFAULT, x, y, w, h, color);
+	}
+
+	/**
+	 * Draws an opaque rectangle.
+	 *
+	 * @param ctx the context to draw into.
+	 * @param x the x.
+	 * @param y the y.
+	 * @param w the width.
+	 * @param h the height.
+	 * @param color the color. (INT24_RGB)
+	 */
+	public static void drawRect(RenderContext ctx, int x, int y, int w, int h, int color) {
+		drawHorizontalLine(ctx, x, y, w, color);
+		drawHorizontalLine(ctx, x, y + h - 1, w, color);
+		drawVerticalLine(ctx, x, y, h, color);
+		drawVerticalLine(ctx, x + w - 1, y, h, color);
 	}
 
 	/**
@@ -325,11 +323,26 @@ public class Graphics2D {
 	 * @param alpha the alpha. (0-FF)
 	 */
 	public static void drawRect(int x, int y, int w, int h, int color, int alpha) {
-		drawHorizontalLine(x, y, w, color, alpha);
-		drawHorizontalLine(x, y + h - 1, w, color, alpha);
+		drawRect(RenderContext.DEFAULT, x, y, w, h, color, alpha);
+	}
+
+	/**
+	 * Draws an opaque rectangle.
+	 *
+	 * @param ctx the context to draw into.
+	 * @param x the x.
+	 * @param y the y.
+	 * @param w the width.
+	 * @param h the height.
+	 * @param color the color. (INT24_RGB)
+	 * @param alpha the alpha. (0-FF)
+	 */
+	public static void drawRect(RenderContext ctx, int x, int y, int w, int h, int color, int alpha) {
+		drawHorizontalLine(ctx, x, y, w, color, alpha);
+		drawHorizontalLine(ctx, x, y + h - 1, w, color, alpha);
 		if (h > 2) {
-			drawVerticalLine(x, y + 1, h - 2, color, alpha);
-			drawVerticalLine(x + w - 1, y + 1, h - 2, color, alpha);
+			drawVerticalLine(ctx, x, y + 1, h - 2, color, alpha);
+			drawVerticalLine(ctx, x + w - 1, y + 1, h - 2, color, alpha);
 		}
 	}
 
@@ -343,30 +356,44 @@ public class Graphics2D {
 	 * @param color the color. (INT24_RGB)
 	 */
 	public static void fillRect(int x, int y, int w, int h, int color) {
-		if (x < left) {
-			w -= left - x;
-			x = left;
+		fillRect(RenderContext.DEFAULT, x, y, w, h, color);
+	}
+
+	/**
+	 * Fills an opaque rectangle.
+	 *
+	 * @param ctx the context to draw into.
+	 * @param x the x.
+	 * @param y the y.
+	 * @param w the width.
+	 * @param h the height.
+	 * @param color the color. (INT24_RGB)
+	 */
+	public static void fillRect(RenderContext ctx, int x, int y, int w, int h, int color) {
+		if (x < ctx.left) {
+			w -= ctx.left - x;
+			x = ctx.left;
 		}
 
-		if (y < top) {
-			h -= top - y;
-			y = top;
+		if (y < ctx.top) {
+			h -= ctx.top - y;
+			y = ctx.top;
 		}
 
-		if (x + w > right) {
-			w = right - x;
+		if (x + w > ctx.right) {
+			w = ctx.right - x;
 		}
 
-		if (y + h > bottom) {
-			h = bottom - y;
+		if (y + h > ctx.bottom) {
+			h = ctx.bottom - y;
 		}
 
-		int step = targetWidth - w;
-		int pos = x + y * targetWidth;
+		int step = ctx.targetWidth - w;
+		int pos = x + y * ctx.targetWidth;
 
 		for (int i = 0; i < h; i++) {
 			for (int j = 0; j < w; j++) {
-				target[pos++] = color;
+				ctx.target[pos++] = color;
 			}
 			pos += step;
 		}
@@ -383,33 +410,48 @@ public class Graphics2D {
 	 * @param alpha the alpha. (0-FF)
 	 */
 	public static void fillRect(int x, int y, int w, int h, int color, int alpha) {
-		if (x < left) {
-			w -= left - x;
-			x = left;
+		fillRect(RenderContext.DEFAULT, x, y, w, h, color, alpha);
+	}
+
+	/**
+	 * Fills a translucent rectangle.
+	 *
+	 * @param ctx the context to draw into.
+	 * @param x the x.
+	 * @param y the y.
+	 * @param w the width.
+	 * @param h the height.
+	 * @param color the color. (INT24_RGB)
+	 * @param alpha the alpha. (0-FF)
+	 */
+	public static void fillRect(RenderContext ctx, int x, int y, int w, int h, int color, int alpha) {
+		if (x < ctx.left) {
+			w -= ctx.left - x;
+			x = ctx.left;
 		}
 
-		if (y < top) {
-			h -= top - y;
-			y = top;
+		if (y < ctx.top) {
+			h -= ctx.top - y;
+			y = ctx.top;
 		}
 
-		if (x + w > right) {
-			w = right - x;
+		if (x + w > ctx.right) {
+			w = ctx.right - x;
 		}
 
-		if (y + h > bottom) {
-			h = bottom - y;
+		if (y + h > ctx.bottom) {
+			h = ctx.bottom - y;
 		}
 
 		color = ((color & 0xFF00FF) * alpha >> 8 & 0xFF00FF) + ((color & 0xFF00) * alpha >> 8 & 0xFF00);
 		int alphaInverted = 256 - alpha;
-		int step = targetWidth - w;
-		int pos = x + y * targetWidth;
+		int step = ctx.targetWidth - w;
+		int pos = x + y * ctx.targetWidth;
 
 		for (int i = 0; i < h; i++) {
 			for (int j = 0; j < w; j++) {
-				int old = target[pos];
-				target[pos++] = color + ((old & 0xFF00FF) * alphaInverted >> 8 & 0xFF00FF) + ((old & 0xFF00) * alphaInverted >> 8 & 0xFF00);
+				int old = ctx.target[pos];
+				ctx.target[pos++] = color + ((old & 0xFF00FF) * alphaInverted >> 8 & 0xFF00FF) + ((old & 0xFF00) * alphaInverted >> 8 & 0xFF00);
 			}
 			pos += step;
 		}
@@ -424,20 +466,33 @@ public class Graphics2D {
 	 * @param color the color. (INT24_RGB)
 	 */
 	public static void drawHorizontalLine(int x, int y, int w, int color) {
-		if (y >= top && y < bottom) {
-			if (x < left) {
-				w -= left - x;
-				x = left;
+		drawHorizontalLine(RenderContext.DEFAULT, x, y, w, color);
+	}
+
+	/**
+	 * Draws a horizontal line.
+	 *
+	 * @param ctx the context to draw into.
+	 * @param x the x.
+	 * @param y the y.
+	 * @param w the line width.
+	 * @param color the color. (INT24_RGB)
+	 */
+	public static void drawHorizontalLine(RenderContext ctx, int x, int y, int w, int color) {
+		if (y >= ctx.top && y < ctx.bottom) {
+			if (x < ctx.left) {
+				w -= ctx.left - x;
+				x = ctx.left;
 			}
 
-			if (x + w > right) {
-				w = right - x;
+			if (x + w > ctx.right) {
+				w = ctx.right - x;
 			}
 
-			int pos = x + y * targetWidth;
+			int pos = x + y * ctx.targetWidth;
 
 			for (int i = 0; i < w; i++) {
-				target[pos++] = color;
+				ctx.target[pos++] = color;
 			}
 		}
 	}
@@ -451,24 +506,37 @@ public class Graphics2D {
 	 * @param color the color. (INT24_RGB)
 	 */
 	public static void drawVerticalLine(int x, int y, int h, int color) {
-		if (x < left || x >= right) {
+		drawVerticalLine(RenderContext.DEFAULT, x, y, h, color);
+	}
+
+	/**
+	 * Draws a vertical line.
+	 *
+	 * @param ctx the context to draw into.
+	 * @param x the x.
+	 * @param y the y.
+	 * @param h the line height.
+	 * @param color the color. (INT24_RGB)
+	 */
+	public static void drawVerticalLine(RenderContext ctx, int x, int y, int h, int color) {
+		if (x < ctx.left || x >= ctx.right) {
 			return;
 		}
 
-		if (y < top) {
-			h -= top - y;
-			y = top;
+		if (y < ctx.top) {
+			h -= ctx.top - y;
+			y = ctx.top;
 		}
 
-		if (y + h > bottom) {
-			h = bottom - y;
+		if (y + h > ctx.bottom) {
+			h = ctx.bottom - y;
 		}
 
-		int pos = x + y * targetWidth;
+		int pos = x + y * ctx.targetWidth;
 
 		for (int i = 0; i < h; i++) {
-			target[pos] = color;
-			pos += targetWidth;
+			ctx.target[pos] = color;
+			pos += ctx.targetWidth;
 		}
 	}
 
@@ -482,24 +550,38 @@ public class Graphics2D {
 	 * @param alpha the alpha. (0-0xFF)
 	 */
 	public static void drawHorizontalLine(int x, int y, int w, int color, int alpha) {
-		if (y >= top && y < bottom) {
-			if (x < left) {
-				w -= left - x;
-				x = left;
+		drawHorizontalLine(RenderContext.DEFAULT, x, y, w, color, alpha);
+	}
+
+	/**
+	 * Draws a horizontal line with an alpha channel.
+	 *
+	 * @param ctx the context to draw into.
+	 * @param x the x.
+	 * @param y the y.
+	 * @param w the line width.
+	 * @param color the color. (INT24_RGB)
+	 * @param alpha the alpha. (0-0xFF)
+	 */
+	public static void drawHorizontalLine(RenderContext ctx, int x, int y, int w, int color, int alpha) {
+		if (y >= ctx.top && y < ctx.bottom) {
+			if (x < ctx.left) {
+				w -= ctx.left - x;
+				x = ctx.left;
 			}
 
-			if (x + w > right) {
-				w = right - x;
+			if (x + w > ctx.right) {
+				w = ctx.right - x;
 			}
 
 			color = ((color & 0xFF00FF) * alpha >> 8 & 0xFF00FF) + ((color & 0xFF00) * alpha >> 8 & 0xFF00);
 			int alphaInverted = 256 - alpha;
-			int pos = x + y * targetWidth;
+			int pos = x + y * ctx.targetWidth;
 
 			for (int i = 0; i < w; i++) {
-				int old = target[pos];
+				int old = ctx.target[pos];
 				old = ((old & 0xFF00FF) * alphaInverted >> 8 & 0xFF00FF) + ((old & 0xFF00) * alphaInverted >> 8 & 0xFF00);
-				target[pos++] = color + old;
+				ctx.target[pos++] = color + old;
 			}
 		}
 	}
@@ -514,28 +596,42 @@ public class Graphics2D {
 	 * @param alpha the alpha. (0-FF)
 	 */
 	public static void drawVerticalLine(int x, int y, int h, int color, int alpha) {
-		if (x < left || x >= right) {
+		drawVerticalLine(RenderContext.DEFAULT, x, y, h, color, alpha);
+	}
+
+	/**
+	 * Draws a vertical line.
+	 *
+	 * @param ctx the context to draw into.
+	 * @param x the x.
+	 * @param y the y.
+	 * @param h the line height.
+	 * @param color the color. (INT24_RGB)
+	 * @param alpha the alpha. (0-FF)
+	 */
+	public static void drawVerticalLine(RenderContext ctx, int x, int y, int h, int color, int alpha) {
+		if (x < ctx.left || x >= ctx.right) {
 			return;
 		}
 
-		if (y < top) {
-			h -= top - y;
-			y = top;
+		if (y < ctx.top) {
+			h -= ctx.top - y;
+			y = ctx.top;
 		}
 
-		if (y + h > bottom) {
-			h = bottom - y;
+		if (y + h > ctx.bottom) {
+			h = ctx.bottom - y;
 		}
 
 		color = ((color & 0xFF00FF) * alpha >> 8 & 0xFF00FF) + ((color & 0xFF00) * alpha >> 8 & 0xFF00);
 		int alphaInverted = 256 - alpha;
-		int pos = x + y * targetWidth;
+		int pos = x + y * ctx.targetWidth;
 
 		for (int i = 0; i < h; i++) {
-			int old = target[pos];
+			int old = ctx.target[pos];
 			old = ((old & 0xFF00FF) * alphaInverted >> 8 & 0xFF00FF) + ((old & 0xFF00) * alphaInverted >> 8 & 0xFF00);
-			target[pos] = color + old;
-			pos += targetWidth;
+			ctx.target[pos] = color + old;
+			pos += ctx.targetWidth;
 		}
 	}
 
@@ -549,47 +645,61 @@ public class Graphics2D {
 	 * @return w > 0 && h > 0
 	 */
 	public static final boolean testBounds(int x, int y, int w, int h) {
-		targetOffset = x + (y * targetWidth);
-		srcOffset = 0;
-		targetStep = (int) (targetWidth - w);
-		srcStep = 0;
+		return testBounds(RenderContext.DEFAULT, x, y, w, h);
+	}
+
+	/**
+	 * A helper method used to clip bounds and return whether the boundary is larger than one pixel or naw.
+	 *
+	 * @param ctx the context to draw into.
+	 * @param x the x.
+	 * @param y the y.
+	 * @param w the width.
+	 * @param h the height.
+	 * @return w > 0 && h > 0
+	 */
+	public static final boolean testBounds(RenderContext ctx, int x, int y, int w, int h) {
+		ctx.targetOffset = x + (y * ctx.targetWidth);
+		ctx.srcOffset = 0;
+		ctx.targetStep = (int) (ctx.targetWidth - w);
+		ctx.srcStep = 0;
 
 		// clip the top
-		if (y < top) {
-			int cut = (int) (top - y);
+		if (y < ctx.top) {
+			int cut = (int) (ctx.top - y);
 			h -= cut;
-			y = top;
-			srcOffset += cut * w;
-			targetOffset += cut * targetWidth;
+			y = ctx.top;
+			ctx.srcOffset += cut * w;
+			ctx.targetOffset += cut * ctx.targetWidth;
 		}
 
 		// clip the bottom
-		if (y + h > bottom) {
-			h -= (y + h) - bottom;
+		if (y + h > ctx.bottom) {
+			h -= (y + h) - ctx.bottom;
 		}
 
 		// clip the left
-		if (x < left) {
-			int cut = (int) (left - x);
+		if (x < ctx.left) {
+			int cut = (int) (ctx.left - x);
 			w -= cut;
-			x = left;
+			x = ctx.left;
 
-			srcOffset += cut;
-			targetOffset += cut;
-			srcStep += cut;
-			targetStep += cut;
+			ctx.srcOffset += cut;
+			ctx.targetOffset += cut;
+			ctx.srcStep += cut;
+			ctx.targetStep += cut;
 		}
 
 		// clip the right
-		if (x + w > right) {
-			int cut = (int) ((x + w) - right);
+		if (x + w > ctx.right) {
+			int cut = (int) ((x + w) - ctx.right);
 			w -= cut;
-			srcStep += cut;
-			targetStep += cut;
+			ctx.srcStep += cut;
+			ctx.targetStep += cut;
 		}
 
-		drawWidth = (int) w;
-		drawHeight = (int) h;
+		ctx.drawWidth = (int) w;
+		ctx.drawHeight = (int) h;
 
 		return w > 0 && h > 0;
 	}
@@ -605,18 +715,33 @@ public class Graphics2D {
 	 * @param rgb the fill color.
 	 */
 	public static void drawPixelMask(int x, int y, int w, int h, byte[] mask, int rgb) {
-		if (testBounds(x, y, w, h)) {
-			for (y = 0; y < drawHeight; y++) {
-				for (x = 0; x < drawWidth; x++) {
-					byte b = mask[srcOffset++];
+		drawPixelMask(RenderContext.DEFAULT, x, y, w, h, mask, rgb);
+	}
+
+	/**
+	 * Fills in the mask with the provided color on the target.
+	 *
+	 * @param ctx the context to draw into.
+	 * @param x the x.
+	 * @param y the y.
+	 * @param w the width.
+	 * @param h the height.
+	 * @param mask the mask.
+	 * @param rgb the fill color.
+	 */
+	public static void drawPixelMask(RenderContext ctx, int x, int y, int w, int h, byte[] mask, int rgb) {
+		if (testBounds(ctx, x, y, w, h)) {
+			for (y = 0; y < ctx.drawHeight; y++) {
+				for (x = 0; x < ctx.drawWidth; x++) {
+					byte b = mask[ctx.srcOffset++];
 					if (b != 0) {
-						target[targetOffset++] = rgb;
+						ctx.target[ctx.targetOffset++] = rgb;
 					} else {
-						targetOffset++;
+						ctx.targetOffset++;
 					}
 				}
-				targetOffset += targetStep;
-				srcOffset += srcStep;
+				ctx.targetOffset += ctx.targetStep;
+				ctx.srcOffset += ctx.srcStep;
 			}
 		}
 	}
@@ -631,18 +756,32 @@ public class Graphics2D {
 	 * @param pixels the pixel array.
 	 */
 	public static void drawPixels(int x, int y, int w, int h, int[] pixels) {
-		if (testBounds(x, y, w, h)) {
-			for (y = 0; y < drawHeight; y++) {
-				for (x = 0; x < drawWidth; x++) {
-					int rgb = pixels[srcOffset++];
+		drawPixels(RenderContext.DEFAULT, x, y, w, h, pixels);
+	}
+
+	/**
+	 * Draws the provided pixels to the target.
+	 *
+	 * @param ctx the context to draw into.
+	 * @param x the x.
+	 * @param y the y.
+	 * @param w the pixel array width.
+	 * @param h the pixel array height.
+	 * @param pixels the pixel array.
+	 */
+	public static void drawPixels(RenderContext ctx, int x, int y, int w, int h, int[] pixels) {
+		if (testBounds(ctx, x, y, w, h)) {
+			for (y = 0; y < ctx.drawHeight; y++) {
+				for (x = 0; x < ctx.drawWidth; x++) {
+					int rgb = pixels[ctx.srcOffset++];
 					if (rgb != 0) {
-						target[targetOffset++] = rgb;
+						ctx.target[ctx.targetOffset++] = rgb;
 					} else {
-						targetOffset++;
+						ctx.targetOffset++;
 					}
 				}
-				targetOffset += targetStep;
-				srcOffset += srcStep;
+				ctx.targetOffset += ctx.targetStep;
+				ctx.srcOffset += ctx.srcStep;
 			}
 		}
 	}
@@ -658,23 +797,38 @@ public class Graphics2D {
 	 * @param alpha the alpha.
 	 */
 	public static void drawPixels(int x, int y, int w, int h, int[] pixels, int alpha) {
+		drawPixels(RenderContext.DEFAULT, x, y, w, h, pixels, alpha);
+	}
+
+	/**
+	 * draws the provided pixels to the target translucently.
+	 *
+	 * @param ctx the context to draw into.
+	 * @param x the x.
+	 * @param y the y.
+	 * @param w the pixel array width.
+	 * @param h the pixel array height.
+	 * @param pixels the pixel array.
+	 * @param alpha the alpha.
+	 */
+	public static void drawPixels(RenderContext ctx, int x, int y, int w, int h, int[] pixels, int alpha) {
 		int alphaInverted = 256 - alpha;
-		if (testBounds(x, y, w, h)) {
-			for (y = 0; y < drawHeight; y++) {
-				for (x = 0; x < drawWidth; x++) {
-					int src = pixels[srcOffset++];
+		if (testBounds(ctx, x, y, w, h)) {
+			for (y = 0; y < ctx.drawHeight; y++) {
+				for (x = 0; x < ctx.drawWidth; x++) {
+					int src = pixels[ctx.srcOffset++];
 
 					src = ((src & 0xFF00FF) * alpha >> 8 & 0xFF00FF) + ((src & 0xFF00) * alpha >> 8 & 0xFF00);
 
 					if (src != 0) {
-						int dst = target[targetOffset];
-						target[targetOffset++] = ((((src & 0xff00ff) * alpha + (dst & 0xff00ff) * alphaInverted) & ~0xff00ff) + (((src & 0xff00) * alpha + (dst & 0xff00) * alphaInverted) & 0xff0000)) >> 8;
+						int dst = ctx.target[ctx.targetOffset];
+						ctx.target[ctx.targetOffset++] = ((((src & 0xff00ff) * alpha + (dst & 0xff00ff) * alphaInverted) & ~0xff00ff) + (((src & 0xff00) * alpha + (dst & 0xff00) * alphaInverted) & 0xff0000)) >> 8;
 					} else {
-						targetOffset++;
+						ctx.targetOffset++;
 					}
 				}
-				targetOffset += targetStep;
-				srcOffset += srcStep;
+				ctx.targetOffset += ctx.targetStep;
+				ctx.srcOffset += ctx.srcStep;
 			}
 		}
 	}
@@ -689,12 +843,26 @@ public class Graphics2D {
 	 * @param h the draw height.
 	 */
 	public static void drawSprite(Sprite s, int x, int y, int w, int h) {
+		drawSprite(RenderContext.DEFAULT, s, x, y, w, h);
+	}
+
+	/**
+	 * Draws a sprite to the target.
+	 *
+	 * @param ctx the context to draw into.
+	 * @param s the sprite.
+	 * @param x the x.
+	 * @param y the y.
+	 * @param w the draw width.
+	 * @param h the draw height.
+	 */
+	public static void drawSprite(RenderContext ctx, Sprite s, int x, int y, int w, int h) {
 		if (w <= 1 || h <= 1) {
 			return;
 		}
 
-		targetOffset = x + (y * targetWidth);
-		targetStep = targetWidth - w;
+		ctx.targetOffset = x + (y * ctx.targetWidth);
+		ctx.targetStep = ctx.targetWidth - w;
 
 		// our texture coordinates as 24.8 fixed points
 		int u = 0, v = 0;
@@ -702,36 +870,36 @@ public class Graphics2D {
 		int vStep = (s.height << 8) / h;
 
 		// clip the top
-		if (y < top) {
-			int cut = top - y;
+		if (y < ctx.top) {
+			int cut = ctx.top - y;
 			h -= cut;
-			y = top;
+			y = ctx.top;
 
 			v += vStep * cut;
-			targetOffset += cut * targetWidth;
+			ctx.targetOffset += cut * ctx.targetWidth;
 		}
 
 		// clip the bottom
-		if (y + h > bottom) {
-			h -= (y + h) - bottom;
+		if (y + h > ctx.bottom) {
+			h -= (y + h) - ctx.bottom;
 		}
 
 		// clip the left
-		if (x < left) {
-			int cut = left - x;
+		if (x < ctx.left) {
+			int cut = ctx.left - x;
 			w -= cut;
-			x = left;
+			x = ctx.left;
 
-			u += (cut << 8);
-			targetOffset += cut;
-			targetStep += cut;
+			u += uStep * cut;
+			ctx.targetOffset += cut;
+			ctx.targetStep += cut;
 		}
 
 		// clip the right
-		if (x + w > right) {
-			int cut = (x + w) - right;
+		if (x + w > ctx.right) {
+			int cut = (x + w) - ctx.right;
 			w -= cut;
-			targetStep += cut;
+			ctx.targetStep += cut;
 		}
 
 		// if our image is too small then just don't draw it.
@@ -755,15 +923,15 @@ public class Graphics2D {
 				// apply values
                 int rgb = pixels[(u >> 8) + vOffset];
                 if (rgb != 0) {
-                    target[targetOffset++] = rgb;
+                    ctx.target[ctx.targetOffset++] = rgb;
                 } else {
-                    targetOffset++;
+                    ctx.targetOffset++;
                 }
                 u += uStep;
 			}
 
 			// step down a row of pixels on the destination
-			targetOffset += Graphics2D.targetWidth - w;
+			ctx.targetOffset += ctx.targetWidth - w;
 
 			// step down vertically
 			v += vStep;
@@ -774,6 +942,188 @@ public class Graphics2D {
 		}
 	}
 
+	/**
+	 * Draws a sprite from an atlas to the target. (ignores black pixels)
+	 *
+	 * @param atlas the atlas.
+	 * @param handle the handle of the sprite.
+	 * @param x the x.
+	 * @param y the y.
+	 */
+	public static void drawSprite(SpriteAtlas atlas, int handle, int x, int y) {
+		drawSprite(RenderContext.DEFAULT, atlas, handle, x, y);
+	}
+
+	/**
+	 * Draws a sprite from an atlas to the target. (ignores black pixels)
+	 *
+	 * @param ctx the context to draw into.
+	 * @param atlas the atlas.
+	 * @param handle the handle of the sprite.
+	 * @param x the x.
+	 * @param y the y.
+	 */
+	public static void drawSprite(RenderContext ctx, SpriteAtlas atlas, int handle, int x, int y) {
+		if (testBounds(ctx, x, y, atlas.getWidth(), atlas.getHeight())) {
+			final IntBuffer pixels = atlas.getPage(handle);
+			final int[] target = ctx.target;
+			int src = atlas.getOffset(handle) + ctx.srcOffset;
+			int dst = ctx.targetOffset;
+
+			for (y = 0; y < ctx.drawHeight; y++) {
+				for (x = 0; x < ctx.drawWidth; x++) {
+					int rgb = pixels.get(src++);
+					if (rgb != 0) {
+						target[dst] = rgb;
+					}
+					dst++;
+				}
+				dst += ctx.targetStep;
+				src += ctx.srcStep;
+			}
+		}
+	}
+
+	/**
+	 * Draws a sprite from an atlas to the target translucently. (ignores black pixels)
+	 *
+	 * @param atlas the atlas.
+	 * @param handle the handle of the sprite.
+	 * @param x the x.
+	 * @param y the y.
+	 * @param alpha the alpha.
+	 */
+	public static void drawSprite(SpriteAtlas atlas, int handle, int x, int y, int alpha) {
+		drawSprite(RenderContext.DEFAULT, atlas, handle, x, y, alpha);
+	}
+
+	/**
+	 * Draws a sprite from an atlas to the target translucently. (ignores black pixels)
+	 *
+	 * @param ctx the context to draw into.
+	 * @param atlas the atlas.
+	 * @param handle the handle of the sprite.
+	 * @param x the x.
+	 * @param y the y.
+	 * @param alpha the alpha.
+	 */
+	public static void drawSprite(RenderContext ctx, SpriteAtlas atlas, int handle, int x, int y, int alpha) {
+		int alphaInverted = 256 - alpha;
+		if (testBounds(ctx, x, y, atlas.getWidth(), atlas.getHeight())) {
+			final IntBuffer pixels = atlas.getPage(handle);
+			final int[] target = ctx.target;
+			int src = atlas.getOffset(handle) + ctx.srcOffset;
+			int dst = ctx.targetOffset;
+
+			for (y = 0; y < ctx.drawHeight; y++) {
+				for (x = 0; x < ctx.drawWidth; x++) {
+					int rgb = pixels.get(src++);
+
+					rgb = ((rgb & 0xFF00FF) * alpha >> 8 & 0xFF00FF) + ((rgb & 0xFF00) * alpha >> 8 & 0xFF00);
+
+					if (rgb != 0) {
+						int old = target[dst];
+						target[dst] = ((((rgb & 0xff00ff) * alpha + (old & 0xff00ff) * alphaInverted) & ~0xff00ff) + (((rgb & 0xff00) * alpha + (old & 0xff00) * alphaInverted) & 0xff0000)) >> 8;
+					}
+					dst++;
+				}
+				dst += ctx.targetStep;
+				src += ctx.srcStep;
+			}
+		}
+	}
+
+	/**
+	 * Draws a sprite from an atlas to the target, scaled to the provided size.
+	 *
+	 * @param atlas the atlas.
+	 * @param handle the handle of the sprite.
+	 * @param x the x.
+	 * @param y the y.
+	 * @param w the draw width.
+	 * @param h the draw height.
+	 */
+	public static void drawSprite(SpriteAtlas atlas, int handle, int x, int y, int w, int h) {
+		drawSprite(RenderContext.DEFAULT, atlas, handle, x, y, w, h);
+	}
+
+	/**
+	 * Draws a sprite from an atlas to the target, scaled to the provided size. Produces the same pixels as
+	 * {@link #drawSprite(RenderContext, Sprite, int, int, int, int)} does for the same sprite.
+	 *
+	 * @param ctx the context to draw into.
+	 * @param atlas the atlas.
+	 * @param handle the handle of the sprite.
+	 * @param x the x.
+	 * @param y the y.
+	 * @param w the draw width.
+	 * @param h the draw height.
+	 */
+	public static void drawSprite(RenderContext ctx, SpriteAtlas atlas, int handle, int x, int y, int w, int h) {
+		if (w <= 1 || h <= 1) {
+			return;
+		}
+
+		final int width = atlas.getWidth();
+		int dst = x + (y * ctx.targetWidth);
+
+		// our texture coordinates as 24.8 fixed points
+		int u = 0, v = 0;
+		int uStep = (width << 8) / w;
+		int vStep = (atlas.getHeight() << 8) / h;
+
+		if (y < ctx.top) {
+			int cut = ctx.top - y;
+			h -= cut;
+			y = ctx.top;
+
+			v += vStep * cut;
+			dst += cut * ctx.targetWidth;
+		}
+
+		if (y + h > ctx.bottom) {
+			h -= (y + h) - ctx.bottom;
+		}
+
+		if (x < ctx.left) {
+			int cut = ctx.left - x;
+			w -= cut;
+			x = ctx.left;
+
+			u += uStep * cut;
+			dst += cut;
+		}
+
+		if (x + w > ctx.right) {
+			w -= (x + w) - ctx.right;
+		}
+
+		if (w <= 1 || h <= 1) {
+			return;
+		}
+
+		final IntBuffer pixels = atlas.getPage(handle);
+		final int[] target = ctx.target;
+		final int base = atlas.getOffset(handle);
+
+		for (y = 0; y < h; y++) {
+			int row = base + (v >> 8) * width;
+			int column = u;
+
+			for (x = 0; x < w; x++) {
+				int rgb = pixels.get(row + (column >> 8));
+				if (rgb != 0) {
+					target[dst] = rgb;
+				}
+				dst++;
+				column += uStep;
+			}
+
+			dst += ctx.targetWidth - w;
+			v += vStep;
+		}
+	}
+
 	/**
 	 * Draws a string to the target with the current set font.
 	 *
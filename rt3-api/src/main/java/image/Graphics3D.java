@@ -1,8 +1,6 @@
 package image;
 
 import image.Graphics2D;
-import media.Model;
-import java.util.Arrays;
 
 /*
  * Copyright (C) 2015 Dane.
@@ -28,16 +26,6 @@ import java.util.Arrays;
  */
 public class Graphics3D {
 
-	/**
-	 * Determines whether to use choppy looking shading
-	 */
-	public static boolean texturedShading = true;
-
-	/**
-	 * The center of our 3d target
-	 */
-	public static int centerX, centerY;
-
 	/**
 	 * A lookup table for 17.15 fixed point fractions.
 	 */
@@ -58,36 +46,6 @@ public class Graphics3D {
 	 */
 	public static int[] cos = new int[2048];
 
-	/**
-	 * Whether to test x boundaries when drawing scanlines
-	 */
-	public static boolean testX;
-
-	/**
-	 * The alpha component for drawing triangles
-	 */
-	public static int alpha;
-
-	/**
-	 * When set to true, the renderer ignores blending the alpha component.
-	 */
-	public static boolean opaque;
-
-	/**
-	 * A vertical pixel offset lookup table
-	 */
-	public static int[] offsets;
-
-	/**
-	 * Stores RGB values that can be looked up with an HSL value
-	 */
-	public static int[] palette;
-
-	/**
-	 * Stores an array of zbuffer values.
-	 */
-	public static int[] depthBuffer;
-
 	static {
 		for (int i = 1; i < 512; i++) {
 			oneOverFixed1715[i] = (1 << 15) / i;
@@ -101,69 +59,53 @@ public class Graphics3D {
 			sin[i] = (int) (65536.0 * Math.sin((double) i * 0.0030679615));
 			cos[i] = (int) (65536.0 * Math.cos((double) i * 0.0030679615));
 		}
-
-		palette = new int[128 * 512];
 	}
 
 	/**
-	 * Generates the vertical pixel offsets using the width and height set in {@link Graphics2D}.
+	 * Generates the vertical pixel offsets using the width and height of the default context's target.
 	 *
 	 * @return the int[] of y offsets.
 	 */
 	public static final int[] setOffsets() {
-		offsets = new int[Graphics2D.targetHeight];
-		for (int y = 0; y < Graphics2D.targetHeight; y++) {
-			offsets[y] = Graphics2D.targetWidth * y;
-		}
-		centerX = Graphics2D.targetWidth / 2;
-		centerY = Graphics2D.targetHeight / 2;
-		return offsets;
+		return RenderContext.DEFAULT.setOffsets();
 	}
 
 	/**
-	 * Generates the vertical pixel offsets.
+	 * Generates the vertical pixel offsets for the default context.
 	 *
 	 * @param w the width.
 	 * @param h the height.
 	 * @return the int[] of y offsets.
 	 */
 	public static final int[] setOffsets(int w, int h) {
-		offsets = new int[h];
-		for (int y = 0; y < h; y++) {
-			offsets[y] = w * y;
-		}
-		centerX = w / 2;
-		centerY = h / 2;
-		return offsets;
+		return RenderContext.DEFAULT.setOffsets(w, h);
 	}
 
 	/**
-	 * Resets the zbuffer.
+	 * Resets the zbuffer of the default context.
 	 */
 	public static final void clearDepthBuffer() {
-		Arrays.fill(depthBuffer, Model.FAR_Z_1616);
+		RenderContext.DEFAULT.clearDepthBuffer();
 	}
 
 	/**
-	 * Creates the new zbuffer for the current target.
+	 * Creates the new zbuffer for the default context's target.
 	 *
 	 * @return the int[] zbuffer.
 	 */
 	public static final int[] setDepthBuffer() {
-		return setDepthBuffer(Graphics2D.targetWidth, Graphics2D.targetHeight);
+		return RenderContext.DEFAULT.setDepthBuffer();
 	}
 
 	/**
-	 * Creates the new zbuffer.
+	 * Creates the new zbuffer for the default context.
 	 *
 	 * @param w the width.
 	 * @param h the height.
 	 * @return the int[] zbuffer.
 	 */
 	public static final int[] setDepthBuffer(int w, int h) {
-		depthBuffer = new int[w * h];
-		clearDepthBuffer();
-		return depthBuffer;
+		return RenderContext.DEFAULT.setDepthBuffer(w, h);
 	}
 
 	/**
@@ -184,82 +126,24 @@ public class Graphics3D {
 	}
 
 	/**
-	 * Generates an HSL to RGB lookup table, also known as <i>palette</i>.
+	 * Selects the HSL to RGB lookup table, also known as <i>palette</i>, for the default context.
 	 *
 	 * @param exponent the brightness on a 0.0 to 1.0 scale.
 	 */
 	public static final void createPalette(double exponent) {
-		int off = 0;
-
-		for (int y = 0; y < 512; y++) {
-			double hue = (double) (y / 8) / 64.0 + 0.0078125;
-			double saturation = (double) (y & 0x7) / 8.0 + 0.0625;
-
-			for (int x = 0; x < 128; x++) {
-				double lightness = (double) x / 128.0;
-				double r = lightness;
-				double g = lightness;
-				double b = lightness;
-
-				if (saturation != 0.0) {
-					double d_36_;
-
-					if (lightness < 0.5) {
-						d_36_ = lightness * (1.0 + saturation);
-					} else {
-						d_36_ = lightness + saturation - lightness * saturation;
-					}
-
-					double d_37_ = 2.0 * lightness - d_36_;
-					double d_38_ = hue + 0.3333333333333333;
-
-					if (d_38_ > 1.0) {
-						d_38_--;
-					}
-
-					double d_39_ = hue;
-					double d_40_ = hue - 0.3333333333333333;
-
-					if (d_40_ < 0.0) {
-						d_40_++;
-					}
-
-					if (6.0 * d_38_ < 1.0) {
-						r = d_37_ + (d_36_ - d_37_) * 6.0 * d_38_;
-					} else if (2.0 * d_38_ < 1.0) {
-						r = d_36_;
-					} else if (3.0 * d_38_ < 2.0) {
-						r = d_37_ + (d_36_ - d_37_) * (0.6666666666666666 - d_38_) * 6.0;
-					} else {
-						r = d_37_;
-					}
-
-					if (6.0 * d_39_ < 1.0) {
-						g = d_37_ + (d_36_ - d_37_) * 6.0 * d_39_;
-					} else if (2.0 * d_39_ < 1.0) {
-						g = d_36_;
-					} else if (3.0 * d_39_ < 2.0) {
-						g = d_37_ + (d_36_ - d_37_) * (0.6666666666666666 - d_39_) * 6.0;
-					} else {
-						g = d_37_;
-					}
-
-					if (6.0 * d_40_ < 1.0) {
-						b = d_37_ + (d_36_ - d_37_) * 6.0 * d_40_;
-					} else if (2.0 * d_40_ < 1.0) {
-						b = d_36_;
-					} else if (3.0 * d_40_ < 2.0) {
-						b = d_37_ + (d_36_ - d_37_) * (0.6666666666666666 - d_40_) * 6.0;
-					} else {
-						b = d_37_;
-					}
-				}
+		createPalette(RenderContext.DEFAULT, exponent);
+	}
 
-				int rgb = ((int) (r * 256.0) << 16) + ((int) (g * 256.0) << 8) + (int) (b * 256.0);
-				rgb = setBrightness(rgb, exponent);
-				palette[off++] = rgb;
-			}
-		}
+	/**
+	 * Selects the HSL to RGB lookup table, also known as <i>palette</i>. Palettes are built once per exponent and
+	 * shared between contexts.
+	 *
+	 * @param ctx the context whose palette is set.
+	 * @param exponent the brightness on a 0.0 to 1.0 scale.
+	 * @see Palettes#get(double)
+	 */
+	public static final void createPalette(RenderContext ctx, double exponent) {
+		ctx.palette = Palettes.get(exponent);
 	}
 
 	/**
@@ -274,6 +158,29 @@ public class Graphics3D {
 	 * @param color the color of the triangle. (in INT24_RGB format)
 	 */
 	public static final void fillTriangleDepth(int xA, int yA, int zA, int xB, int yB, int zB, int xC, int yC, int zC, int color) {
+		fillTriangleDepth(RenderContext.DEFAULT, xA, yA, zA, xB, yB, zB, xC, yC, zC, color);
+	}
+
+	/**
+	 * Fills a triangle.
+	 *
+	 * @param ctx the context to draw into.
+	 * @param xA first point x
+	 * @param yA first point y
+	 * @param xB second point x
+	 * @param yB second point y
+	 * @param xC third point x
+	 * @param yC third point y
+	 * @param color the color of the triangle. (in INT24_RGB format)
+	 */
+	public static final void fillTriangleDepth(RenderContext ctx, int xA, int yA, int zA, int xB, int yB, int zB, int xC, int yC, int zC, int color) {
+		final int[] offsets = ctx.offsets;
+
+		if (ctx.coarseDepth != null && isOccluded(ctx, xA, yA, zA, xB, yB, zB, xC, yC, zC)) {
+			ctx.rejectedTriangleCount++;
+			return;
+		}
+
 		int slopeAB = 0;
 		int slopeBC = 0;
 		int slopeCA = 0;
@@ -301,18 +208,18 @@ public class Graphics3D {
 		if (yA <= yB && yA <= yC) {
 
 			// A is below the bottom of our drawing area.
-			if (yA >= Graphics2D.bottom) {
+			if (yA >= ctx.bottom) {
 				return;
 			}
 
 			// Clamp B's Y
-			if (yB > Graphics2D.bottom) {
-				yB = Graphics2D.bottom;
+			if (yB > ctx.bottom) {
+				yB = ctx.bottom;
 			}
 
 			// Clamp C's Y
-			if (yC > Graphics2D.bottom) {
-				yC = Graphics2D.bottom;
+			if (yC > ctx.bottom) {
+				yC = ctx.bottom;
 			}
 
 			// B is above C
@@ -395,7 +302,7 @@ public class Graphics3D {
 					// While we still have a vertical space between A and B
 					while (--yB >= 0) {
 						// Draw our scanline from xC (start) to xA (end) starting at the offset provided by yA
-						drawScanlineDepth(Graphics2D.target, yA, 0, xC >> 16, xA >> 16, zC, zA, color);
+						drawScanlineDepth(ctx, ctx.target, yA, 0, xC >> 16, xA >> 16, zC, zA, color);
 
 						// approach xC to xA
 						xC += slopeCA;
@@ -406,13 +313,13 @@ public class Graphics3D {
 						zA += zSlopeAB;
 
 						// Go down a line
-						yA += Graphics2D.targetWidth;
+						yA += ctx.targetWidth;
 					}
 
 					// While we still have a vertical space between B and C
 					while (--yC >= 0) {
 						// Draw our scanline from xC (start) to xB (end) starting at the offset provided by yA
-						drawScanlineDepth(Graphics2D.target, yA, 0, xC >> 16, xB >> 16, zC, zB, color);
+						drawScanlineDepth(ctx, ctx.target, yA, 0, xC >> 16, xB >> 16, zC, zB, color);
 
 						// Approach C to A horizontally
 						xC += slopeCA;
@@ -423,7 +330,7 @@ public class Graphics3D {
 						zB += zSlopeBC;
 
 						// Move down a line
-						yA += Graphics2D.targetWidth;
+						yA += ctx.targetWidth;
 					}
 				} else {
 					// yC is now the distance from yB to yC in pixels
@@ -438,7 +345,7 @@ public class Graphics3D {
 					// While we still have a vertical space between A and B
 					while (--yB >= 0) {
 						// Draw our scanline from xC (start) to xC (end) starting at the offset provided by yA
-						drawScanlineDepth(Graphics2D.target, yA, 0, xA >> 16, xC >> 16, zA, zC, color);
+						drawScanlineDepth(ctx, ctx.target, yA, 0, xA >> 16, xC >> 16, zA, zC, color);
 
 						// Approach C to A horizontally
 						xC += slopeCA;
@@ -449,13 +356,13 @@ public class Graphics3D {
 						zA += zSlopeAB;
 
 						// Move down a line
-						yA += Graphics2D.targetWidth;
+						yA += ctx.targetWidth;
 					}
 
 					// While we still have a vertical space between B and C
 					while (--yC >= 0) {
 						// Draw our scanline from xB (start) to xC (end) starting at the offset provided by yA
-						drawScanlineDepth(Graphics2D.target, yA, 0, xB >> 16, xC >> 16, zB, zC, color);
+						drawScanlineDepth(ctx, ctx.target, yA, 0, xB >> 16, xC >> 16, zB, zC, color);
 
 						// Approach C to A horizontally
 						xC += slopeCA;
@@ -466,7 +373,7 @@ public class Graphics3D {
 						zB += zSlopeBC;
 
 						// Move down a line
-						yA += Graphics2D.targetWidth;
+						yA += ctx.targetWidth;
 					}
 				}
 			} else {
@@ -499,7 +406,7 @@ public class Graphics3D {
 					yA = offsets[yA];
 
 					while (--yC >= 0) {
-						drawScanlineDepth(Graphics2D.target, yA, 0, xB >> 16, xA >> 16, zB, zA, color);
+						drawScanlineDepth(ctx, ctx.target, yA, 0, xB >> 16, xA >> 16, zB, zA, color);
 
 						xB += slopeCA;
 						zB += zSlopeCA;
@@ -507,11 +414,11 @@ public class Graphics3D {
 						xA += slopeAB;
 						zA += zSlopeAB;
 
-						yA += Graphics2D.targetWidth;
+						yA += ctx.targetWidth;
 					}
 
 					while (--yB >= 0) {
-						drawScanlineDepth(Graphics2D.target, yA, 0, xC >> 16, xA >> 16, zC, zA, color);
+						drawScanlineDepth(ctx, ctx.target, yA, 0, xC >> 16, xA >> 16, zC, zA, color);
 
 						xC += slopeBC;
 						zC += zSlopeBC;
@@ -519,7 +426,7 @@ public class Graphics3D {
 						xA += slopeAB;
 						zA += zSlopeAB;
 
-						yA += Graphics2D.targetWidth;
+						yA += ctx.targetWidth;
 					}
 				} else {
 					yB -= yC;
@@ -527,7 +434,7 @@ public class Graphics3D {
 					yA = offsets[yA];
 
 					while (--yC >= 0) {
-						drawScanlineDepth(Graphics2D.target, yA, 0, xA >> 16, xB >> 16, zA, zB, color);
+						drawScanlineDepth(ctx, ctx.target, yA, 0, xA >> 16, xB >> 16, zA, zB, color);
 
 						xB += slopeCA;
 						zB += zSlopeCA;
@@ -535,11 +442,11 @@ public class Graphics3D {
 						xA += slopeAB;
 						zA += zSlopeAB;
 
-						yA += Graphics2D.targetWidth;
+						yA += ctx.targetWidth;
 					}
 
 					while (--yB >= 0) {
-						drawScanlineDepth(Graphics2D.target, yA, 0, xA >> 16, xC >> 16, zA, zC, color);
+						drawScanlineDepth(ctx, ctx.target, yA, 0, xA >> 16, xC >> 16, zA, zC, color);
 
 						xC += slopeBC;
 						zC += zSlopeBC;
@@ -547,19 +454,19 @@ public class Graphics3D {
 						xA += slopeAB;
 						zA += zSlopeAB;
 
-						yA += Graphics2D.targetWidth;
+						yA += ctx.targetWidth;
 					}
 				}
 			}
 			// else A is below B or C, and B is above C.
 		} else if (yB <= yC) {
-			if (yB < Graphics2D.bottom) {
-				if (yC > Graphics2D.bottom) {
-					yC = Graphics2D.bottom;
+			if (yB < ctx.bottom) {
+				if (yC > ctx.bottom) {
+					yC = ctx.bottom;
 				}
 
-				if (yA > Graphics2D.bottom) {
-					yA = Graphics2D.bottom;
+				if (yA > ctx.bottom) {
+					yA = ctx.bottom;
 				}
 
 				if (yC < yA) {
@@ -593,7 +500,7 @@ public class Graphics3D {
 						yB = offsets[yB];
 
 						while (--yC >= 0) {
-							drawScanlineDepth(Graphics2D.target, yB, 0, xA >> 16, xB >> 16, zA, zB, color);
+							drawScanlineDepth(ctx, ctx.target, yB, 0, xA >> 16, xB >> 16, zA, zB, color);
 
 							xA += slopeAB;
 							zA += zSlopeAB;
@@ -601,11 +508,11 @@ public class Graphics3D {
 							xB += slopeBC;
 							zB += zSlopeBC;
 
-							yB += Graphics2D.targetWidth;
+							yB += ctx.targetWidth;
 						}
 
 						while (--yA >= 0) {
-							drawScanlineDepth(Graphics2D.target, yB, 0, xA >> 16, xC >> 16, zA, zC, color);
+							drawScanlineDepth(ctx, ctx.target, yB, 0, xA >> 16, xC >> 16, zA, zC, color);
 
 							xA += slopeAB;
 							zA += zSlopeAB;
@@ -613,7 +520,7 @@ public class Graphics3D {
 							xC += slopeCA;
 							zC += zSlopeCA;
 
-							yB += Graphics2D.targetWidth;
+							yB += ctx.targetWidth;
 						}
 					} else {
 						yA -= yC;
@@ -622,7 +529,7 @@ public class Graphics3D {
 						yB = offsets[yB];
 
 						while (--yC >= 0) {
-							drawScanlineDepth(Graphics2D.target, yB, 0, xB >> 16, xA >> 16, zB, zA, color);
+							drawScanlineDepth(ctx, ctx.target, yB, 0, xB >> 16, xA >> 16, zB, zA, color);
 
 							xA += slopeAB;
 							zA += zSlopeAB;
@@ -630,11 +537,11 @@ public class Graphics3D {
 							xB += slopeBC;
 							zB += zSlopeBC;
 
-							yB += Graphics2D.targetWidth;
+							yB += ctx.targetWidth;
 						}
 
 						while (--yA >= 0) {
-							drawScanlineDepth(Graphics2D.target, yB, 0, xC >> 16, xA >> 16, zC, zA, color);
+							drawScanlineDepth(ctx, ctx.target, yB, 0, xC >> 16, xA >> 16, zC, zA, color);
 
 							xA += slopeAB;
 							zA += zSlopeAB;
@@ -642,7 +549,7 @@ public class Graphics3D {
 							xC += slopeCA;
 							zC += zSlopeCA;
 
-							yB += Graphics2D.targetWidth;
+							yB += ctx.targetWidth;
 						}
 					}
 				} else {
@@ -675,7 +582,7 @@ public class Graphics3D {
 						yB = offsets[yB];
 
 						while (--yA >= 0) {
-							drawScanlineDepth(Graphics2D.target, yB, 0, xC >> 16, xB >> 16, zC, zB, color);
+							drawScanlineDepth(ctx, ctx.target, yB, 0, xC >> 16, xB >> 16, zC, zB, color);
 
 							xC += slopeAB;
 							zC += zSlopeAB;
@@ -683,11 +590,11 @@ public class Graphics3D {
 							xB += slopeBC;
 							zB += zSlopeBC;
 
-							yB += Graphics2D.targetWidth;
+							yB += ctx.targetWidth;
 						}
 
 						while (--yC >= 0) {
-							drawScanlineDepth(Graphics2D.target, yB, 0, xA >> 16, xB >> 16, zA, zB, color);
+							drawScanlineDepth(ctx, ctx.target, yB, 0, xA >> 16, xB >> 16, zA, zB, color);
 
 							xA += slopeCA;
 							zA += zSlopeCA;
@@ -695,7 +602,7 @@ public class Graphics3D {
 							xB += slopeBC;
 							zB += zSlopeBC;
 
-							yB += Graphics2D.targetWidth;
+							yB += ctx.targetWidth;
 						}
 					} else {
 						yC -= yA;
@@ -704,7 +611,7 @@ public class Graphics3D {
 						yB = offsets[yB];
 
 						while (--yA >= 0) {
-							drawScanlineDepth(Graphics2D.target, yB, 0, xB >> 16, xC >> 16, zB, zC, color);
+							drawScanlineDepth(ctx, ctx.target, yB, 0, xB >> 16, xC >> 16, zB, zC, color);
 
 							xC += slopeAB;
 							zC += zSlopeAB;
@@ -712,11 +619,11 @@ public class Graphics3D {
 							xB += slopeBC;
 							zB += zSlopeBC;
 
-							yB += Graphics2D.targetWidth;
+							yB += ctx.targetWidth;
 						}
 
 						while (--yC >= 0) {
-							drawScanlineDepth(Graphics2D.target, yB, 0, xB >> 16, xA >> 16, zB, zA, color);
+							drawScanlineDepth(ctx, ctx.target, yB, 0, xB >> 16, xA >> 16, zB, zA, color);
 
 							xA += slopeCA;
 							zA += zSlopeCA;
@@ -724,18 +631,18 @@ public class Graphics3D {
 							xB += slopeBC;
 							zB += zSlopeBC;
 
-							yB += Graphics2D.targetWidth;
+							yB += ctx.targetWidth;
 						}
 					}
 				}
 			}
-		} else if (yC < Graphics2D.bottom) {
-			if (yA > Graphics2D.bottom) {
-				yA = Graphics2D.bottom;
+		} else if (yC < ctx.bottom) {
+			if (yA > ctx.bottom) {
+				yA = ctx.bottom;
 			}
 
-			if (yB > Graphics2D.bottom) {
-				yB = Graphics2D.bottom;
+			if (yB > ctx.bottom) {
+				yB = ctx.bottom;
 			}
 
 			if (yA < yB) {
@@ -769,7 +676,7 @@ public class Graphics3D {
 					yC = offsets[yC];
 
 					while (--yA >= 0) {
-						drawScanlineDepth(Graphics2D.target, yC, 0, xB >> 16, xC >> 16, zB, zC, color);
+						drawScanlineDepth(ctx, ctx.target, yC, 0, xB >> 16, xC >> 16, zB, zC, color);
 
 						xB += slopeBC;
 						zB += zSlopeBC;
@@ -777,11 +684,11 @@ public class Graphics3D {
 						xC += slopeCA;
 						zC += zSlopeCA;
 
-						yC += Graphics2D.targetWidth;
+						yC += ctx.targetWidth;
 					}
 
 					while (--yB >= 0) {
-						drawScanlineDepth(Graphics2D.target, yC, 0, xB >> 16, xA >> 16, zB, zA, color);
+						drawScanlineDepth(ctx, ctx.target, yC, 0, xB >> 16, xA >> 16, zB, zA, color);
 
 						xB += slopeBC;
 						zB += zSlopeBC;
@@ -789,7 +696,7 @@ public class Graphics3D {
 						xA += slopeAB;
 						zA += zSlopeAB;
 
-						yC += Graphics2D.targetWidth;
+						yC += ctx.targetWidth;
 					}
 				} else {
 					yB -= yA;
@@ -798,7 +705,7 @@ public class Graphics3D {
 					yC = offsets[yC];
 
 					while (--yA >= 0) {
-						drawScanlineDepth(Graphics2D.target, yC, 0, xC >> 16, xB >> 16, zC, zB, color);
+						drawScanlineDepth(ctx, ctx.target, yC, 0, xC >> 16, xB >> 16, zC, zB, color);
 
 						xB += slopeBC;
 						zB += zSlopeBC;
@@ -806,11 +713,11 @@ public class Graphics3D {
 						xC += slopeCA;
 						zC += zSlopeCA;
 
-						yC += Graphics2D.targetWidth;
+						yC += ctx.targetWidth;
 					}
 
 					while (--yB >= 0) {
-						drawScanlineDepth(Graphics2D.target, yC, 0, xA >> 16, xB >> 16, zA, zB, color);
+						drawScanlineDepth(ctx, ctx.target, yC, 0, xA >> 16, xB >> 16, zA, zB, color);
 
 						xB += slopeBC;
 						zB += zSlopeBC;
@@ -818,7 +725,7 @@ public class Graphics3D {
 						xA += slopeAB;
 						zA += zSlopeAB;
 
-						yC += Graphics2D.targetWidth;
+						yC += ctx.targetWidth;
 					}
 				}
 			} else {
@@ -852,7 +759,7 @@ public class Graphics3D {
 					yC = offsets[yC];
 
 					while (--yB >= 0) {
-						drawScanlineDepth(Graphics2D.target, yC, 0, xA >> 16, xC >> 16, zA, zC, color);
+						drawScanlineDepth(ctx, ctx.target, yC, 0, xA >> 16, xC >> 16, zA, zC, color);
 
 						xA += slopeBC;
 						zA += zSlopeBC;
@@ -860,11 +767,11 @@ public class Graphics3D {
 						xC += slopeCA;
 						zC += zSlopeCA;
 
-						yC += Graphics2D.targetWidth;
+						yC += ctx.targetWidth;
 					}
 
 					while (--yA >= 0) {
-						drawScanlineDepth(Graphics2D.target, yC, 0, xB >> 16, xC >> 16, zB, zC, color);
+						drawScanlineDepth(ctx, ctx.target, yC, 0, xB >> 16, xC >> 16, zB, zC, color);
 
 						xB += slopeAB;
 						zB += zSlopeAB;
@@ -872,7 +779,7 @@ public class Graphics3D {
 						xC += slopeCA;
 						zC += zSlopeCA;
 
-						yC += Graphics2D.targetWidth;
+						yC += ctx.targetWidth;
 					}
 				} else {
 					yA -= yB;
@@ -880,7 +787,7 @@ public class Graphics3D {
 					yC = offsets[yC];
 
 					while (--yB >= 0) {
-						drawScanlineDepth(Graphics2D.target, yC, 0, xC >> 16, xA >> 16, zC, zA, color);
+						drawScanlineDepth(ctx, ctx.target, yC, 0, xC >> 16, xA >> 16, zC, zA, color);
 
 						xA += slopeBC;
 						zA += zSlopeBC;
@@ -888,11 +795,11 @@ public class Graphics3D {
 						xC += slopeCA;
 						zC += zSlopeCA;
 
-						yC += Graphics2D.targetWidth;
+						yC += ctx.targetWidth;
 					}
 
 					while (--yA >= 0) {
-						drawScanlineDepth(Graphics2D.target, yC, 0, xC >> 16, xB >> 16, zC, zB, color);
+						drawScanlineDepth(ctx, ctx.target, yC, 0, xC >> 16, xB >> 16, zC, zB, color);
 
 						xB += slopeAB;
 						zB += zSlopeAB;
@@ -900,7 +807,7 @@ public class Graphics3D {
 						xC += slopeCA;
 						zC += zSlopeCA;
 
-						yC += Graphics2D.targetWidth;
+						yC += ctx.targetWidth;
 					}
 				}
 			}
@@ -918,15 +825,33 @@ public class Graphics3D {
 	 * @param xB the end x.
 	 */
 	public static final void drawScanlineDepth(int[] dst, int off, int length, int xA, int xB, int zA, int zB, int rgb) {
-		if (xA >= xB) {
+		drawScanlineDepth(RenderContext.DEFAULT, dst, off, length, xA, xB, zA, zB, rgb);
+	}
+
+	/**
+	 * Draws a scanline.
+	 *
+	 * @param ctx the context to draw into.
+	 * @param dst the destination.
+	 * @param off the initial offset.
+	 * @param rgb the color.
+	 * @param length the length.
+	 * @param xA the start x.
+	 * @param xB the end x.
+	 */
+	public static final void drawScanlineDepth(RenderContext ctx, int[] dst, int off, int length, int xA, int xB, int zA, int zB, int rgb) {
+		final int[] depthBuffer = ctx.depthBuffer;
+		final int alpha = ctx.alpha;
+
+		if (xA >= xB || off < ctx.topOffset) {
 			return;
 		}
 
 		int zSlope = (zB - zA) / (xB - xA);
 
-		if (testX) {
-			if (xB > Graphics2D.rightX) {
-				xB = Graphics2D.rightX;
+		if (ctx.testX) {
+			if (xB > ctx.rightX) {
+				xB = ctx.rightX;
 			}
 
 			if (xA < 0) {
@@ -942,34 +867,19 @@ public class Graphics3D {
 		length = xB - xA;
 
 		off += xA;
+		ctx.rasterizedPixelCount += length;
 
-		if (alpha == 0) {
-			while (--length >= 0) {
-				if (zA <= depthBuffer[off]) {
-					depthBuffer[off] = zA;
-					dst[off++] = rgb;
-				} else {
-					off++;
-				}
-				zA += zSlope;
-			}
+		if (ctx.coarseDepth != null && length >= CoarseDepthBuffer.TILE_SIZE && ctx.coarseDepth.isSpanHidden(off, length, zSlope < 0 ? zA + (length - 1) * zSlope : zA)) {
+			ctx.rejectedSpanCount++;
+			return;
+		}
 
-			zA += zSlope;
+		if (alpha == 0) {
+			ctx.scanlines.fillDepth(dst, depthBuffer, off, length, zA, zSlope, rgb);
 		} else {
-			int alphaA = alpha;
 			int alphaB = 256 - alpha;
 			rgb = (((rgb & 0xFF00FF) * alphaB >> 8 & 0xFF00FF) + ((rgb & 0xFF00) * alphaB >> 8 & 0xFF00));
-
-			while (--length >= 0) {
-				if (zA <= depthBuffer[off]) {
-					depthBuffer[off] = zA;
-					dst[off] = (rgb + ((dst[off] & 0xFF00FF) * alphaA >> 8 & 0xFF00FF) + ((dst[off] & 0xFF00) * alphaA >> 8 & 0xFF00));
-					off++;
-				} else {
-					off++;
-				}
-				zA += zSlope;
-			}
+			ctx.scanlines.blendDepth(dst, depthBuffer, off, length, zA, zSlope, rgb, alpha);
 		}
 	}
 
@@ -990,6 +900,29 @@ public class Graphics3D {
 	 * @param colorC third point color in HSL format.
 	 */
 	public static final void fillShadedTriangle(int xA, int yA, int xB, int yB, int xC, int yC, int colorA, int colorB, int colorC) {
+		fillShadedTriangle(RenderContext.DEFAULT, xA, yA, xB, yB, xC, yC, colorA, colorB, colorC);
+	}
+
+	/**
+	 * Fills a triangle using the gouraud shading technique.<p>
+	 * <b>Warning:</b>
+	 * Only interpolates the <i>lightness</i> channel of the provided colors for each point. That means you cannot
+	 * select a different hue or saturation between points!</p>
+	 *
+	 * @param ctx the context to draw into.
+	 * @param xA first point x.
+	 * @param yA first point y.
+	 * @param xB second point x.
+	 * @param yB second point y.
+	 * @param xC third point x.
+	 * @param yC third point y.
+	 * @param colorA first point color in HSL format.
+	 * @param colorB second point color in HSL format.
+	 * @param colorC third point color in HSL format.
+	 */
+	public static final void fillShadedTriangle(RenderContext ctx, int xA, int yA, int xB, int yB, int xC, int yC, int colorA, int colorB, int colorC) {
+		final int[] offsets = ctx.offsets;
+
 		// All slopes are 16.16 fixed points
 		// All light slopes are 17.15 fixed points
 		int slopeAB = 0;
@@ -1019,16 +952,16 @@ public class Graphics3D {
 		}
 
 		if (yA <= yB && yA <= yC) {
-			if (yA >= Graphics2D.bottom) {
+			if (yA >= ctx.bottom) {
 				return;
 			}
 
-			if (yB > Graphics2D.bottom) {
-				yB = Graphics2D.bottom;
+			if (yB > ctx.bottom) {
+				yB = ctx.bottom;
 			}
 
-			if (yC > Graphics2D.bottom) {
-				yC = Graphics2D.bottom;
+			if (yC > ctx.bottom) {
+				yC = ctx.bottom;
 			}
 
 			if (yB < yC) {
@@ -1072,7 +1005,7 @@ public class Graphics3D {
 					while (--yB >= 0) {
 						// Notice the right shifts of 7
 						// Those are transforming the 17.15 fixed points to 24.8! How exciting!
-						drawShadedScanline(Graphics2D.target, yA, 0, 0, xC >> 16, xA >> 16, colorC >> 7, colorA >> 7);
+						drawShadedScanline(ctx, ctx.target, yA, 0, 0, xC >> 16, xA >> 16, colorC >> 7, colorA >> 7);
 
 						// approach xC to xA
 						xC += slopeCA;
@@ -1083,12 +1016,12 @@ public class Graphics3D {
 						colorA += lightSlopeAB;
 
 						// move yA down a row of pixels.
-						yA += Graphics2D.targetWidth;
+						yA += ctx.targetWidth;
 					}
 
 					// while we have a vertical gap between B and C
 					while (--yC >= 0) {
-						drawShadedScanline(Graphics2D.target, yA, 0, 0, xC >> 16, xB >> 16, colorC >> 7, colorB >> 7);
+						drawShadedScanline(ctx, ctx.target, yA, 0, 0, xC >> 16, xB >> 16, colorC >> 7, colorB >> 7);
 
 						xC += slopeCA;
 						colorC += lightSlopeCA;
@@ -1096,7 +1029,7 @@ public class Graphics3D {
 						xB += slopeBC;
 						colorB += lightSlopeBC;
 
-						yA += Graphics2D.targetWidth;
+						yA += ctx.targetWidth;
 					}
 				} else {
 					yC -= yB;
@@ -1104,21 +1037,21 @@ public class Graphics3D {
 					yA = offsets[yA];
 
 					while (--yB >= 0) {
-						drawShadedScanline(Graphics2D.target, yA, 0, 0, xA >> 16, xC >> 16, colorA >> 7, colorC >> 7);
+						drawShadedScanline(ctx, ctx.target, yA, 0, 0, xA >> 16, xC >> 16, colorA >> 7, colorC >> 7);
 						xC += slopeCA;
 						xA += slopeAB;
 						colorC += lightSlopeCA;
 						colorA += lightSlopeAB;
-						yA += Graphics2D.targetWidth;
+						yA += ctx.targetWidth;
 					}
 
 					while (--yC >= 0) {
-						drawShadedScanline(Graphics2D.target, yA, 0, 0, xB >> 16, xC >> 16, colorB >> 7, colorC >> 7);
+						drawShadedScanline(ctx, ctx.target, yA, 0, 0, xB >> 16, xC >> 16, colorB >> 7, colorC >> 7);
 						xC += slopeCA;
 						xB += slopeBC;
 						colorC += lightSlopeCA;
 						colorB += lightSlopeBC;
-						yA += Graphics2D.targetWidth;
+						yA += ctx.targetWidth;
 					}
 				}
 			} else {
@@ -1148,21 +1081,21 @@ public class Graphics3D {
 					yA = offsets[yA];
 
 					while (--yC >= 0) {
-						drawShadedScanline(Graphics2D.target, yA, 0, 0, xB >> 16, xA >> 16, colorB >> 7, colorA >> 7);
+						drawShadedScanline(ctx, ctx.target, yA, 0, 0, xB >> 16, xA >> 16, colorB >> 7, colorA >> 7);
 						xB += slopeCA;
 						xA += slopeAB;
 						colorB += lightSlopeCA;
 						colorA += lightSlopeAB;
-						yA += Graphics2D.targetWidth;
+						yA += ctx.targetWidth;
 					}
 
 					while (--yB >= 0) {
-						drawShadedScanline(Graphics2D.target, yA, 0, 0, xC >> 16, xA >> 16, colorC >> 7, colorA >> 7);
+						drawShadedScanline(ctx, ctx.target, yA, 0, 0, xC >> 16, xA >> 16, colorC >> 7, colorA >> 7);
 						xC += slopeBC;
 						xA += slopeAB;
 						colorC += lightSlopeBC;
 						colorA += lightSlopeAB;
-						yA += Graphics2D.targetWidth;
+						yA += ctx.targetWidth;
 					}
 				} else {
 					yB -= yC;
@@ -1170,32 +1103,32 @@ public class Graphics3D {
 					yA = offsets[yA];
 
 					while (--yC >= 0) {
-						drawShadedScanline(Graphics2D.target, yA, 0, 0, xA >> 16, xB >> 16, colorA >> 7, colorB >> 7);
+						drawShadedScanline(ctx, ctx.target, yA, 0, 0, xA >> 16, xB >> 16, colorA >> 7, colorB >> 7);
 						xB += slopeCA;
 						xA += slopeAB;
 						colorB += lightSlopeCA;
 						colorA += lightSlopeAB;
-						yA += Graphics2D.targetWidth;
+						yA += ctx.targetWidth;
 					}
 
 					while (--yB >= 0) {
-						drawShadedScanline(Graphics2D.target, yA, 0, 0, xA >> 16, xC >> 16, colorA >> 7, colorC >> 7);
+						drawShadedScanline(ctx, ctx.target, yA, 0, 0, xA >> 16, xC >> 16, colorA >> 7, colorC >> 7);
 						xC += slopeBC;
 						xA += slopeAB;
 						colorC += lightSlopeBC;
 						colorA += lightSlopeAB;
-						yA += Graphics2D.targetWidth;
+						yA += ctx.targetWidth;
 					}
 				}
 			}
 		} else if (yB <= yC) {
-			if (yB < Graphics2D.bottom) {
-				if (yC > Graphics2D.bottom) {
-					yC = Graphics2D.bottom;
+			if (yB < ctx.bottom) {
+				if (yC > ctx.bottom) {
+					yC = ctx.bottom;
 				}
 
-				if (yA > Graphics2D.bottom) {
-					yA = Graphics2D.bottom;
+				if (yA > ctx.bottom) {
+					yA = ctx.bottom;
 				}
 
 				if (yC < yA) {
@@ -1220,40 +1153,40 @@ public class Graphics3D {
 						yC -= yB;
 						yB = offsets[yB];
 						while (--yC >= 0) {
-							drawShadedScanline(Graphics2D.target, yB, 0, 0, xA >> 16, xB >> 16, colorA >> 7, colorB >> 7);
+							drawShadedScanline(ctx, ctx.target, yB, 0, 0, xA >> 16, xB >> 16, colorA >> 7, colorB >> 7);
 							xA += slopeAB;
 							xB += slopeBC;
 							colorA += lightSlopeAB;
 							colorB += lightSlopeBC;
-							yB += Graphics2D.targetWidth;
+							yB += ctx.targetWidth;
 						}
 						while (--yA >= 0) {
-							drawShadedScanline(Graphics2D.target, yB, 0, 0, xA >> 16, xC >> 16, colorA >> 7, colorC >> 7);
+							drawShadedScanline(ctx, ctx.target, yB, 0, 0, xA >> 16, xC >> 16, colorA >> 7, colorC >> 7);
 							xA += slopeAB;
 							xC += slopeCA;
 							colorA += lightSlopeAB;
 							colorC += lightSlopeCA;
-							yB += Graphics2D.targetWidth;
+							yB += ctx.targetWidth;
 						}
 					} else {
 						yA -= yC;
 						yC -= yB;
 						yB = offsets[yB];
 						while (--yC >= 0) {
-							drawShadedScanline(Graphics2D.target, yB, 0, 0, xB >> 16, xA >> 16, colorB >> 7, colorA >> 7);
+							drawShadedScanline(ctx, ctx.target, yB, 0, 0, xB >> 16, xA >> 16, colorB >> 7, colorA >> 7);
 							xA += slopeAB;
 							xB += slopeBC;
 							colorA += lightSlopeAB;
 							colorB += lightSlopeBC;
-							yB += Graphics2D.targetWidth;
+							yB += ctx.targetWidth;
 						}
 						while (--yA >= 0) {
-							drawShadedScanline(Graphics2D.target, yB, 0, 0, xC >> 16, xA >> 16, colorC >> 7, colorA >> 7);
+							drawShadedScanline(ctx, ctx.target, yB, 0, 0, xC >> 16, xA >> 16, colorC >> 7, colorA >> 7);
 							xA += slopeAB;
 							xC += slopeCA;
 							colorA += lightSlopeAB;
 							colorC += lightSlopeCA;
-							yB += Graphics2D.targetWidth;
+							yB += ctx.targetWidth;
 						}
 					}
 				} else {
@@ -1278,50 +1211,50 @@ public class Graphics3D {
 						yA -= yB;
 						yB = offsets[yB];
 						while (--yA >= 0) {
-							drawShadedScanline(Graphics2D.target, yB, 0, 0, xC >> 16, xB >> 16, colorC >> 7, colorB >> 7);
+							drawShadedScanline(ctx, ctx.target, yB, 0, 0, xC >> 16, xB >> 16, colorC >> 7, colorB >> 7);
 							xC += slopeAB;
 							xB += slopeBC;
 							colorC += lightSlopeAB;
 							colorB += lightSlopeBC;
-							yB += Graphics2D.targetWidth;
+							yB += ctx.targetWidth;
 						}
 						while (--yC >= 0) {
-							drawShadedScanline(Graphics2D.target, yB, 0, 0, xA >> 16, xB >> 16, colorA >> 7, colorB >> 7);
+							drawShadedScanline(ctx, ctx.target, yB, 0, 0, xA >> 16, xB >> 16, colorA >> 7, colorB >> 7);
 							xA += slopeCA;
 							xB += slopeBC;
 							colorA += lightSlopeCA;
 							colorB += lightSlopeBC;
-							yB += Graphics2D.targetWidth;
+							yB += ctx.targetWidth;
 						}
 					} else {
 						yC -= yA;
 						yA -= yB;
 						yB = offsets[yB];
 						while (--yA >= 0) {
-							drawShadedScanline(Graphics2D.target, yB, 0, 0, xB >> 16, xC >> 16, colorB >> 7, colorC >> 7);
+							drawShadedScanline(ctx, ctx.target, yB, 0, 0, xB >> 16, xC >> 16, colorB >> 7, colorC >> 7);
 							xC += slopeAB;
 							xB += slopeBC;
 							colorC += lightSlopeAB;
 							colorB += lightSlopeBC;
-							yB += Graphics2D.targetWidth;
+							yB += ctx.targetWidth;
 						}
 						while (--yC >= 0) {
-							drawShadedScanline(Graphics2D.target, yB, 0, 0, xB >> 16, xA >> 16, colorB >> 7, colorA >> 7);
+							drawShadedScanline(ctx, ctx.target, yB, 0, 0, xB >> 16, xA >> 16, colorB >> 7, colorA >> 7);
 							xA += slopeCA;
 							xB += slopeBC;
 							colorA += lightSlopeCA;
 							colorB += lightSlopeBC;
-							yB += Graphics2D.targetWidth;
+							yB += ctx.targetWidth;
 						}
 					}
 				}
 			}
-		} else if (yC < Graphics2D.bottom) {
-			if (yA > Graphics2D.bottom) {
-				yA = Graphics2D.bottom;
+		} else if (yC < ctx.bottom) {
+			if (yA > ctx.bottom) {
+				yA = ctx.bottom;
 			}
-			if (yB > Graphics2D.bottom) {
-				yB = Graphics2D.bottom;
+			if (yB > ctx.bottom) {
+				yB = ctx.bottom;
 			}
 			if (yA < yB) {
 				xB = xC <<= 16;
@@ -1345,40 +1278,40 @@ public class Graphics3D {
 					yA -= yC;
 					yC = offsets[yC];
 					while (--yA >= 0) {
-						drawShadedScanline(Graphics2D.target, yC, 0, 0, xB >> 16, xC >> 16, colorB >> 7, colorC >> 7);
+						drawShadedScanline(ctx, ctx.target, yC, 0, 0, xB >> 16, xC >> 16, colorB >> 7, colorC >> 7);
 						xB += slopeBC;
 						xC += slopeCA;
 						colorB += lightSlopeBC;
 						colorC += lightSlopeCA;
-						yC += Graphics2D.targetWidth;
+						yC += ctx.targetWidth;
 					}
 					while (--yB >= 0) {
-						drawShadedScanline(Graphics2D.target, yC, 0, 0, xB >> 16, xA >> 16, colorB >> 7, colorA >> 7);
+						drawShadedScanline(ctx, ctx.target, yC, 0, 0, xB >> 16, xA >> 16, colorB >> 7, colorA >> 7);
 						xB += slopeBC;
 						xA += slopeAB;
 						colorB += lightSlopeBC;
 						colorA += lightSlopeAB;
-						yC += Graphics2D.targetWidth;
+						yC += ctx.targetWidth;
 					}
 				} else {
 					yB -= yA;
 					yA -= yC;
 					yC = offsets[yC];
 					while (--yA >= 0) {
-						drawShadedScanline(Graphics2D.target, yC, 0, 0, xC >> 16, xB >> 16, colorC >> 7, colorB >> 7);
+						drawShadedScanline(ctx, ctx.target, yC, 0, 0, xC >> 16, xB >> 16, colorC >> 7, colorB >> 7);
 						xB += slopeBC;
 						xC += slopeCA;
 						colorB += lightSlopeBC;
 						colorC += lightSlopeCA;
-						yC += Graphics2D.targetWidth;
+						yC += ctx.targetWidth;
 					}
 					while (--yB >= 0) {
-						drawShadedScanline(Graphics2D.target, yC, 0, 0, xA >> 16, xB >> 16, colorA >> 7, colorB >> 7);
+						drawShadedScanline(ctx, ctx.target, yC, 0, 0, xA >> 16, xB >> 16, colorA >> 7, colorB >> 7);
 						xB += slopeBC;
 						xA += slopeAB;
 						colorB += lightSlopeBC;
 						colorA += lightSlopeAB;
-						yC += Graphics2D.targetWidth;
+						yC += ctx.targetWidth;
 					}
 				}
 			} else {
@@ -1403,40 +1336,40 @@ public class Graphics3D {
 					yB -= yC;
 					yC = offsets[yC];
 					while (--yB >= 0) {
-						drawShadedScanline(Graphics2D.target, yC, 0, 0, xA >> 16, xC >> 16, colorA >> 7, colorC >> 7);
+						drawShadedScanline(ctx, ctx.target, yC, 0, 0, xA >> 16, xC >> 16, colorA >> 7, colorC >> 7);
 						xA += slopeBC;
 						xC += slopeCA;
 						colorA += lightSlopeBC;
 						colorC += lightSlopeCA;
-						yC += Graphics2D.targetWidth;
+						yC += ctx.targetWidth;
 					}
 					while (--yA >= 0) {
-						drawShadedScanline(Graphics2D.target, yC, 0, 0, xB >> 16, xC >> 16, colorB >> 7, colorC >> 7);
+						drawShadedScanline(ctx, ctx.target, yC, 0, 0, xB >> 16, xC >> 16, colorB >> 7, colorC >> 7);
 						xB += slopeAB;
 						xC += slopeCA;
 						colorB += lightSlopeAB;
 						colorC += lightSlopeCA;
-						yC += Graphics2D.targetWidth;
+						yC += ctx.targetWidth;
 					}
 				} else {
 					yA -= yB;
 					yB -= yC;
 					yC = offsets[yC];
 					while (--yB >= 0) {
-						drawShadedScanline(Graphics2D.target, yC, 0, 0, xC >> 16, xA >> 16, colorC >> 7, colorA >> 7);
+						drawShadedScanline(ctx, ctx.target, yC, 0, 0, xC >> 16, xA >> 16, colorC >> 7, colorA >> 7);
 						xA += slopeBC;
 						xC += slopeCA;
 						colorA += lightSlopeBC;
 						colorC += lightSlopeCA;
-						yC += Graphics2D.targetWidth;
+						yC += ctx.targetWidth;
 					}
 					while (--yA >= 0) {
-						drawShadedScanline(Graphics2D.target, yC, 0, 0, xC >> 16, xB >> 16, colorC >> 7, colorB >> 7);
+						drawShadedScanline(ctx, ctx.target, yC, 0, 0, xC >> 16, xB >> 16, colorC >> 7, colorB >> 7);
 						xB += slopeAB;
 						xC += slopeCA;
 						colorB += lightSlopeAB;
 						colorC += lightSlopeCA;
-						yC += Graphics2D.targetWidth;
+						yC += ctx.targetWidth;
 					}
 				}
 			}
@@ -1456,10 +1389,30 @@ public class Graphics3D {
 	 * @param colorB the end color. (24.8)
 	 */
 	public static final void drawShadedScanline(int[] dst, int off, int rgb, int length, int xA, int xB, int colorA, int colorB) {
-		if (texturedShading) {
+		drawShadedScanline(RenderContext.DEFAULT, dst, off, rgb, length, xA, xB, colorA, colorB);
+	}
+
+	/**
+	 * Draws a scanline and linearly translates the lightness.
+	 *
+	 * @param ctx the context to draw into.
+	 * @param dst the destination.
+	 * @param off the initial offset.
+	 * @param rgb the INT24_RGB.
+	 * @param length the length.
+	 * @param xA the start x.
+	 * @param xB the end x.
+	 * @param colorA the start color. (24.8)
+	 * @param colorB the end color. (24.8)
+	 */
+	public static final void drawShadedScanline(RenderContext ctx, int[] dst, int off, int rgb, int length, int xA, int xB, int colorA, int colorB) {
+		final int[] palette = ctx.palette;
+		final int alpha = ctx.alpha;
+
+		if (ctx.texturedShading) {
 			int lightnessSlope;
 
-			if (testX) {
+			if (ctx.testX) {
 				if (xB - xA > 3) {
 					// notice no fixed point transformations here?
 					// that's because they're still fixed points!
@@ -1469,8 +1422,8 @@ public class Graphics3D {
 					lightnessSlope = 0;
 				}
 
-				if (xB > Graphics2D.rightX) {
-					xB = Graphics2D.rightX;
+				if (xB > ctx.rightX) {
+					xB = ctx.rightX;
 				}
 
 				// clip off screen part and recalculate initial color
@@ -1552,9 +1505,9 @@ public class Graphics3D {
 		} else if (xA < xB) {
 			int lightnessSlope = (colorB - colorA) / (xB - xA);
 
-			if (testX) {
-				if (xB > Graphics2D.rightX) {
-					xB = Graphics2D.rightX;
+			if (ctx.testX) {
+				if (xB > ctx.rightX) {
+					xB = ctx.rightX;
 				}
 
 				if (xA < 0) {
@@ -1609,6 +1562,38 @@ public class Graphics3D {
 	 * @param colorC third point color in HSL format.
 	 */
 	public static final void fillShadedTriangleDepth(int xA, int yA, int zA, int xB, int yB, int zB, int xC, int yC, int zC, int colorA, int colorB, int colorC) {
+		fillShadedTriangleDepth(RenderContext.DEFAULT, xA, yA, zA, xB, yB, zB, xC, yC, zC, colorA, colorB, colorC);
+	}
+
+	/**
+	 * Fills a triangle using the gouraud shading technique.<p>
+	 * <b>Warning:</b>
+	 * Only interpolates the <i>lightness</i> channel of the provided colors for each point. That means you cannot
+	 * select a different hue or saturation between points!</p>
+	 *
+	 * @param ctx the context to draw into.
+	 * @param xA first point x
+	 * @param yA first point y
+	 * @param zA first point depth
+	 * @param xB second point x
+	 * @param yB second point y
+	 * @param zB second point depth
+	 * @param xC third point x
+	 * @param yC third point y
+	 * @param zC third point depth
+	 * @param colorA first point color in HSL format.
+	 * @param colorB second point color in HSL format.
+	 * @param colorC third point color in HSL format.
+	 */
+	public static final void fillShadedTriangleDepth(RenderContext ctx, int xA, int yA, int zA, int xB, int yB, int zB, int xC, int yC, int zC, int colorA, int colorB, int colorC) {
+		final int[] offsets = ctx.offsets;
+
+		// translucent shaded scanlines skip the depth test, so they can't be hidden
+		if (ctx.coarseDepth != null && ctx.alpha == 0 && isOccluded(ctx, xA, yA, zA, xB, yB, zB, xC, yC, zC)) {
+			ctx.rejectedTriangleCount++;
+			return;
+		}
+
 		int slopeAB = 0;
 		int slopeBC = 0;
 		int slopeCA = 0;
@@ -1640,16 +1625,16 @@ public class Graphics3D {
 		}
 
 		if (yA <= yB && yA <= yC) {
-			if (yA >= Graphics2D.bottom) {
+			if (yA >= ctx.bottom) {
 				return;
 			}
 
-			if (yB > Graphics2D.bottom) {
-				yB = Graphics2D.bottom;
+			if (yB > ctx.bottom) {
+				yB = ctx.bottom;
 			}
 
-			if (yC > Graphics2D.bottom) {
-				yC = Graphics2D.bottom;
+			if (yC > ctx.bottom) {
+				yC = ctx.bottom;
 			}
 
 			if (yB < yC) {
@@ -1693,7 +1678,7 @@ public class Graphics3D {
 
 					// while we have a vertical gap between A and B
 					while (--yB >= 0) {
-						drawShadedScanlineDepth(Graphics2D.target, yA, 0, 0, xC >> 16, xA >> 16, zC, zA, colorC >> 7, colorA >> 7);
+						drawShadedScanlineDepth(ctx, ctx.target, yA, 0, 0, xC >> 16, xA >> 16, zC, zA, colorC >> 7, colorA >> 7);
 
 						xC += slopeCA;
 						colorC += lightSlopeCA;
@@ -1704,12 +1689,12 @@ public class Graphics3D {
 						zA += zSlopeAB;
 
 						// move yA down a row of pixels.
-						yA += Graphics2D.targetWidth;
+						yA += ctx.targetWidth;
 					}
 
 					// while we have a vertical gap between B and C
 					while (--yC >= 0) {
-						drawShadedScanlineDepth(Graphics2D.target, yA, 0, 0, xC >> 16, xB >> 16, zC, zB, colorC >> 7, colorB >> 7);
+						drawShadedScanlineDepth(ctx, ctx.target, yA, 0, 0, xC >> 16, xB >> 16, zC, zB, colorC >> 7, colorB >> 7);
 
 						xC += slopeCA;
 						colorC += lightSlopeCA;
@@ -1719,7 +1704,7 @@ public class Graphics3D {
 						colorB += lightSlopeBC;
 						zB += zSlopeBC;
 
-						yA += Graphics2D.targetWidth;
+						yA += ctx.targetWidth;
 					}
 				} else {
 					yC -= yB;
@@ -1727,7 +1712,7 @@ public class Graphics3D {
 					yA = offsets[yA];
 
 					while (--yB >= 0) {
-						drawShadedScanlineDepth(Graphics2D.target, yA, 0, 0, xA >> 16, xC >> 16, zA, zC, colorA >> 7, colorC >> 7);
+						drawShadedScanlineDepth(ctx, ctx.target, yA, 0, 0, xA >> 16, xC >> 16, zA, zC, colorA >> 7, colorC >> 7);
 
 						xA += slopeAB;
 						colorA += lightSlopeAB;
@@ -1737,11 +1722,11 @@ public class Graphics3D {
 						colorC += lightSlopeCA;
 						zC += zSlopeCA;
 
-						yA += Graphics2D.targetWidth;
+						yA += ctx.targetWidth;
 					}
 
 					while (--yC >= 0) {
-						drawShadedScanlineDepth(Graphics2D.target, yA, 0, 0, xB >> 16, xC >> 16, zB, zC, colorB >> 7, colorC >> 7);
+						drawShadedScanlineDepth(ctx, ctx.target, yA, 0, 0, xB >> 16, xC >> 16, zB, zC, colorB >> 7, colorC >> 7);
 
 						xB += slopeBC;
 						colorB += lightSlopeBC;
@@ -1751,7 +1736,7 @@ public class Graphics3D {
 						colorC += lightSlopeCA;
 						zC += zSlopeCA;
 
-						yA += Graphics2D.targetWidth;
+						yA += ctx.targetWidth;
 					}
 				}
 			} else {
@@ -1789,7 +1774,7 @@ public class Graphics3D {
 					yA = offsets[yA];
 
 					while (--yC >= 0) {
-						drawShadedScanlineDepth(Graphics2D.target, yA, 0, 0, xB >> 16, xA >> 16, zB, zA, colorB >> 7, colorA >> 7);
+						drawShadedScanlineDepth(ctx, ctx.target, yA, 0, 0, xB >> 16, xA >> 16, zB, zA, colorB >> 7, colorA >> 7);
 
 						xB += slopeCA;
 						colorB += lightSlopeCA;
@@ -1799,11 +1784,11 @@ public class Graphics3D {
 						colorA += lightSlopeAB;
 						zA += zSlopeAB;
 
-						yA += Graphics2D.targetWidth;
+						yA += ctx.targetWidth;
 					}
 
 					while (--yB >= 0) {
-						drawShadedScanlineDepth(Graphics2D.target, yA, 0, 0, xC >> 16, xA >> 16, zC, zA, colorC >> 7, colorA >> 7);
+						drawShadedScanlineDepth(ctx, ctx.target, yA, 0, 0, xC >> 16, xA >> 16, zC, zA, colorC >> 7, colorA >> 7);
 
 						xC += slopeBC;
 						colorC += lightSlopeBC;
@@ -1811,7 +1796,7 @@ public class Graphics3D {
 
 						xA += slopeAB;
 						colorA += lightSlopeAB;
-						yA += Graphics2D.targetWidth;
+						yA += ctx.targetWidth;
 					}
 				} else {
 					yB -= yC;
@@ -1819,7 +1804,7 @@ public class Graphics3D {
 					yA = offsets[yA];
 
 					while (--yC >= 0) {
-						drawShadedScanlineDepth(Graphics2D.target, yA, 0, 0, xA >> 16, xB >> 16, zA, zB, colorA >> 7, colorB >> 7);
+						drawShadedScanlineDepth(ctx, ctx.target, yA, 0, 0, xA >> 16, xB >> 16, zA, zB, colorA >> 7, colorB >> 7);
 
 						xA += slopeAB;
 						colorA += lightSlopeAB;
@@ -1829,11 +1814,11 @@ public class Graphics3D {
 						colorB += lightSlopeCA;
 						zB += zSlopeCA;
 
-						yA += Graphics2D.targetWidth;
+						yA += ctx.targetWidth;
 					}
 
 					while (--yB >= 0) {
-						drawShadedScanlineDepth(Graphics2D.target, yA, 0, 0, xA >> 16, xC >> 16, zA, zC, colorA >> 7, colorC >> 7);
+						drawShadedScanlineDepth(ctx, ctx.target, yA, 0, 0, xA >> 16, xC >> 16, zA, zC, colorA >> 7, colorC >> 7);
 
 						xA += slopeAB;
 						colorA += lightSlopeAB;
@@ -1843,18 +1828,18 @@ public class Graphics3D {
 						colorC += lightSlopeBC;
 						zC += zSlopeBC;
 
-						yA += Graphics2D.targetWidth;
+						yA += ctx.targetWidth;
 					}
 				}
 			}
 		} else if (yB <= yC) {
-			if (yB < Graphics2D.bottom) {
-				if (yC > Graphics2D.bottom) {
-					yC = Graphics2D.bottom;
+			if (yB < ctx.bottom) {
+				if (yC > ctx.bottom) {
+					yC = ctx.bottom;
 				}
 
-				if (yA > Graphics2D.bottom) {
-					yA = Graphics2D.bottom;
+				if (yA > ctx.bottom) {
+					yA = ctx.bottom;
 				}
 
 				if (yC < yA) {
@@ -1893,7 +1878,7 @@ public class Graphics3D {
 						yB = offsets[yB];
 
 						while (--yC >= 0) {
-							drawShadedScanlineDepth(Graphics2D.target, yB, 0, 0, xA >> 16, xB >> 16, zA, zB, colorA >> 7, colorB >> 7);
+							drawShadedScanlineDepth(ctx, ctx.target, yB, 0, 0, xA >> 16, xB >> 16, zA, zB, colorA >> 7, colorB >> 7);
 
 							xA += slopeAB;
 							colorA += lightSlopeAB;
@@ -1903,11 +1888,11 @@ public class Graphics3D {
 							colorB += lightSlopeBC;
 							zB += zSlopeBC;
 
-							yB += Graphics2D.targetWidth;
+							yB += ctx.targetWidth;
 						}
 
 						while (--yA >= 0) {
-							drawShadedScanlineDepth(Graphics2D.target, yB, 0, 0, xA >> 16, xC >> 16, zA, zC, colorA >> 7, colorC >> 7);
+							drawShadedScanlineDepth(ctx, ctx.target, yB, 0, 0, xA >> 16, xC >> 16, zA, zC, colorA >> 7, colorC >> 7);
 
 							xA += slopeAB;
 							colorA += lightSlopeAB;
@@ -1917,7 +1902,7 @@ public class Graphics3D {
 							colorC += lightSlopeCA;
 							zC += zSlopeCA;
 
-							yB += Graphics2D.targetWidth;
+							yB += ctx.targetWidth;
 						}
 					} else {
 						yA -= yC;
@@ -1926,7 +1911,7 @@ public class Graphics3D {
 						yB = offsets[yB];
 
 						while (--yC >= 0) {
-							drawShadedScanlineDepth(Graphics2D.target, yB, 0, 0, xB >> 16, xA >> 16, zB, zA, colorB >> 7, colorA >> 7);
+							drawShadedScanlineDepth(ctx, ctx.target, yB, 0, 0, xB >> 16, xA >> 16, zB, zA, colorB >> 7, colorA >> 7);
 
 							xA += slopeAB;
 							colorA += lightSlopeAB;
@@ -1936,11 +1921,11 @@ public class Graphics3D {
 							colorB += lightSlopeBC;
 							zB += zSlopeBC;
 
-							yB += Graphics2D.targetWidth;
+							yB += ctx.targetWidth;
 						}
 
 						while (--yA >= 0) {
-							drawShadedScanlineDepth(Graphics2D.target, yB, 0, 0, xC >> 16, xA >> 16, zC, zA, colorC >> 7, colorA >> 7);
+							drawShadedScanlineDepth(ctx, ctx.target, yB, 0, 0, xC >> 16, xA >> 16, zC, zA, colorC >> 7, colorA >> 7);
 
 							xA += slopeAB;
 							colorA += lightSlopeAB;
@@ -1950,7 +1935,7 @@ public class Graphics3D {
 							colorC += lightSlopeCA;
 							zC += zSlopeCA;
 
-							yB += Graphics2D.targetWidth;
+							yB += ctx.targetWidth;
 						}
 					}
 				} else {
@@ -1987,7 +1972,7 @@ public class Graphics3D {
 						yB = offsets[yB];
 
 						while (--yA >= 0) {
-							drawShadedScanlineDepth(Graphics2D.target, yB, 0, 0, xC >> 16, xB >> 16, zC, zB, colorC >> 7, colorB >> 7);
+							drawShadedScanlineDepth(ctx, ctx.target, yB, 0, 0, xC >> 16, xB >> 16, zC, zB, colorC >> 7, colorB >> 7);
 
 							xC += slopeAB;
 							colorC += lightSlopeAB;
@@ -1997,11 +1982,11 @@ public class Graphics3D {
 							colorB += lightSlopeBC;
 							zB += zSlopeBC;
 
-							yB += Graphics2D.targetWidth;
+							yB += ctx.targetWidth;
 						}
 
 						while (--yC >= 0) {
-							drawShadedScanlineDepth(Graphics2D.target, yB, 0, 0, xA >> 16, xB >> 16, zA, zB, colorA >> 7, colorB >> 7);
+							drawShadedScanlineDepth(ctx, ctx.target, yB, 0, 0, xA >> 16, xB >> 16, zA, zB, colorA >> 7, colorB >> 7);
 
 							xA += slopeCA;
 							colorA += lightSlopeCA;
@@ -2011,7 +1996,7 @@ public class Graphics3D {
 							colorB += lightSlopeBC;
 							zB += zSlopeBC;
 
-							yB += Graphics2D.targetWidth;
+							yB += ctx.targetWidth;
 						}
 					} else {
 						yC -= yA;
@@ -2020,7 +2005,7 @@ public class Graphics3D {
 						yB = offsets[yB];
 
 						while (--yA >= 0) {
-							drawShadedScanlineDepth(Graphics2D.target, yB, 0, 0, xB >> 16, xC >> 16, zB, zC, colorB >> 7, colorC >> 7);
+							drawShadedScanlineDepth(ctx, ctx.target, yB, 0, 0, xB >> 16, xC >> 16, zB, zC, colorB >> 7, colorC >> 7);
 
 							xC += slopeAB;
 							colorC += lightSlopeAB;
@@ -2030,11 +2015,11 @@ public class Graphics3D {
 							colorB += lightSlopeBC;
 							zB += zSlopeBC;
 
-							yB += Graphics2D.targetWidth;
+							yB += ctx.targetWidth;
 						}
 
 						while (--yC >= 0) {
-							drawShadedScanlineDepth(Graphics2D.target, yB, 0, 0, xB >> 16, xA >> 16, zB, zA, colorB >> 7, colorA >> 7);
+							drawShadedScanlineDepth(ctx, ctx.target, yB, 0, 0, xB >> 16, xA >> 16, zB, zA, colorB >> 7, colorA >> 7);
 
 							xA += slopeCA;
 							colorA += lightSlopeCA;
@@ -2044,18 +2029,18 @@ public class Graphics3D {
 							colorB += lightSlopeBC;
 							zB += zSlopeBC;
 
-							yB += Graphics2D.targetWidth;
+							yB += ctx.targetWidth;
 						}
 					}
 				}
 			}
-		} else if (yC < Graphics2D.bottom) {
-			if (yA > Graphics2D.bottom) {
-				yA = Graphics2D.bottom;
+		} else if (yC < ctx.bottom) {
+			if (yA > ctx.bottom) {
+				yA = ctx.bottom;
 			}
 
-			if (yB > Graphics2D.bottom) {
-				yB = Graphics2D.bottom;
+			if (yB > ctx.bottom) {
+				yB = ctx.bottom;
 			}
 
 			if (yA < yB) {
@@ -2093,7 +2078,7 @@ public class Graphics3D {
 					yC = offsets[yC];
 
 					while (--yA >= 0) {
-						drawShadedScanlineDepth(Graphics2D.target, yC, 0, 0, xB >> 16, xC >> 16, zB, zC, colorB >> 7, colorC >> 7);
+						drawShadedScanlineDepth(ctx, ctx.target, yC, 0, 0, xB >> 16, xC >> 16, zB, zC, colorB >> 7, colorC >> 7);
 
 						xB += slopeBC;
 						colorB += lightSlopeBC;
@@ -2103,11 +2088,11 @@ public class Graphics3D {
 						colorC += lightSlopeCA;
 						zC += zSlopeCA;
 
-						yC += Graphics2D.targetWidth;
+						yC += ctx.targetWidth;
 					}
 
 					while (--yB >= 0) {
-						drawShadedScanlineDepth(Graphics2D.target, yC, 0, 0, xB >> 16, xA >> 16, zB, zA, colorB >> 7, colorA >> 7);
+						drawShadedScanlineDepth(ctx, ctx.target, yC, 0, 0, xB >> 16, xA >> 16, zB, zA, colorB >> 7, colorA >> 7);
 
 						xB += slopeBC;
 						colorB += lightSlopeBC;
@@ -2117,7 +2102,7 @@ public class Graphics3D {
 						colorA += lightSlopeAB;
 						zA += zSlopeAB;
 
-						yC += Graphics2D.targetWidth;
+						yC += ctx.targetWidth;
 					}
 				} else {
 					yB -= yA;
@@ -2126,7 +2111,7 @@ public class Graphics3D {
 					yC = offsets[yC];
 
 					while (--yA >= 0) {
-						drawShadedScanlineDepth(Graphics2D.target, yC, 0, 0, xC >> 16, xB >> 16, zC, zB, colorC >> 7, colorB >> 7);
+						drawShadedScanlineDepth(ctx, ctx.target, yC, 0, 0, xC >> 16, xB >> 16, zC, zB, colorC >> 7, colorB >> 7);
 
 						xC += slopeCA;
 						colorC += lightSlopeCA;
@@ -2136,11 +2121,11 @@ public class Graphics3D {
 						colorB += lightSlopeBC;
 						zB += zSlopeBC;
 
-						yC += Graphics2D.targetWidth;
+						yC += ctx.targetWidth;
 					}
 
 					while (--yB >= 0) {
-						drawShadedScanlineDepth(Graphics2D.target, yC, 0, 0, xA >> 16, xB >> 16, zA, zB, colorA >> 7, colorB >> 7);
+						drawShadedScanlineDepth(ctx, ctx.target, yC, 0, 0, xA >> 16, xB >> 16, zA, zB, colorA >> 7, colorB >> 7);
 
 						xA += slopeAB;
 						colorA += lightSlopeAB;
@@ -2150,7 +2135,7 @@ public class Graphics3D {
 						colorB += lightSlopeBC;
 						zB += zSlopeBC;
 
-						yC += Graphics2D.targetWidth;
+						yC += ctx.targetWidth;
 					}
 				}
 			} else {
@@ -2189,7 +2174,7 @@ public class Graphics3D {
 					yC = offsets[yC];
 
 					while (--yB >= 0) {
-						drawShadedScanlineDepth(Graphics2D.target, yC, 0, 0, xA >> 16, xC >> 16, zA, zC, colorA >> 7, colorC >> 7);
+						drawShadedScanlineDepth(ctx, ctx.target, yC, 0, 0, xA >> 16, xC >> 16, zA, zC, colorA >> 7, colorC >> 7);
 
 						xA += slopeBC;
 						colorA += lightSlopeBC;
@@ -2199,11 +2184,11 @@ public class Graphics3D {
 						colorC += lightSlopeCA;
 						zC += zSlopeCA;
 
-						yC += Graphics2D.targetWidth;
+						yC += ctx.targetWidth;
 					}
 
 					while (--yA >= 0) {
-						drawShadedScanlineDepth(Graphics2D.target, yC, 0, 0, xB >> 16, xC >> 16, zB, zC, colorB >> 7, colorC >> 7);
+						drawShadedScanlineDepth(ctx, ctx.target, yC, 0, 0, xB >> 16, xC >> 16, zB, zC, colorB >> 7, colorC >> 7);
 
 						xB += slopeAB;
 						colorB += lightSlopeAB;
@@ -2213,7 +2198,7 @@ public class Graphics3D {
 						colorC += lightSlopeCA;
 						zC += zSlopeCA;
 
-						yC += Graphics2D.targetWidth;
+						yC += ctx.targetWidth;
 					}
 				} else {
 					yA -= yB;
@@ -2222,7 +2207,7 @@ public class Graphics3D {
 					yC = offsets[yC];
 
 					while (--yB >= 0) {
-						drawShadedScanlineDepth(Graphics2D.target, yC, 0, 0, xC >> 16, xA >> 16, zC, zA, colorC >> 7, colorA >> 7);
+						drawShadedScanlineDepth(ctx, ctx.target, yC, 0, 0, xC >> 16, xA >> 16, zC, zA, colorC >> 7, colorA >> 7);
 
 						xC += slopeCA;
 						colorC += lightSlopeCA;
@@ -2232,11 +2217,11 @@ public class Graphics3D {
 						colorA += lightSlopeBC;
 						zA += zSlopeBC;
 
-						yC += Graphics2D.targetWidth;
+						yC += ctx.targetWidth;
 					}
 
 					while (--yA >= 0) {
-						drawShadedScanlineDepth(Graphics2D.target, yC, 0, 0, xC >> 16, xB >> 16, zC, zB, colorC >> 7, colorB >> 7);
+						drawShadedScanlineDepth(ctx, ctx.target, yC, 0, 0, xC >> 16, xB >> 16, zC, zB, colorC >> 7, colorB >> 7);
 
 						xC += slopeCA;
 						colorC += lightSlopeCA;
@@ -2246,7 +2231,7 @@ public class Graphics3D {
 						colorB += lightSlopeAB;
 						zB += zSlopeAB;
 
-						yC += Graphics2D.targetWidth;
+						yC += ctx.targetWidth;
 					}
 				}
 			}
@@ -2268,11 +2253,39 @@ public class Graphics3D {
 	 * @param colorB the end color. (24.8)
 	 */
 	public static final void drawShadedScanlineDepth(int[] dst, int off, int rgb, int length, int xA, int xB, int zA, int zB, int colorA, int colorB) {
-		if (texturedShading) {
+		drawShadedScanlineDepth(RenderContext.DEFAULT, dst, off, rgb, length, xA, xB, zA, zB, colorA, colorB);
+	}
+
+	/**
+	 * Draws a scanline and linearly translates the lightness.
+	 *
+	 * @param ctx the context to draw into.
+	 * @param dst the destination.
+	 * @param off the initial offset.
+	 * @param rgb the INT24_RGB.
+	 * @param length the length.
+	 * @param xA the start x.
+	 * @param xB the end x.
+	 * @param zA the start depth.
+	 * @param zB the end depth.
+	 * @param colorA the start color. (24.8)
+	 * @param colorB the end color. (24.8)
+	 */
+	public static final void drawShadedScanlineDepth(RenderContext ctx, int[] dst, int off, int rgb, int length, int xA, int xB, int zA, int zB, int colorA, int colorB) {
+		final int[] palette = ctx.palette;
+		final int[] depthBuffer = ctx.depthBuffer;
+		final int alpha = ctx.alpha;
+
+		// rows above a tile are stepped over by the triangle setup, but not drawn
+		if (off < ctx.topOffset) {
+			return;
+		}
+
+		if (ctx.texturedShading) {
 			int lightnessSlope;
 			int zSlope;
 
-			if (testX) {
+			if (ctx.testX) {
 				if (xB - xA > 3) {
 					lightnessSlope = (colorB - colorA) / (xB - xA);
 					zSlope = (zB - zA) / (xB - xA);
@@ -2281,8 +2294,8 @@ public class Graphics3D {
 					zSlope = 0;
 				}
 
-				if (xB > Graphics2D.rightX) {
-					xB = Graphics2D.rightX;
+				if (xB > ctx.rightX) {
+					xB = ctx.rightX;
 				}
 
 				// clip off screen part and recalculate initial color
@@ -2319,22 +2332,28 @@ public class Graphics3D {
 				}
 			}
 
-			if (alpha == 0) {
-				while (--length >= 0) {
-					rgb = palette[colorA >> 8];
-					colorA += lightnessSlope;
-					zA += zSlope;
+			int tail = xB - xA & 0x3;
+			ctx.rasterizedPixelCount += (length << 2) + tail;
 
-					for (int i = 0; i < 4; i++) {
-						if (zA <= depthBuffer[off]) {
-							dst[off] = rgb;
-							depthBuffer[off] = zA;
-						}
-						off++;
-					}
+			if (alpha == 0 && ctx.coarseDepth != null && (length << 2) + tail >= CoarseDepthBuffer.TILE_SIZE) {
+				// the blocks are drawn at steps 1 to length and the tail carries on from length, all along one line
+				int last = tail > 0 ? length + tail - 1 : length;
+
+				if (ctx.coarseDepth.isSpanHidden(off, (length << 2) + tail, zA + (zSlope < 0 ? last : 1) * zSlope)) {
+					ctx.rejectedSpanCount++;
+					return;
 				}
+			}
 
-				length = xB - xA & 0x3;
+			if (alpha == 0) {
+				if (length > 0) {
+					ctx.scanlines.fillShadedDepth(dst, depthBuffer, palette, off, length, colorA, lightnessSlope, zA, zSlope);
+					colorA += lightnessSlope * length;
+					zA += zSlope * length;
+					off += length << 2;
+				}
+
+				length = tail;
 
 				if (length > 0) {
 					rgb = palette[colorA >> 8];
@@ -2352,22 +2371,10 @@ public class Graphics3D {
 				int a0 = alpha;
 				int a1 = 256 - alpha;
 
-				while (--length >= 0) {
-					rgb = palette[colorA >> 8];
-					colorA += lightnessSlope;
-					rgb = (((rgb & 0xFF00FF) * a1 >> 8 & 0xFF00FF) + ((rgb & 0xFF00) * a1 >> 8 & 0xFF00));
-
-					dst[off] = (rgb + ((dst[off] & 0xFF00FF) * a0 >> 8 & 0xFF00FF) + ((dst[off] & 0xFF00) * a0 >> 8 & 0xFF00));
-					off++;
-
-					dst[off] = (rgb + ((dst[off] & 0xFF00FF) * a0 >> 8 & 0xFF00FF) + ((dst[off] & 0xFF00) * a0 >> 8 & 0xFF00));
-					off++;
-
-					dst[off] = (rgb + ((dst[off] & 0xFF00FF) * a0 >> 8 & 0xFF00FF) + ((dst[off] & 0xFF00) * a0 >> 8 & 0xFF00));
-					off++;
-
-					dst[off] = (rgb + ((dst[off] & 0xFF00FF) * a0 >> 8 & 0xFF00FF) + ((dst[off] & 0xFF00) * a0 >> 8 & 0xFF00));
-					off++;
+				if (length > 0) {
+					ctx.scanlines.blendShaded(dst, palette, off, length, colorA, lightnessSlope, alpha);
+					colorA += lightnessSlope * length;
+					off += length << 2;
 				}
 
 				length = xB - xA & 0x3;
@@ -2385,9 +2392,9 @@ public class Graphics3D {
 			int lightnessSlope = (colorB - colorA) / (xB - xA);
 			int zSlope = (zB - zA) / (xB - xA);
 
-			if (testX) {
-				if (xB > Graphics2D.rightX) {
-					xB = Graphics2D.rightX;
+			if (ctx.testX) {
+				if (xB > ctx.rightX) {
+					xB = ctx.rightX;
 				}
 
 				if (xA < 0) {
@@ -2403,6 +2410,12 @@ public class Graphics3D {
 
 			off += xA;
 			length = xB - xA;
+			ctx.rasterizedPixelCount += length;
+
+			if (alpha == 0 && ctx.coarseDepth != null && length >= CoarseDepthBuffer.TILE_SIZE && ctx.coarseDepth.isSpanHidden(off, length, zSlope < 0 ? zA + (length - 1) * zSlope : zA)) {
+				ctx.rejectedSpanCount++;
+				return;
+			}
 
 			if (alpha == 0) {
 				do {
@@ -2428,6 +2441,41 @@ public class Graphics3D {
 		}
 	}
 
+	/**
+	 * Returns whether a triangle is hidden behind everything already drawn in the area it covers, according to the
+	 * coarse depth buffer of the context. If it isn't, the tiles it covers are marked as drawn over.
+	 *
+	 * The scanlines step their depth in fixed point and run up to two steps past the end of a span, so the depth a
+	 * pixel is tested at can land up to twice the triangle's depth range short of its nearest vertex. The triangle is
+	 * tested at that depth, which keeps the output identical to drawing it.
+	 *
+	 * @param ctx the context to test against.
+	 * @return {@code true} if the triangle can be skipped.
+	 */
+	private static boolean isOccluded(RenderContext ctx, int xA, int yA, int zA, int xB, int yB, int zB, int xC, int yC, int zC) {
+		// a tile of the tile rasterizer only looks at its own rows
+		int top = Math.max(Math.min(yA, Math.min(yB, yC)), ctx.topOffset / ctx.targetWidth);
+		int bottom = Math.min(Math.max(yA, Math.max(yB, yC)), ctx.bottom) - 1;
+		int left = Math.max(Math.min(xA, Math.min(xB, xC)), 0);
+		int right = Math.min(Math.max(xA, Math.max(xB, xC)), ctx.rightX);
+
+		if (top > bottom || left > right) {
+			return false;
+		}
+
+		int nearZ = Math.min(zA, Math.min(zB, zC));
+		int farZ = Math.max(zA, Math.max(zB, zC));
+		long z = ((long) nearZ << 16) - ((long) (farZ - nearZ) << 17) - 0x10000 - ((long) (bottom - top) << 3);
+
+		// testing a triangle smaller than a tile costs more than drawing it
+		if ((right - left + 1) * (bottom - top + 1) >= CoarseDepthBuffer.TILE_SIZE * CoarseDepthBuffer.TILE_SIZE && z > Integer.MIN_VALUE && ctx.coarseDepth.isHidden(ctx.depthBuffer, left, top, right, bottom, (int) z)) {
+			return true;
+		}
+
+		ctx.coarseDepth.invalidate(left, top, right, bottom);
+		return false;
+	}
+
 	private Graphics3D() {
 
 	}
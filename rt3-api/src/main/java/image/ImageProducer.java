@@ -85,7 +85,16 @@ public class ImageProducer {
 	 * @see Graphics2D
 	 */
 	public void bind() {
-		Graphics2D.setTarget(this.pixels, this.width, this.height);
+		bind(RenderContext.DEFAULT);
+	}
+
+	/**
+	 * Binds the backing image as the target of the provided context.
+	 *
+	 * @param ctx the context.
+	 */
+	public void bind(RenderContext ctx) {
+		ctx.setTarget(this.pixels, this.width, this.height);
 	}
 
 	/**
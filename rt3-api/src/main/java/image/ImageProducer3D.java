@@ -18,6 +18,10 @@
  */
 package image;
 
+import media.Model;
+
+import java.util.Arrays;
+
 /**
  * A {@code ImageProducer} with easy usability to {@code Graphics3D}. This class encapsulates the offsets and zbuffer
  * values for 3d drawing. {@code bind()} initializes the offsets and zbuffer if they are {@code null}.
@@ -37,6 +41,16 @@ public class ImageProducer3D extends ImageProducer {
 	 */
 	private int[] depthBuffer;
 
+	/**
+	 * The tile rasterizer handed to contexts this is bound to, or {@code null} to draw one triangle at a time.
+	 */
+	private TileRasterizer tiles;
+
+	/**
+	 * The coarse depth buffer handed to contexts this is bound to, or {@code null} to test every pixel.
+	 */
+	private CoarseDepthBuffer coarseDepth;
+
 	/**
 	 * Constructs a new empty 3d image producer.
 	 *
@@ -55,6 +69,43 @@ public class ImageProducer3D extends ImageProducer {
 		return this.depthBuffer;
 	}
 
+	public boolean isTiled() {
+		return this.tiles != null;
+	}
+
+	/**
+	 * Sets whether large models drawn into this producer are binned into tiles and rasterized in parallel. The output
+	 * is identical either way; tiling only pays off for large viewports and models with many triangles.
+	 *
+	 * @param tiled whether to tile.
+	 * @see TileRasterizer
+	 */
+	public void setTiled(boolean tiled) {
+		if (tiled == isTiled()) {
+			return;
+		}
+		this.tiles = tiled ? new TileRasterizer() : null;
+	}
+
+	public boolean isCoarseDepth() {
+		return this.coarseDepth != null;
+	}
+
+	/**
+	 * Sets whether triangles and spans hidden behind what has already been drawn into this producer are rejected
+	 * before their pixels are depth tested. The output is identical either way; it pays off for models which draw
+	 * over themselves a lot.
+	 *
+	 * @param enabled whether to keep a coarse depth buffer.
+	 * @see CoarseDepthBuffer
+	 */
+	public void setCoarseDepth(boolean enabled) {
+		if (enabled == isCoarseDepth()) {
+			return;
+		}
+		this.coarseDepth = enabled ? new CoarseDepthBuffer(this.getWidth(), this.getHeight()) : null;
+	}
+
 	/**
 	 * Binds the backing image as the target to the {@link Graphics2D} class.
 	 *
@@ -62,20 +113,64 @@ public class ImageProducer3D extends ImageProducer {
 	 */
 	@Override
 	public void bind() {
+		bind(RenderContext.DEFAULT);
+	}
+
+	/**
+	 * Binds the backing image, offsets and zbuffer to the provided context.
+	 *
+	 * @param ctx the context.
+	 */
+	@Override
+	public void bind(RenderContext ctx) {
 		// we still need our superclass bind() to set us as the target
-		super.bind();
+		super.bind(ctx);
 
 		// make sure we have our vertical offsets
 		if (this.offsets == null) {
-			this.offsets = Graphics3D.setOffsets();
+			this.offsets = ctx.setOffsets();
 		}
 
 		// and our zbuffer initialized
 		if (this.depthBuffer == null) {
-			this.depthBuffer = Graphics3D.setDepthBuffer();
+			this.depthBuffer = ctx.setDepthBuffer();
+		}
+
+		ctx.offsets = this.offsets;
+		ctx.depthBuffer = this.depthBuffer;
+		ctx.centerX = this.getWidth() / 2;
+		ctx.centerY = this.getHeight() / 2;
+		ctx.tiles = this.tiles;
+		ctx.coarseDepth = this.coarseDepth;
+	}
+
+	/**
+	 * Fills the pixels with the provided color and clears the depth buffer, creating the offsets and depth buffer
+	 * first if this has never been bound. Resetting a producer costs a fill rather than the allocations of a new one,
+	 * which is how {@link FramebufferPool} recycles them.
+	 *
+	 * @param rgb the clear color. (INT24_RGB)
+	 */
+	public void reset(int rgb) {
+		int width = this.getWidth();
+		int height = this.getHeight();
+
+		if (this.offsets == null) {
+			this.offsets = new int[height];
+			for (int y = 0; y < height; y++) {
+				this.offsets[y] = width * y;
+			}
+		}
+
+		if (this.depthBuffer == null) {
+			this.depthBuffer = new int[width * height];
 		}
 
-		Graphics3D.offsets = this.offsets;
-		Graphics3D.depthBuffer = this.depthBuffer;
+		Arrays.fill(this.getPixels(), rgb);
+		Arrays.fill(this.depthBuffer, Model.FAR_Z_1616);
+
+		if (this.coarseDepth != null) {
+			this.coarseDepth.clear();
+		}
 	}
 }
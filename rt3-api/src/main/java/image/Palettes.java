@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2015 Dane.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package image;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A registry of HSL to RGB lookup tables, built once per brightness exponent and shared by every
+ * {@link RenderContext}. The returned arrays are shared and must be treated as read only.
+ */
+public final class Palettes {
+
+	/**
+	 * The brightness used for inventory icons.
+	 */
+	public static final double DEFAULT_BRIGHTNESS = 0.7;
+
+	/**
+	 * The palettes which have been built so far, keyed by exponent.
+	 */
+	private static final Map<Double, int[]> palettes = new ConcurrentHashMap<>();
+
+	/**
+	 * The HSL to RGB table before any brightness is applied. It doesn't depend on the exponent so it's only built
+	 * once.
+	 */
+	private static int[] base;
+
+	/**
+	 * Returns the palette for the provided brightness, building it on first use.
+	 *
+	 * @param exponent the brightness on a 0.0 to 1.0 scale.
+	 * @return the shared palette.
+	 */
+	public static int[] get(double exponent) {
+		return palettes.computeIfAbsent(exponent, Palettes::create);
+	}
+
+	/**
+	 * Builds a new palette for the provided brightness without consulting the registry.
+	 *
+	 * @param exponent the brightness on a 0.0 to 1.0 scale.
+	 * @return the palette.
+	 */
+	public static int[] create(double exponent) {
+		int[] base = getBase();
+
+		// (rgb >> 16) can reach 257 when the lower channels carry over, which Graphics3D.setBrightness also handles
+		int[] gamma = new int[258];
+		for (int i = 0; i < gamma.length; i++) {
+			gamma[i] = (int) (Math.pow((double) i / 256.0, exponent) * 256.0);
+		}
+
+		int[] palette = new int[base.length];
+		for (int i = 0; i < base.length; i++) {
+			int rgb = base[i];
+			palette[i] = (gamma[rgb >> 16] << 16) + (gamma[rgb >> 8 & 0xff] << 8) + gamma[rgb & 0xff];
+		}
+		return palette;
+	}
+
+	/**
+	 * Returns the HSL to RGB table, building it on first use.
+	 *
+	 * @return the table.
+	 */
+	private static synchronized int[] getBase() {
+		if (base != null) {
+			return base;
+		}
+
+		int[] table = new int[128 * 512];
+		int off = 0;
+
+		for (int y = 0; y < 512; y++) {
+			double hue = (double) (y / 8) / 64.0 + 0.0078125;
+			double saturation = (double) (y & 0x7) / 8.0 + 0.0625;
+
+			for (int x = 0; x < 128; x++) {
+				double lightness = (double) x / 128.0;
+				double r = lightness;
+				double g = lightness;
+				double b = lightness;
+
+				if (saturation != 0.0) {
+					double d_36_;
+
+					if (lightness < 0.5) {
+						d_36_ = lightness * (1.0 + saturation);
+					} else {
+						d_36_ = lightness + saturation - lightness * saturation;
+					}
+
+					double d_37_ = 2.0 * lightness - d_36_;
+					double d_38_ = hue + 0.3333333333333333;
+
+					if (d_38_ > 1.0) {
+						d_38_--;
+					}
+
+					double d_39_ = hue;
+					double d_40_ = hue - 0.3333333333333333;
+
+					if (d_40_ < 0.0) {
+						d_40_++;
+					}
+
+					if (6.0 * d_38_ < 1.0) {
+						r = d_37_ + (d_36_ - d_37_) * 6.0 * d_38_;
+					} else if (2.0 * d_38_ < 1.0) {
+						r = d_36_;
+					} else if (3.0 * d_38_ < 2.0) {
+						r = d_37_ + (d_36_ - d_37_) * (0.6666666666666666 - d_38_) * 6.0;
+					} else {
+						r = d_37_;
+					}
+
+					if (6.0 * d_39_ < 1.0) {
+						g = d_37_ + (d_36_ - d_37_) * 6.0 * d_39_;
+					} else if (2.0 * d_39_ < 1.0) {
+						g = d_36_;
+					} else if (3.0 * d_39_ < 2.0) {
+						g = d_37_ + (d_36_ - d_37_) * (0.6666666666666666 - d_39_) * 6.0;
+					} else {
+						g = d_37_;
+					}
+
+					if (6.0 * d_40_ < 1.0) {
+						b = d_37_ + (d_36_ - d_37_) * 6.0 * d_40_;
+					} else if (2.0 * d_40_ < 1.0) {
+						b = d_36_;
+					} else if (3.0 * d_40_ < 2.0) {
+						b = d_37_ + (d_36_ - d_37_) * (0.6666666666666666 - d_40_) * 6.0;
+					} else {
+						b = d_37_;
+					}
+				}
+
+				table[off++] = ((int) (r * 256.0) << 16) + ((int) (g * 256.0) << 8) + (int) (b * 256.0);
+			}
+		}
+
+		base = table;
+		return base;
+	}
+
+	private Palettes() {
+	}
+}
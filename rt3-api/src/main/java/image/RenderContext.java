@@ -0,0 +1,422 @@
+/*
+ * Copyright (C) 2015 Dane.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package image;
+
+import media.Model;
+
+import java.util.Arrays;
+
+/**
+ * Everything {@link Graphics2D}, {@link Graphics3D} and {@link Model} write to while drawing: the target and its
+ * clip, the row offsets, depth buffer and palette, and the scratch arrays used to transform a model. A context is
+ * confined to one thread at a time; threads which draw concurrently should each own one.
+ *
+ * The static methods which don't take a context draw into {@link #DEFAULT}.
+ */
+public class RenderContext {
+
+	/**
+	 * The context used by the static drawing methods.
+	 */
+	public static final RenderContext DEFAULT = new RenderContext();
+
+	/**
+	 * The array being modified by the operations using this context.
+	 */
+	public int[] target;
+
+	/**
+	 * The dimensions of the destination.
+	 */
+	public int targetWidth, targetHeight;
+
+	/**
+	 * The clipped drawing boundaries.
+	 */
+	public int left, top, right, bottom;
+
+	/**
+	 * The center of the destination.
+	 */
+	public int halfWidth, halfHeight;
+
+	/**
+	 * The rightmost horizontal position in our destination.
+	 */
+	public int rightX;
+
+	/**
+	 * The center of our 3d target.
+	 */
+	public int centerX, centerY;
+
+	/**
+	 * A vertical pixel offset lookup table.
+	 */
+	public int[] offsets;
+
+	/**
+	 * Stores an array of zbuffer values.
+	 */
+	public int[] depthBuffer;
+
+	/**
+	 * When set, triangles and spans hidden behind everything already in {@link #depthBuffer} are rejected before their
+	 * pixels are tested. Kept in step by {@link #clearDepthBuffer()} and {@link #setDepthBuffer(int, int)}.
+	 */
+	public CoarseDepthBuffer coarseDepth;
+
+	/**
+	 * Stores RGB values that can be looked up with an HSL value. Usually shared with other contexts, so it must not be
+	 * written to.
+	 */
+	public int[] palette;
+
+	/**
+	 * Determines whether to use choppy looking shading.
+	 */
+	public boolean texturedShading = true;
+
+	/**
+	 * Whether to test x boundaries when drawing scanlines.
+	 */
+	public boolean testX;
+
+	/**
+	 * The alpha component for drawing triangles.
+	 */
+	public int alpha;
+
+	/**
+	 * When set to true, the renderer ignores blending the alpha component.
+	 */
+	public boolean opaque;
+
+	/**
+	 * The inner loops used by the depth tested scanlines.
+	 */
+	public ScanlineKernel scanlines = ScanlineKernels.SELECTED;
+
+	/**
+	 * The first pixel offset the depth tested scanlines may write to. Only raised above zero while rasterizing a tile.
+	 */
+	public int topOffset;
+
+	/**
+	 * When set, large models are binned into tiles and rasterized in parallel instead of one triangle at a time.
+	 */
+	public TileRasterizer tiles;
+
+	/**
+	 * The number of triangles drawn since this was last reset.
+	 */
+	public int frameTriangleCount;
+
+	/**
+	 * The number of models skipped without projecting a vertex because their bounds lay outside the clip, since this
+	 * was last reset.
+	 */
+	public int culledModelCount;
+
+	/**
+	 * The number of front facing triangles skipped because they lay outside the clip, since this was last reset.
+	 */
+	public int culledTriangleCount;
+
+	/**
+	 * The number of triangles rejected by {@link #coarseDepth} without drawing a scanline, since this was last reset.
+	 */
+	public int rejectedTriangleCount;
+
+	/**
+	 * The number of scanlines rejected by {@link #coarseDepth} without testing a pixel, since this was last reset.
+	 */
+	public int rejectedSpanCount;
+
+	/**
+	 * The number of pixels the depth tested scanlines have walked, since this was last reset. Dividing it by
+	 * {@link #countCoveredPixels()} gives the overdraw.
+	 */
+	public int rasterizedPixelCount;
+
+	/**
+	 * The horizontal position of a vertex on the screen.
+	 */
+	public int[] vertexScreenX = new int[0];
+
+	/**
+	 * The vertical position of a vertex on the screen.
+	 */
+	public int[] vertexScreenY = new int[0];
+
+	/**
+	 * The distance of a vertex from the screen.
+	 */
+	public int[] vertexDepth = new int[0];
+
+	/**
+	 * The transformed x component of a vertex.
+	 */
+	public int[] vertexProjectX = new int[0];
+
+	/**
+	 * The transformed y component of a vertex.
+	 */
+	public int[] vertexProjectY = new int[0];
+
+	/**
+	 * Determines whether the scanlines a triangle produces should be clamped on the screen.
+	 */
+	public boolean[] testTriangleX = new boolean[0];
+
+	/**
+	 * Determines whether the triangles should be z corrected.
+	 */
+	public boolean[] correctTriangleZ = new boolean[0];
+
+	/**
+	 * The corrected vertex components.
+	 */
+	public final int[] tmpX = new int[4], tmpY = new int[4], tmpZ = new int[4], tmpColor = new int[4];
+
+	/**
+	 * Used for drawing ovals.
+	 */
+	final int[] ovalPointX = new int[1024], ovalPointY = new int[1024];
+
+	/**
+	 * Offsets for drawing pixels
+	 */
+	int targetOffset, srcOffset;
+
+	/**
+	 * Stride length for drawing pixels
+	 */
+	int targetStep, srcStep;
+
+	/**
+	 * Dimension for drawing pixels
+	 */
+	int drawWidth, drawHeight;
+
+	/**
+	 * Constructs a new context with the default palette and no target.
+	 */
+	public RenderContext() {
+		this.palette = Palettes.get(Palettes.DEFAULT_BRIGHTNESS);
+	}
+
+	/**
+	 * Sets our destination and resets the boundaries to accommodate. Tiling is turned off, since the tile rasterizer
+	 * belongs to the previous destination.
+	 *
+	 * @param pixels the pixels.
+	 * @param width the width.
+	 * @param height the height.
+	 */
+	public void setTarget(int[] pixels, int width, int height) {
+		this.target = pixels;
+		this.targetWidth = width;
+		this.targetHeight = height;
+		this.tiles = null;
+		setBounds(0, 0, width, height);
+	}
+
+	/**
+	 * Resets the boundaries to fit the destination.
+	 */
+	public void resetBounds() {
+		this.left = 0;
+		this.top = 0;
+		this.right = 0;
+		this.bottom = 0;
+		this.rightX = this.right - 1;
+		this.halfWidth = this.right / 2;
+		this.halfHeight = this.bottom / 2;
+	}
+
+	/**
+	 * Sets the area which we allow ourselves to draw into.
+	 *
+	 * @param left the leftmost horizontal pixel.
+	 * @param top the topmost vertical pixel.
+	 * @param right the rightmost horizontal pixel.
+	 * @param bottom the bottommost vertical pixel.
+	 */
+	public void setBounds(int left, int top, int right, int bottom) {
+		if (left < 0) {
+			left = 0;
+		}
+
+		if (right > this.targetWidth) {
+			right = this.targetWidth;
+		}
+
+		if (top < 0) {
+			top = 0;
+		}
+
+		if (bottom > this.targetHeight) {
+			bottom = this.targetHeight;
+		}
+
+		this.left = left;
+		this.top = top;
+		this.right = right;
+		this.bottom = bottom;
+		this.rightX = right - 1;
+		this.halfWidth = right / 2;
+		this.halfHeight = bottom / 2;
+	}
+
+	/**
+	 * Fills our target with the provided color.
+	 *
+	 * @param rgb the clear color. (INT24_RGB)
+	 */
+	public void clear(int rgb) {
+		Arrays.fill(this.target, rgb);
+	}
+
+	/**
+	 * Generates the vertical pixel offsets using the width and height of the target.
+	 *
+	 * @return the int[] of y offsets.
+	 */
+	public int[] setOffsets() {
+		return setOffsets(this.targetWidth, this.targetHeight);
+	}
+
+	/**
+	 * Generates the vertical pixel offsets. The current table is kept if it already has the provided dimensions, since
+	 * its contents depend on nothing else; the table may be shared and is never written to once built.
+	 *
+	 * @param w the width.
+	 * @param h the height.
+	 * @return the int[] of y offsets.
+	 */
+	public int[] setOffsets(int w, int h) {
+		if (this.offsets == null || this.offsets.length != h || (h > 1 && this.offsets[1] != w)) {
+			this.offsets = new int[h];
+			for (int y = 0; y < h; y++) {
+				this.offsets[y] = w * y;
+			}
+		}
+		this.centerX = w / 2;
+		this.centerY = h / 2;
+		return this.offsets;
+	}
+
+	/**
+	 * Resets the zbuffer.
+	 */
+	public void clearDepthBuffer() {
+		Arrays.fill(this.depthBuffer, Model.FAR_Z_1616);
+
+		if (this.coarseDepth != null) {
+			this.coarseDepth.clear();
+		}
+	}
+
+	/**
+	 * Creates the new zbuffer for the current target.
+	 *
+	 * @return the int[] zbuffer.
+	 */
+	public int[] setDepthBuffer() {
+		return setDepthBuffer(this.targetWidth, this.targetHeight);
+	}
+
+	/**
+	 * Creates the new zbuffer.
+	 *
+	 * @param w the width.
+	 * @param h the height.
+	 * @return the int[] zbuffer.
+	 */
+	public int[] setDepthBuffer(int w, int h) {
+		this.depthBuffer = new int[w * h];
+
+		if (this.coarseDepth != null) {
+			this.coarseDepth = new CoarseDepthBuffer(w, h);
+		}
+
+		clearDepthBuffer();
+		return this.depthBuffer;
+	}
+
+	/**
+	 * Sets whether triangles and spans hidden behind the current depth buffer are rejected early. The output is
+	 * identical either way.
+	 *
+	 * @param enabled whether to keep a coarse depth buffer.
+	 * @see CoarseDepthBuffer
+	 */
+	public void setCoarseDepth(boolean enabled) {
+		if (!enabled) {
+			this.coarseDepth = null;
+		} else if (this.coarseDepth == null) {
+			this.coarseDepth = new CoarseDepthBuffer(this.targetWidth, this.targetHeight);
+		}
+	}
+
+	/**
+	 * Counts the pixels which have been given a depth since the depth buffer was last cleared.
+	 *
+	 * @return the number of covered pixels.
+	 */
+	public int countCoveredPixels() {
+		int count = 0;
+		for (int depth : this.depthBuffer) {
+			if (depth != Model.FAR_Z_1616) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Grows the vertex scratch arrays so a model with the provided vertex count can be transformed.
+	 *
+	 * @param count the vertex count.
+	 */
+	public void ensureVertexCapacity(int count) {
+		if (this.vertexScreenX.length >= count) {
+			return;
+		}
+		this.vertexScreenX = new int[count];
+		this.vertexScreenY = new int[count];
+		this.vertexDepth = new int[count];
+		this.vertexProjectX = new int[count];
+		this.vertexProjectY = new int[count];
+	}
+
+	/**
+	 * Grows the triangle scratch arrays so a model with the provided triangle count can be drawn.
+	 *
+	 * @param count the triangle count.
+	 */
+	public void ensureTriangleCapacity(int count) {
+		if (this.testTriangleX.length >= count) {
+			return;
+		}
+		this.testTriangleX = new boolean[count];
+		this.correctTriangleZ = new boolean[count];
+	}
+}
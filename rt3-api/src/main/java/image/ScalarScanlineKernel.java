@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2015 Dane.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package image;
+
+/**
+ * The original scanline loops, one pixel at a time.
+ */
+final class ScalarScanlineKernel implements ScanlineKernel {
+
+	@Override
+	public void fillDepth(int[] dst, int[] depthBuffer, int off, int length, int z, int zSlope, int rgb) {
+		while (--length >= 0) {
+			if (z <= depthBuffer[off]) {
+				depthBuffer[off] = z;
+				dst[off] = rgb;
+			}
+			off++;
+			z += zSlope;
+		}
+	}
+
+	@Override
+	public void blendDepth(int[] dst, int[] depthBuffer, int off, int length, int z, int zSlope, int rgb, int alpha) {
+		while (--length >= 0) {
+			if (z <= depthBuffer[off]) {
+				depthBuffer[off] = z;
+				dst[off] = (rgb + ((dst[off] & 0xFF00FF) * alpha >> 8 & 0xFF00FF) + ((dst[off] & 0xFF00) * alpha >> 8 & 0xFF00));
+			}
+			off++;
+			z += zSlope;
+		}
+	}
+
+	@Override
+	public void fillShadedDepth(int[] dst, int[] depthBuffer, int[] palette, int off, int blocks, int color, int colorSlope, int z, int zSlope) {
+		while (--blocks >= 0) {
+			int rgb = palette[color >> 8];
+			color += colorSlope;
+			z += zSlope;
+
+			for (int i = 0; i < 4; i++) {
+				if (z <= depthBuffer[off]) {
+					dst[off] = rgb;
+					depthBuffer[off] = z;
+				}
+				off++;
+			}
+		}
+	}
+
+	@Override
+	public void blendShaded(int[] dst, int[] palette, int off, int blocks, int color, int colorSlope, int alpha) {
+		int a1 = 256 - alpha;
+
+		while (--blocks >= 0) {
+			int rgb = palette[color >> 8];
+			color += colorSlope;
+			rgb = (((rgb & 0xFF00FF) * a1 >> 8 & 0xFF00FF) + ((rgb & 0xFF00) * a1 >> 8 & 0xFF00));
+
+			for (int i = 0; i < 4; i++) {
+				dst[off] = (rgb + ((dst[off] & 0xFF00FF) * alpha >> 8 & 0xFF00FF) + ((dst[off] & 0xFF00) * alpha >> 8 & 0xFF00));
+				off++;
+			}
+		}
+	}
+
+}
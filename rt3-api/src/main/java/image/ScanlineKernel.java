@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2015 Dane.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package image;
+
+/**
+ * The inner loops of the depth tested scanlines in {@link Graphics3D}. Clipping and slope setup stay in
+ * {@code Graphics3D}; a kernel only walks an already clipped span, so every implementation must produce exactly the
+ * same pixels and depth values as {@link ScanlineKernels#SCALAR}.
+ *
+ * @see ScanlineKernels
+ * @see RenderContext#scanlines
+ */
+public interface ScanlineKernel {
+
+	/**
+	 * Fills a span with a solid color, one depth step per pixel.
+	 *
+	 * @param dst the destination.
+	 * @param depthBuffer the zbuffer.
+	 * @param off the offset of the first pixel.
+	 * @param length the number of pixels.
+	 * @param z the depth of the first pixel.
+	 * @param zSlope the depth step per pixel.
+	 * @param rgb the color.
+	 */
+	void fillDepth(int[] dst, int[] depthBuffer, int off, int length, int z, int zSlope, int rgb);
+
+	/**
+	 * Blends a solid color over a span, one depth step per pixel.
+	 *
+	 * @param dst the destination.
+	 * @param depthBuffer the zbuffer.
+	 * @param off the offset of the first pixel.
+	 * @param length the number of pixels.
+	 * @param z the depth of the first pixel.
+	 * @param zSlope the depth step per pixel.
+	 * @param rgb the color, already multiplied by {@code 256 - alpha}.
+	 * @param alpha the alpha of the destination.
+	 */
+	void blendDepth(int[] dst, int[] depthBuffer, int off, int length, int z, int zSlope, int rgb, int alpha);
+
+	/**
+	 * Fills a span of 4 pixel blocks with shaded colors. The depth is stepped before each block and the color after
+	 * it, with every pixel in a block sharing the same color and depth.
+	 *
+	 * @param dst the destination.
+	 * @param depthBuffer the zbuffer.
+	 * @param palette the palette.
+	 * @param off the offset of the first pixel.
+	 * @param blocks the number of blocks.
+	 * @param color the color of the first block. (24.8)
+	 * @param colorSlope the color step per block.
+	 * @param z the depth before the first block.
+	 * @param zSlope the depth step per block.
+	 */
+	void fillShadedDepth(int[] dst, int[] depthBuffer, int[] palette, int off, int blocks, int color, int colorSlope, int z, int zSlope);
+
+	/**
+	 * Blends a span of 4 pixel blocks with shaded colors, ignoring depth.
+	 *
+	 * @param dst the destination.
+	 * @param palette the palette.
+	 * @param off the offset of the first pixel.
+	 * @param blocks the number of blocks.
+	 * @param color the color of the first block. (24.8)
+	 * @param colorSlope the color step per block.
+	 * @param alpha the alpha of the destination.
+	 */
+	void blendShaded(int[] dst, int[] palette, int off, int blocks, int color, int colorSlope, int alpha);
+
+}
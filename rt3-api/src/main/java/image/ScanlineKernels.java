@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2015 Dane.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package image;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Selects the {@link ScanlineKernel} new contexts draw with. The vector kernel is chosen when the
+ * {@code jdk.incubator.vector} module is present (run with {@code --add-modules jdk.incubator.vector}) and the
+ * platform vectors hold whole 4 pixel blocks. Otherwise, or when the {@code rt3.vector} system property is
+ * {@code false}, the scalar kernel is used.
+ */
+public final class ScanlineKernels {
+
+	/**
+	 * The kernel which draws one pixel at a time.
+	 */
+	public static final ScanlineKernel SCALAR = new ScalarScanlineKernel();
+
+	/**
+	 * The Vector API kernel, or {@code null} if it isn't available on this runtime.
+	 */
+	public static final ScanlineKernel VECTOR = loadVector();
+
+	/**
+	 * The kernel selected at startup.
+	 */
+	public static final ScanlineKernel SELECTED = VECTOR != null && Boolean.parseBoolean(System.getProperty("rt3.vector", "true")) ? VECTOR : SCALAR;
+
+	/**
+	 * Loads the vector kernel.
+	 *
+	 * @return the vector kernel, or {@code null} if it can't be used.
+	 */
+	private static ScanlineKernel loadVector() {
+		if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+			return null;
+		}
+
+		try {
+			return (ScanlineKernel) Class.forName("image.VectorScanlineKernel").getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Draws random spans with the provided kernel and the scalar kernel and compares the results.
+	 *
+	 * @param kernel the kernel to check.
+	 * @param seed the random seed.
+	 * @param spans the number of spans to draw with each routine.
+	 * @return {@code true} if every pixel and depth value matched.
+	 */
+	public static boolean verify(ScanlineKernel kernel, long seed, int spans) {
+		Random random = new Random(seed);
+		int[] palette = Palettes.get(Palettes.DEFAULT_BRIGHTNESS);
+		int size = 256;
+
+		int[] expectedDst = new int[size], expectedDepth = new int[size];
+		int[] actualDst = new int[size], actualDepth = new int[size];
+
+		for (int n = 0; n < spans; n++) {
+			for (int i = 0; i < size; i++) {
+				expectedDst[i] = actualDst[i] = random.nextInt() & 0xFFFFFF;
+				expectedDepth[i] = actualDepth[i] = random.nextInt(1 << 24);
+			}
+
+			int off = random.nextInt(16);
+			int length = random.nextInt(size - off - 3);
+			int blocks = length >> 2;
+			int z = random.nextInt(1 << 24);
+			int zSlope = random.nextInt(1 << 16) - (1 << 15);
+			int rgb = random.nextInt() & 0xFFFFFF;
+			int alpha = random.nextInt(256) + 1;
+			int color = random.nextInt(palette.length - 1) << 8;
+			int colorSlope = blocks == 0 ? 0 : (random.nextInt(palette.length) - color / 256) * 256 / blocks;
+
+			switch (n & 3) {
+				case 0:
+					SCALAR.fillDepth(expectedDst, expectedDepth, off, length, z, zSlope, rgb);
+					kernel.fillDepth(actualDst, actualDepth, off, length, z, zSlope, rgb);
+					break;
+				case 1:
+					SCALAR.blendDepth(expectedDst, expectedDepth, off, length, z, zSlope, rgb, alpha);
+					kernel.blendDepth(actualDst, actualDepth, off, length, z, zSlope, rgb, alpha);
+					break;
+				case 2:
+					SCALAR.fillShadedDepth(expectedDst, expectedDepth, palette, off, blocks, color, colorSlope, z, zSlope);
+					kernel.fillShadedDepth(actualDst, actualDepth, palette, off, blocks, color, colorSlope, z, zSlope);
+					break;
+				default:
+					SCALAR.blendShaded(expectedDst, palette, off, blocks, color, colorSlope, alpha);
+					kernel.blendShaded(actualDst, palette, off, blocks, color, colorSlope, alpha);
+					break;
+			}
+
+			if (!Arrays.equals(expectedDst, actualDst) || !Arrays.equals(expectedDepth, actualDepth)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private ScanlineKernels() {
+	}
+
+}
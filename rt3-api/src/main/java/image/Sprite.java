@@ -83,7 +83,16 @@ public class Sprite {
 	 * @see Graphics2D
 	 */
 	public void bind() {
-		Graphics2D.setTarget(this.pixels, this.width, this.height);
+		bind(RenderContext.DEFAULT);
+	}
+
+	/**
+	 * Binds this sprite as the target of the provided context.
+	 *
+	 * @param ctx the context.
+	 */
+	public void bind(RenderContext ctx) {
+		ctx.setTarget(this.pixels, this.width, this.height);
 	}
 
 	/**
@@ -134,7 +143,18 @@ public class Sprite {
 	 * @param y the draw y.
 	 */
 	public void drawOpaque(int x, int y) {
-		Graphics2D.drawPixels(x, y, this.width, this.height, this.pixels);
+		drawOpaque(RenderContext.DEFAULT, x, y);
+	}
+
+	/**
+	 * Draws the sprite opaquely.
+	 *
+	 * @param ctx the context to draw into.
+	 * @param x the draw x.
+	 * @param y the draw y.
+	 */
+	public void drawOpaque(RenderContext ctx, int x, int y) {
+		Graphics2D.drawPixels(ctx, x, y, this.width, this.height, this.pixels);
 	}
 
 	/**
@@ -144,7 +164,18 @@ public class Sprite {
 	 * @param y the draw y.
 	 */
 	public void draw(int x, int y) {
-		Graphics2D.drawPixels(x, y, this.width, this.height, this.pixels);
+		draw(RenderContext.DEFAULT, x, y);
+	}
+
+	/**
+	 * Draws the sprite. (ignores black pixels)
+	 *
+	 * @param ctx the context to draw into.
+	 * @param x the draw x.
+	 * @param y the draw y.
+	 */
+	public void draw(RenderContext ctx, int x, int y) {
+		Graphics2D.drawPixels(ctx, x, y, this.width, this.height, this.pixels);
 	}
 
 	/**
@@ -155,7 +186,19 @@ public class Sprite {
 	 * @param alpha the alpha.
 	 */
 	public void draw(int x, int y, int alpha) {
-		Graphics2D.drawPixels(x, y, this.width, this.height, this.pixels, alpha);
+		draw(RenderContext.DEFAULT, x, y, alpha);
+	}
+
+	/**
+	 * Draws the sprite translucently. (ignores black pixels)
+	 *
+	 * @param ctx the context to draw into.
+	 * @param x the draw x.
+	 * @param y the draw y.
+	 * @param alpha the alpha.
+	 */
+	public void draw(RenderContext ctx, int x, int y, int alpha) {
+		Graphics2D.drawPixels(ctx, x, y, this.width, this.height, this.pixels, alpha);
 	}
 
 	/**
@@ -167,8 +210,21 @@ public class Sprite {
 	 * @param h the draw height.
 	 */
 	public void draw(int x, int y, int w, int h) {
-	    Graphics2D.fillRect(x, y, w, h, 0x554b3f);
-		Graphics2D.drawSprite(this, x, y, w, h);
+		draw(RenderContext.DEFAULT, x, y, w, h);
+	}
+
+	/**
+	 * Draws the sprite.
+	 *
+	 * @param ctx the context to draw into.
+	 * @param x the draw x.
+	 * @param y the draw y.
+	 * @param w the draw width.
+	 * @param h the draw height.
+	 */
+	public void draw(RenderContext ctx, int x, int y, int w, int h) {
+	    Graphics2D.fillRect(ctx, x, y, w, h, 0x554b3f);
+		Graphics2D.drawSprite(ctx, this, x, y, w, h);
 	}
 
 	/**
@@ -185,6 +241,24 @@ public class Sprite {
 	 * @param rowWidth the pixel row width array.
 	 */
 	public void draw(int x, int y, int w, int h, int pivotX, int pivotY, int angle, int[] horizontalOffsets, int[] rowWidth) {
+		draw(RenderContext.DEFAULT, x, y, w, h, pivotX, pivotY, angle, horizontalOffsets, rowWidth);
+	}
+
+	/**
+	 * Draws the sprite rotated around a point.
+	 *
+	 * @param ctx the context to draw into.
+	 * @param x the draw x.
+	 * @param y the draw y.
+	 * @param w the sprite width.
+	 * @param h the sprite height.
+	 * @param pivotX the pivot x.
+	 * @param pivotY the pivot y.
+	 * @param angle the angle.
+	 * @param horizontalOffsets the horizontal offset array.
+	 * @param rowWidth the pixel row width array.
+	 */
+	public void draw(RenderContext ctx, int x, int y, int w, int h, int pivotX, int pivotY, int angle, int[] horizontalOffsets, int[] rowWidth) {
 		try {
 			int cx = -w / 2;
 			int cy = -h / 2;
@@ -194,7 +268,7 @@ public class Sprite {
 
 			int offX = (pivotX << 16) + (cy * sin + cx * cos);
 			int offY = (pivotY << 16) + (cy * cos - cx * sin);
-			int baseOffset = x + (y * Graphics2D.targetWidth);
+			int baseOffset = x + (y * ctx.targetWidth);
 
 			for (y = 0; y < h; y++) {
 				int start = horizontalOffsets[y];
@@ -202,13 +276,13 @@ public class Sprite {
 				int srcX = offX + cos * start;
 				int srcY = offY - sin * start;
 				for (x = 0; x < rowWidth[y]; x++) {
-					Graphics2D.target[off++] = this.pixels[(srcX >> 16) + (srcY >> 16) * this.width];
+					ctx.target[off++] = this.pixels[(srcX >> 16) + (srcY >> 16) * this.width];
 					srcX += cos;
 					srcY -= sin;
 				}
 				offX += sin;
 				offY += cos;
-				baseOffset += Graphics2D.targetWidth;
+				baseOffset += ctx.targetWidth;
 			}
 		} catch (Exception e) {
 		}
@@ -226,6 +300,22 @@ public class Sprite {
 	 * @param angle the angle.
 	 */
 	public void draw(int x, int y, int w, int h, int pivotX, int pivotY, int angle) {
+		draw(RenderContext.DEFAULT, x, y, w, h, pivotX, pivotY, angle);
+	}
+
+	/**
+	 * Draws the sprite rotated around a point.
+	 *
+	 * @param ctx the context to draw into.
+	 * @param x the draw x.
+	 * @param y the draw y.
+	 * @param w the width.
+	 * @param h the height.
+	 * @param pivotX the pivot x.
+	 * @param pivotY the pivot y.
+	 * @param angle the angle.
+	 */
+	public void draw(RenderContext ctx, int x, int y, int w, int h, int pivotX, int pivotY, int angle) {
 		try {
 			int cx = -w / 2;
 			int cy = -h / 2;
@@ -235,7 +325,7 @@ public class Sprite {
 
 			int offX = (pivotX << 16) + (cy * sin + cx * cos);
 			int offY = (pivotY << 16) + (cy * cos - cx * sin);
-			int baseOffset = x + (y * Graphics2D.targetWidth);
+			int baseOffset = x + (y * ctx.targetWidth);
 
 			for (y = 0; y < h; y++) {
 				int off = baseOffset;
@@ -246,7 +336,7 @@ public class Sprite {
 					int rgb = pixels[(dstX >> 16) + (dstY >> 16) * width];
 
 					if (rgb != 0) {
-						Graphics2D.target[off++] = rgb;
+						ctx.target[off++] = rgb;
 					} else {
 						off++;
 					}
@@ -256,7 +346,7 @@ public class Sprite {
 
 				offX += sin;
 				offY += cos;
-				baseOffset += Graphics2D.targetWidth;
+				baseOffset += ctx.targetWidth;
 			}
 		} catch (Exception e) {
 			logger.log(Level.WARNING, "Error drawing rotated bitmap", e);
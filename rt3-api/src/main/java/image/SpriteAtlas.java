@@ -0,0 +1,288 @@
+/*
+ * Copyright (C) 2015 Dane.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package image;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Packs many sprites of the same size into a few large pages, either on the heap or in direct memory. Each sprite is
+ * referred to by an {@code int} handle instead of an object, and its pixels sit in one block within its page, so
+ * thousands of icons cost a handful of arrays rather than an array and a {@link Sprite} each.
+ *
+ * Adding and reserving are synchronized. Writing to and drawing from a handle can happen from any thread, as long as
+ * no two threads write the same handle at once.
+ *
+ * @see Graphics2D#drawSprite(RenderContext, SpriteAtlas, int, int, int)
+ */
+public class SpriteAtlas {
+
+	/**
+	 * The number of sprites each page holds unless told otherwise.
+	 */
+	public static final int DEFAULT_PAGE_SIZE = 1024;
+
+	/**
+	 * The dimensions of every sprite in the atlas.
+	 */
+	private final int width, height;
+
+	/**
+	 * The number of sprites per page.
+	 */
+	private final int pageSize;
+
+	/**
+	 * Whether pages are allocated outside of the heap.
+	 */
+	private final boolean direct;
+
+	/**
+	 * The pages. Replaced rather than grown in place, so drawing threads never see a half copied array.
+	 */
+	private volatile IntBuffer[] pages = new IntBuffer[0];
+
+	/**
+	 * The number of handles given out.
+	 */
+	private int count;
+
+	/**
+	 * Constructs a new atlas with pages of {@link #DEFAULT_PAGE_SIZE} sprites.
+	 *
+	 * @param width the width of every sprite.
+	 * @param height the height of every sprite.
+	 * @param direct whether to keep the pages outside of the heap.
+	 */
+	public SpriteAtlas(int width, int height, boolean direct) {
+		this(width, height, DEFAULT_PAGE_SIZE, direct);
+	}
+
+	/**
+	 * Constructs a new atlas.
+	 *
+	 * @param width the width of every sprite.
+	 * @param height the height of every sprite.
+	 * @param pageSize the number of sprites per page.
+	 * @param direct whether to keep the pages outside of the heap.
+	 */
+	public SpriteAtlas(int width, int height, int pageSize, boolean direct) {
+		if (width <= 0 || height <= 0 || pageSize <= 0) {
+			throw new IllegalArgumentException("bad atlas dimensions: " + width + "x" + height + " x" + pageSize);
+		}
+		this.width = width;
+		this.height = height;
+		this.pageSize = pageSize;
+		this.direct = direct;
+	}
+
+	public int getWidth() {
+		return this.width;
+	}
+
+	public int getHeight() {
+		return this.height;
+	}
+
+	public boolean isDirect() {
+		return this.direct;
+	}
+
+	/**
+	 * Returns the number of handles given out so far.
+	 *
+	 * @return the count.
+	 */
+	public synchronized int size() {
+		return this.count;
+	}
+
+	/**
+	 * Returns the number of bytes held by the pages.
+	 *
+	 * @return the capacity in bytes.
+	 */
+	public long getCapacityBytes() {
+		return (long) this.pages.length * this.pageSize * this.width * this.height * Integer.BYTES;
+	}
+
+	/**
+	 * Reserves a run of blank sprites, growing the atlas as needed.
+	 *
+	 * @param n the number of sprites.
+	 * @return the handle of the first sprite; the rest follow it in order.
+	 */
+	public synchronized int reserve(int n) {
+		int first = this.count;
+		int pageCount = (first + n + this.pageSize - 1) / this.pageSize;
+
+		if (pageCount > this.pages.length) {
+			IntBuffer[] pages = Arrays.copyOf(this.pages, pageCount);
+
+			for (int i = this.pages.length; i < pageCount; i++) {
+				pages[i] = allocate(this.pageSize * this.width * this.height);
+			}
+			this.pages = pages;
+		}
+
+		this.count += n;
+		return first;
+	}
+
+	/**
+	 * Copies the pixels of a sprite into the atlas.
+	 *
+	 * @param pixels the pixels, at least {@code width * height} of them.
+	 * @return the handle.
+	 */
+	public int add(int[] pixels) {
+		int handle = reserve(1);
+		set(handle, pixels);
+		return handle;
+	}
+
+	/**
+	 * Copies a sprite into the atlas.
+	 *
+	 * @param s the sprite, which must match the dimensions of the atlas.
+	 * @return the handle.
+	 */
+	public int add(Sprite s) {
+		checkSize(s);
+		return add(s.pixels);
+	}
+
+	/**
+	 * Replaces the pixels of a sprite in the atlas.
+	 *
+	 * @param handle the handle.
+	 * @param pixels the pixels, at least {@code width * height} of them.
+	 */
+	public void set(int handle, int[] pixels) {
+		getPage(handle).put(getOffset(handle), pixels, 0, this.width * this.height);
+	}
+
+	/**
+	 * Replaces a sprite in the atlas.
+	 *
+	 * @param handle the handle.
+	 * @param s the sprite, which must match the dimensions of the atlas.
+	 */
+	public void set(int handle, Sprite s) {
+		checkSize(s);
+		set(handle, s.pixels);
+	}
+
+	/**
+	 * Copies the pixels of a sprite out of the atlas.
+	 *
+	 * @param handle the handle.
+	 * @param dst the destination, at least {@code width * height} long.
+	 */
+	public void get(int handle, int[] dst) {
+		getPage(handle).get(getOffset(handle), dst, 0, this.width * this.height);
+	}
+
+	/**
+	 * Copies a sprite out of the atlas into a new {@link Sprite}.
+	 *
+	 * @param handle the handle.
+	 * @return the sprite.
+	 */
+	public Sprite toSprite(int handle) {
+		Sprite s = new Sprite(this.width, this.height);
+		get(handle, s.pixels);
+		return s;
+	}
+
+	/**
+	 * Returns the page a sprite lives in.
+	 *
+	 * @param handle the handle.
+	 * @return the page.
+	 */
+	public IntBuffer getPage(int handle) {
+		return this.pages[handle / this.pageSize];
+	}
+
+	/**
+	 * Returns where the first pixel of a sprite lives in its page. The rest follow row by row.
+	 *
+	 * @param handle the handle.
+	 * @return the offset.
+	 */
+	public int getOffset(int handle) {
+		return (handle % this.pageSize) * this.width * this.height;
+	}
+
+	/**
+	 * Draws a sprite. (ignores black pixels)
+	 *
+	 * @param ctx the context to draw into.
+	 * @param handle the handle.
+	 * @param x the draw x.
+	 * @param y the draw y.
+	 */
+	public void draw(RenderContext ctx, int handle, int x, int y) {
+		Graphics2D.drawSprite(ctx, this, handle, x, y);
+	}
+
+	/**
+	 * Draws a sprite translucently. (ignores black pixels)
+	 *
+	 * @param ctx the context to draw into.
+	 * @param handle the handle.
+	 * @param x the draw x.
+	 * @param y the draw y.
+	 * @param alpha the alpha.
+	 */
+	public void draw(RenderContext ctx, int handle, int x, int y, int alpha) {
+		Graphics2D.drawSprite(ctx, this, handle, x, y, alpha);
+	}
+
+	/**
+	 * Draws a sprite scaled, over the same background {@link Sprite#draw(RenderContext, int, int, int, int)} uses.
+	 *
+	 * @param ctx the context to draw into.
+	 * @param handle the handle.
+	 * @param x the draw x.
+	 * @param y the draw y.
+	 * @param w the draw width.
+	 * @param h the draw height.
+	 */
+	public void draw(RenderContext ctx, int handle, int x, int y, int w, int h) {
+		Graphics2D.fillRect(ctx, x, y, w, h, 0x554b3f);
+		Graphics2D.drawSprite(ctx, this, handle, x, y, w, h);
+	}
+
+	private IntBuffer allocate(int length) {
+		if (this.direct) {
+			return ByteBuffer.allocateDirect(length * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+		}
+		return IntBuffer.wrap(new int[length]);
+	}
+
+	private void checkSize(Sprite s) {
+		if (s.width != this.width || s.height != this.height) {
+			throw new IllegalArgumentException("sprite is " + s.width + "x" + s.height + ", atlas holds " + this.width + "x" + this.height);
+		}
+	}
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright (C) 2015 Dane.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package image;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Rasterizes transformed triangles in parallel by splitting the target into tiles of whole rows. Triangles are
+ * submitted in draw order along with the rows they cover, binned into every tile they touch, and each tile then
+ * replays its triangles in that same order on its own {@link RenderContext}. Since no two tiles share a pixel and
+ * every pixel sees the same sequence of writes, the result is identical to drawing the triangles one at a time.
+ *
+ * A rasterizer belongs to one context and is not safe to share between contexts drawing concurrently.
+ *
+ * @see RenderContext#tiles
+ */
+public class TileRasterizer {
+
+	/**
+	 * The height of a tile in rows.
+	 */
+	public static final int TILE_HEIGHT = 32;
+
+	/**
+	 * Models with fewer triangles than this are drawn one triangle at a time, since binning them costs more than it
+	 * saves.
+	 */
+	public static final int MIN_TRIANGLES = 256;
+
+	/**
+	 * Draws a single triangle into a context.
+	 */
+	public interface TriangleRenderer {
+
+		/**
+		 * Draws the triangle.
+		 *
+		 * @param ctx the context of the tile being drawn.
+		 * @param triangle the triangle index.
+		 */
+		void draw(RenderContext ctx, int triangle);
+	}
+
+	/**
+	 * The pool the tiles are drawn on.
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * The submitted triangles and the rows they cover, in draw order.
+	 */
+	private int[] triangles = new int[256], minY = new int[256], maxY = new int[256];
+
+	/**
+	 * The number of submitted triangles.
+	 */
+	private int count;
+
+	/**
+	 * The triangles of every tile, with the triangles of tile {@code n} starting at {@code binStart[n]}.
+	 */
+	private int[] bins = new int[0], binStart = new int[1];
+
+	/**
+	 * The context each tile draws with.
+	 */
+	private RenderContext[] contexts = new RenderContext[0];
+
+	/**
+	 * Constructs a new tile rasterizer which draws on the common pool.
+	 */
+	public TileRasterizer() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Constructs a new tile rasterizer.
+	 *
+	 * @param pool the pool to draw the tiles on.
+	 */
+	public TileRasterizer(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Returns whether a model with the provided number of triangles should be tiled. Tiling a small model, or tiling
+	 * at all without a second thread to draw on, is slower than drawing one triangle at a time.
+	 *
+	 * @param triangleCount the triangle count.
+	 * @return {@code true} if the model should be tiled.
+	 */
+	public boolean accepts(int triangleCount) {
+		return triangleCount >= MIN_TRIANGLES && this.pool.getParallelism() > 1;
+	}
+
+	/**
+	 * Discards any submitted triangles.
+	 */
+	public void reset() {
+		this.count = 0;
+	}
+
+	/**
+	 * Submits a triangle to be drawn.
+	 *
+	 * @param triangle the triangle index.
+	 * @param minY the topmost row the triangle covers.
+	 * @param maxY the bottommost row the triangle covers.
+	 */
+	public void submit(int triangle, int minY, int maxY) {
+		if (this.count == this.triangles.length) {
+			int capacity = this.count * 2;
+			this.triangles = Arrays.copyOf(this.triangles, capacity);
+			this.minY = Arrays.copyOf(this.minY, capacity);
+			this.maxY = Arrays.copyOf(this.maxY, capacity);
+		}
+		this.triangles[this.count] = triangle;
+		this.minY[this.count] = minY;
+		this.maxY[this.count] = maxY;
+		this.count++;
+	}
+
+	/**
+	 * Draws the submitted triangles into the target of the provided context and discards them.
+	 *
+	 * @param ctx the context the triangles were transformed with.
+	 * @param renderer draws a single triangle.
+	 * @return the number of triangles which were submitted.
+	 */
+	public int rasterize(RenderContext ctx, TriangleRenderer renderer) {
+		int submitted = this.count;
+		int tileCount = (ctx.bottom + TILE_HEIGHT - 1) / TILE_HEIGHT;
+
+		if (submitted == 0 || tileCount <= 0) {
+			reset();
+			return submitted;
+		}
+
+		bin(ctx.bottom, tileCount);
+		prepare(ctx, tileCount);
+		this.pool.invoke(new TileTask(0, tileCount, renderer));
+		collect(ctx, tileCount);
+		reset();
+		return submitted;
+	}
+
+	/**
+	 * Sorts the submitted triangles into the tiles they cover, keeping their order within each tile.
+	 *
+	 * @param bottom the bottom of the drawing area.
+	 * @param tileCount the number of tiles.
+	 */
+	private void bin(int bottom, int tileCount) {
+		if (this.binStart.length < tileCount + 1) {
+			this.binStart = new int[tileCount + 1];
+		} else {
+			Arrays.fill(this.binStart, 0, tileCount + 1, 0);
+		}
+
+		int total = 0;
+
+		// count how many triangles land in each tile
+		for (int i = 0; i < this.count; i++) {
+			if (this.maxY[i] < 0 || this.minY[i] >= bottom) {
+				continue;
+			}
+
+			int first = Math.max(this.minY[i], 0) / TILE_HEIGHT;
+			int last = Math.min(this.maxY[i], bottom - 1) / TILE_HEIGHT;
+
+			for (int tile = first; tile <= last; tile++) {
+				this.binStart[tile + 1]++;
+			}
+			total += last - first + 1;
+		}
+
+		for (int tile = 0; tile < tileCount; tile++) {
+			this.binStart[tile + 1] += this.binStart[tile];
+		}
+
+		if (this.bins.length < total) {
+			this.bins = new int[total];
+		}
+
+		// then fill them, using the start of each tile as a cursor
+		int[] cursor = Arrays.copyOf(this.binStart, tileCount);
+
+		for (int i = 0; i < this.count; i++) {
+			if (this.maxY[i] < 0 || this.minY[i] >= bottom) {
+				continue;
+			}
+
+			int first = Math.max(this.minY[i], 0) / TILE_HEIGHT;
+			int last = Math.min(this.maxY[i], bottom - 1) / TILE_HEIGHT;
+
+			for (int tile = first; tile <= last; tile++) {
+				this.bins[cursor[tile]++] = this.triangles[i];
+			}
+		}
+	}
+
+	/**
+	 * Points the context of each tile at the target, buffers and scratch arrays of the provided context, clipped to
+	 * the rows of the tile.
+	 *
+	 * @param ctx the context the triangles were transformed with.
+	 * @param tileCount the number of tiles.
+	 */
+	private void prepare(RenderContext ctx, int tileCount) {
+		if (this.contexts.length < tileCount) {
+			int length = this.contexts.length;
+			this.contexts = Arrays.copyOf(this.contexts, tileCount);
+
+			for (int tile = length; tile < tileCount; tile++) {
+				this.contexts[tile] = new RenderContext();
+			}
+		}
+
+		for (int tile = 0; tile < tileCount; tile++) {
+			RenderContext c = this.contexts[tile];
+			c.target = ctx.target;
+			c.targetWidth = ctx.targetWidth;
+			c.targetHeight = ctx.targetHeight;
+			c.left = ctx.left;
+			c.top = ctx.top;
+			c.right = ctx.right;
+			c.bottom = Math.min((tile + 1) * TILE_HEIGHT, ctx.bottom);
+			c.rightX = ctx.rightX;
+			c.halfWidth = ctx.halfWidth;
+			c.halfHeight = ctx.halfHeight;
+			c.centerX = ctx.centerX;
+			c.centerY = ctx.centerY;
+			c.offsets = ctx.offsets;
+			c.depthBuffer = ctx.depthBuffer;
+			c.coarseDepth = ctx.coarseDepth;
+			c.palette = ctx.palette;
+			c.texturedShading = ctx.texturedShading;
+			c.opaque = ctx.opaque;
+			c.scanlines = ctx.scanlines;
+			c.topOffset = ctx.offsets[tile * TILE_HEIGHT];
+			c.frameTriangleCount = 0;
+			c.rejectedTriangleCount = 0;
+			c.rejectedSpanCount = 0;
+			c.rasterizedPixelCount = 0;
+			c.vertexScreenX = ctx.vertexScreenX;
+			c.vertexScreenY = ctx.vertexScreenY;
+			c.vertexDepth = ctx.vertexDepth;
+			c.vertexProjectX = ctx.vertexProjectX;
+			c.vertexProjectY = ctx.vertexProjectY;
+			c.testTriangleX = ctx.testTriangleX;
+			c.correctTriangleZ = ctx.correctTriangleZ;
+		}
+	}
+
+	/**
+	 * Adds the counters of each tile to the provided context. A triangle rejected in more than one tile is counted
+	 * once for each.
+	 *
+	 * @param ctx the context the triangles were transformed with.
+	 * @param tileCount the number of tiles.
+	 */
+	private void collect(RenderContext ctx, int tileCount) {
+		for (int tile = 0; tile < tileCount; tile++) {
+			RenderContext c = this.contexts[tile];
+			ctx.rejectedTriangleCount += c.rejectedTriangleCount;
+			ctx.rejectedSpanCount += c.rejectedSpanCount;
+			ctx.rasterizedPixelCount += c.rasterizedPixelCount;
+		}
+	}
+
+	/**
+	 * Draws a range of tiles, splitting it until each task draws a single tile.
+	 */
+	@SuppressWarnings("serial")
+	private final class TileTask extends RecursiveAction {
+
+		private final int from, to;
+		private final TriangleRenderer renderer;
+
+		TileTask(int from, int to, TriangleRenderer renderer) {
+			this.from = from;
+			this.to = to;
+			this.renderer = renderer;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from > 1) {
+				int mid = (this.from + this.to) >>> 1;
+				invokeAll(new TileTask(this.from, mid, this.renderer), new TileTask(mid, this.to, this.renderer));
+				return;
+			}
+
+			RenderContext ctx = contexts[this.from];
+			int end = binStart[this.from + 1];
+
+			for (int i = binStart[this.from]; i < end; i++) {
+				this.renderer.draw(ctx, bins[i]);
+			}
+		}
+	}
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2015 Dane.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package image;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Scanline loops built on the incubating Vector API, drawing a whole vector of pixels per iteration with masked
+ * depth tests. Whatever doesn't fill a vector is left to {@link ScalarScanlineKernel}.
+ *
+ * Rather than masked stores, which aren't intrinsified on every platform and fall back to a far slower path than the
+ * scalar loops, the covered pixels are blended into the loaded vector and stored whole. That writes back the pixels
+ * which failed the depth test unchanged, which is safe since a context (or tile) owns every row it draws to.
+ *
+ * This class links against {@code jdk.incubator.vector}, so it's only ever loaded through
+ * {@link ScanlineKernels} once that module is known to be present.
+ */
+final class VectorScanlineKernel implements ScanlineKernel {
+
+	/**
+	 * The widest species the platform runs natively, 8 lanes with AVX2 and 16 with AVX-512.
+	 */
+	private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+	/**
+	 * The number of pixels drawn per iteration.
+	 */
+	private static final int LANES = SPECIES.length();
+
+	/**
+	 * The number of 4 pixel blocks drawn per iteration.
+	 */
+	private static final int BLOCKS = LANES / 4;
+
+	/**
+	 * Handles the pixels which don't fill a vector.
+	 */
+	private final ScanlineKernel scalar = new ScalarScanlineKernel();
+
+	/**
+	 * The index of each lane.
+	 */
+	private final IntVector lane;
+
+	/**
+	 * The index of the block each lane belongs to, plus one.
+	 */
+	private final IntVector laneBlock;
+
+	/**
+	 * Selects the lanes of each block.
+	 */
+	private final VectorMask<Integer>[] blockMasks;
+
+	/**
+	 * Constructs a new vector kernel.
+	 *
+	 * @throws UnsupportedOperationException if the platform vectors can't hold whole 4 pixel blocks.
+	 */
+	@SuppressWarnings("unchecked")
+	VectorScanlineKernel() {
+		if (LANES < 4 || LANES % 4 != 0) {
+			throw new UnsupportedOperationException("unsupported vector length: " + LANES);
+		}
+
+		this.lane = IntVector.zero(SPECIES).addIndex(1);
+		this.laneBlock = this.lane.lanewise(VectorOperators.ASHR, 2).add(1);
+		this.blockMasks = (VectorMask<Integer>[]) new VectorMask<?>[BLOCKS];
+
+		for (int b = 0; b < BLOCKS; b++) {
+			this.blockMasks[b] = this.laneBlock.compare(VectorOperators.EQ, b + 1);
+		}
+	}
+
+	@Override
+	public void fillDepth(int[] dst, int[] depthBuffer, int off, int length, int z, int zSlope, int rgb) {
+		int bound = SPECIES.loopBound(length);
+
+		if (bound > 0) {
+			IntVector color = IntVector.broadcast(SPECIES, rgb);
+			IntVector depth = this.lane.mul(zSlope).add(z);
+			int step = zSlope * LANES;
+
+			for (int i = 0; i < bound; i += LANES) {
+				IntVector old = IntVector.fromArray(SPECIES, depthBuffer, off + i);
+				VectorMask<Integer> visible = depth.compare(VectorOperators.LE, old);
+				old.blend(depth, visible).intoArray(depthBuffer, off + i);
+				IntVector.fromArray(SPECIES, dst, off + i).blend(color, visible).intoArray(dst, off + i);
+				depth = depth.add(step);
+			}
+		}
+
+		this.scalar.fillDepth(dst, depthBuffer, off + bound, length - bound, z + bound * zSlope, zSlope, rgb);
+	}
+
+	@Override
+	public void blendDepth(int[] dst, int[] depthBuffer, int off, int length, int z, int zSlope, int rgb, int alpha) {
+		int bound = SPECIES.loopBound(length);
+
+		if (bound > 0) {
+			IntVector depth = this.lane.mul(zSlope).add(z);
+			int step = zSlope * LANES;
+
+			for (int i = 0; i < bound; i += LANES) {
+				IntVector old = IntVector.fromArray(SPECIES, depthBuffer, off + i);
+				VectorMask<Integer> visible = depth.compare(VectorOperators.LE, old);
+				old.blend(depth, visible).intoArray(depthBuffer, off + i);
+				IntVector pixels = IntVector.fromArray(SPECIES, dst, off + i);
+				pixels.blend(composite(pixels, rgb, alpha), visible).intoArray(dst, off + i);
+				depth = depth.add(step);
+			}
+		}
+
+		this.scalar.blendDepth(dst, depthBuffer, off + bound, length - bound, z + bound * zSlope, zSlope, rgb, alpha);
+	}
+
+	@Override
+	public void fillShadedDepth(int[] dst, int[] depthBuffer, int[] palette, int off, int blocks, int color, int colorSlope, int z, int zSlope) {
+		int bound = blocks - blocks % BLOCKS;
+
+		if (bound > 0) {
+			IntVector depthStep = this.laneBlock.mul(zSlope);
+
+			for (int b = 0; b < bound; b += BLOCKS) {
+				IntVector rgb = IntVector.broadcast(SPECIES, palette[color >> 8]);
+
+				for (int i = 1; i < BLOCKS; i++) {
+					rgb = rgb.blend(palette[color + i * colorSlope >> 8], this.blockMasks[i]);
+				}
+
+				IntVector depth = depthStep.add(z);
+				IntVector old = IntVector.fromArray(SPECIES, depthBuffer, off);
+				VectorMask<Integer> visible = depth.compare(VectorOperators.LE, old);
+				IntVector.fromArray(SPECIES, dst, off).blend(rgb, visible).intoArray(dst, off);
+				old.blend(depth, visible).intoArray(depthBuffer, off);
+
+				color += colorSlope * BLOCKS;
+				z += zSlope * BLOCKS;
+				off += LANES;
+			}
+		}
+
+		this.scalar.fillShadedDepth(dst, depthBuffer, palette, off, blocks - bound, color, colorSlope, z, zSlope);
+	}
+
+	@Override
+	public void blendShaded(int[] dst, int[] palette, int off, int blocks, int color, int colorSlope, int alpha) {
+		int bound = blocks - blocks % BLOCKS;
+		int a1 = 256 - alpha;
+
+		for (int b = 0; b < bound; b += BLOCKS) {
+			IntVector rgb = IntVector.broadcast(SPECIES, palette[color >> 8]);
+
+			for (int i = 1; i < BLOCKS; i++) {
+				rgb = rgb.blend(palette[color + i * colorSlope >> 8], this.blockMasks[i]);
+			}
+
+			rgb = scale(rgb, a1);
+			rgb.add(scale(IntVector.fromArray(SPECIES, dst, off), alpha)).intoArray(dst, off);
+
+			color += colorSlope * BLOCKS;
+			off += LANES;
+		}
+
+		this.scalar.blendShaded(dst, palette, off, blocks - bound, color, colorSlope, alpha);
+	}
+
+	/**
+	 * Blends a premultiplied color over the destination pixels.
+	 *
+	 * @param dst the destination pixels.
+	 * @param rgb the color, already multiplied by {@code 256 - alpha}.
+	 * @param alpha the alpha of the destination.
+	 * @return the blended pixels.
+	 */
+	private static IntVector composite(IntVector dst, int rgb, int alpha) {
+		return scale(dst, alpha).add(rgb);
+	}
+
+	/**
+	 * Multiplies the red, green and blue channels of each pixel by an 8 bit fraction, the same way the scalar loops
+	 * do.
+	 *
+	 * @param rgb the pixels.
+	 * @param alpha the fraction out of 256.
+	 * @return the scaled pixels.
+	 */
+	private static IntVector scale(IntVector rgb, int alpha) {
+		IntVector rb = rgb.and(0xFF00FF).mul(alpha).lanewise(VectorOperators.ASHR, 8).and(0xFF00FF);
+		IntVector g = rgb.and(0xFF00).mul(alpha).lanewise(VectorOperators.ASHR, 8).and(0xFF00);
+		return rb.add(g);
+	}
+
+}
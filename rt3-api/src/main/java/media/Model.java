@@ -1,7 +1,8 @@
 package media;
 
 import image.Graphics3D;
-import image.Graphics2D;
+import image.RenderContext;
+import image.TileRasterizer;
 
 import java.util.Arrays;
 
@@ -29,11 +30,6 @@ import java.util.Arrays;
  */
 public class Model {
 
-    /**
-     * The number of triangles drawn in the last frame.
-     */
-    public static int frameTriangleCount;
-
     /**
      * Used to check if the mouse is within a triangle for input on a model.
      */
@@ -67,49 +63,15 @@ public class Model {
     public static final int MAX_VERTEX_COUNT = 1024 * 16;
 
     /**
-     * Determines whether the scanlines a triangle produces should be clamped on the screen.
-     */
-    public static boolean[] testTriangleX = new boolean[MAX_TRIANGLE_COUNT];
-
-    /**
-     * Determines whether the triangles should be z corrected.
-     */
-    public static boolean[] correctTriangleZ = new boolean[MAX_TRIANGLE_COUNT];
-
-    /**
-     * The horizontal position of a vertex on the screen.
-     */
-    public static int[] vertexScreenX = new int[MAX_VERTEX_COUNT];
-
-    /**
-     * The vertical position of a vertex on the screen.
-     */
-    public static int[] vertexScreenY = new int[MAX_VERTEX_COUNT];
-
-    /**
-     * The distance of a vertex from the screen.
+     * The furthest from the origin a screen position can be for a triangle to be culled horizontally. Beyond this the
+     * 16.16 edge slopes can overflow, and a triangle that's entirely off screen can wrap back on to it.
      */
-    public static int[] vertexDepth = new int[MAX_VERTEX_COUNT];
-
-    /**
-     * The transformed x component of a vertex.
-     */
-    public static int[] vertexProjectX = new int[MAX_VERTEX_COUNT];
+    public static final int CULL_LIMIT = 1 << 14;
 
     /**
      * The texture render types for OSRS, currently unused
      */
-
     public static byte[] textureRenderTypes = new byte[MAX_TRIANGLE_COUNT];
-    /**
-     * The transformed y component of a vertex.
-     */
-    public static int[] vertexProjectY = new int[MAX_VERTEX_COUNT];
-
-    /**
-     * The corrected vertex components.
-     */
-    public static int[] tmpX = new int[4], tmpY = new int[4], tmpZ = new int[4], tmpColor = new int[4];
 
     /**
      * A 16.16 fixed point sine lookup table.
@@ -121,11 +83,6 @@ public class Model {
      */
     public static int[] cos = Graphics3D.cos;
 
-    /**
-     * A hsl to rgb lookup table.
-     */
-    public static int[] palette = Graphics3D.palette;
-
     /**
      * A 16.16 fixed point fraction lookup table.
      */
@@ -144,6 +101,8 @@ public class Model {
      * Scales the model
      */
     public void scale(int x, int z, int y) {
+        boundsCalculated = false;
+
         for (int v = 0; v < vertexCount; v++) {
             vertexX[v] = (vertexX[v] * x) / 128;
             vertexY[v] = (vertexY[v] * z) / 128;
@@ -303,20 +262,30 @@ public class Model {
 
     public int boundLengthXZ;
 
+    /**
+     * Whether the boundaries have been calculated since the vertices last changed.
+     */
+    boolean boundsCalculated;
+
     /**
      * The depth boundaries. (Currently unused due to zbuffer)
      */
     public int maxDepth, minDepth;
 
     /**
-     * The normals for each vertex.
+     * The summed face normals of each vertex. Reused between lighting passes.
      */
-    public Normal[] normals;
+    public int[] normalX, normalY, normalZ;
+
+    /**
+     * The number of faces summed into each vertex normal.
+     */
+    public int[] normalMagnitude;
 
     /**
      * The copies of the original normals for each vertex.
      */
-    public Normal[] unmodifiedNormals;
+    public int[] unmodifiedNormalX, unmodifiedNormalY, unmodifiedNormalZ, unmodifiedNormalMagnitude;
 
     /**
      * Constructs a new empty model.
@@ -353,6 +322,7 @@ public class Model {
      * @param count the count.
      */
     public void setVertexCount(int count) {
+        this.boundsCalculated = false;
         this.vertexCount = count;
         this.vertexX = new int[count];
         this.vertexY = new int[count];
@@ -380,7 +350,8 @@ public class Model {
      * @param z the z.
      * @return the vertex index.
      */
-    public final int setVertex(int index, int x, int y, int z) {
+    public int setVertex(int index, int x, int y, int z) {
+        boundsCalculated = false;
         vertexX[index] = x;
         vertexY[index] = y;
         vertexZ[index] = z;
@@ -396,7 +367,7 @@ public class Model {
      * @param c the third vertex.
      * @return the triangle index.
      */
-    public final int setTriangle(int index, int a, int b, int c) {
+    public int setTriangle(int index, int a, int b, int c) {
         triangleVertexA[index] = a;
         triangleVertexB[index] = b;
         triangleVertexC[index] = c;
@@ -418,17 +389,46 @@ public class Model {
         }
     }
 
+    /**
+     * Makes sure there's a normal for every vertex, allocating only when there are more vertices than before, and
+     * clears them so the next pass sums from zero.
+     */
+    private void resetNormals() {
+        if (normalX == null || normalX.length < vertexCount) {
+            normalX = new int[vertexCount];
+            normalY = new int[vertexCount];
+            normalZ = new int[vertexCount];
+            normalMagnitude = new int[vertexCount];
+            return;
+        }
+
+        Arrays.fill(normalX, 0, vertexCount, 0);
+        Arrays.fill(normalY, 0, vertexCount, 0);
+        Arrays.fill(normalZ, 0, vertexCount, 0);
+        Arrays.fill(normalMagnitude, 0, vertexCount, 0);
+    }
+
+    /**
+     * Makes sure there's a lit color for every triangle, allocating only when there are more triangles than before.
+     */
+    private void ensureColorCapacity() {
+        if (colorA == null || colorA.length < triangleCount) {
+            colorA = new int[triangleCount];
+            colorB = new int[triangleCount];
+            colorC = new int[triangleCount];
+        }
+    }
+
     /**
      * Calculates the normals.
      */
     public final void calculateNormals() {
-        if (normals == null) {
-            normals = new Normal[vertexCount];
+        resetNormals();
 
-            for (int n = 0; n < vertexCount; n++) {
-                normals[n] = new Normal();
-            }
-        }
+        final int[] normalX = this.normalX;
+        final int[] normalY = this.normalY;
+        final int[] normalZ = this.normalZ;
+        final int[] normalMagnitude = this.normalMagnitude;
 
         for (int t = 0; t < triangleCount; t++) {
             int a = triangleVertexA[t];
@@ -466,23 +466,20 @@ public class Model {
             lZ = (lZ * 256) / length;
 
             if (triangleType == null || (triangleType[t] & 0x1) == 0) {
-                Normal n = normals[a];
-                n.x += lX;
-                n.y += lY;
-                n.z += lZ;
-                n.magnitude++;
-
-                n = normals[b];
-                n.x += lX;
-                n.y += lY;
-                n.z += lZ;
-                n.magnitude++;
-
-                n = normals[c];
-                n.x += lX;
-                n.y += lY;
-                n.z += lZ;
-                n.magnitude++;
+                normalX[a] += lX;
+                normalY[a] += lY;
+                normalZ[a] += lZ;
+                normalMagnitude[a]++;
+
+                normalX[b] += lX;
+                normalY[b] += lY;
+                normalZ[b] += lZ;
+                normalMagnitude[b]++;
+
+                normalX[c] += lX;
+                normalY[c] += lY;
+                normalZ[c] += lZ;
+                normalMagnitude[c]++;
             }
         }
     }
@@ -501,19 +498,13 @@ public class Model {
         int lightMagnitude = (int) Math.sqrt((double) (x * x + y * y + z * z));
         int lightIntensity = intensity * lightMagnitude >> 8;
 
-        if (colorA == null) {
-            colorA = new int[triangleCount];
-            colorB = new int[triangleCount];
-            colorC = new int[triangleCount];
-        }
-
-        if (normals == null) {
-            normals = new Normal[vertexCount];
+        ensureColorCapacity();
+        resetNormals();
 
-            for (int n = 0; n < vertexCount; n++) {
-                normals[n] = new Normal();
-            }
-        }
+        final int[] normalX = this.normalX;
+        final int[] normalY = this.normalY;
+        final int[] normalZ = this.normalZ;
+        final int[] normalMagnitude = this.normalMagnitude;
 
         for (int t = 0; t < triangleCount; t++) {
             int a = triangleVertexA[t];
@@ -551,23 +542,20 @@ public class Model {
             lZ = (lZ * 256) / length;
 
             if (triangleType == null || (triangleType[t] & 0x1) == 0) {
-                Normal n = normals[a];
-                n.x += lX;
-                n.y += lY;
-                n.z += lZ;
-                n.magnitude++;
-
-                n = normals[b];
-                n.x += lX;
-                n.y += lY;
-                n.z += lZ;
-                n.magnitude++;
-
-                n = normals[c];
-                n.x += lX;
-                n.y += lY;
-                n.z += lZ;
-                n.magnitude++;
+                normalX[a] += lX;
+                normalY[a] += lY;
+                normalZ[a] += lZ;
+                normalMagnitude[a]++;
+
+                normalX[b] += lX;
+                normalY[b] += lY;
+                normalZ[b] += lZ;
+                normalMagnitude[b]++;
+
+                normalX[c] += lX;
+                normalY[c] += lY;
+                normalZ[c] += lZ;
+                normalMagnitude[c]++;
             } else {
                 int lightness = minIntensity + (x * lX + y * lY + z * lZ) / (lightIntensity + lightIntensity / 2);
                 colorA[t] = adjustTriangleHSLLightness(triangleColor[t], lightness, triangleType[t]);
@@ -577,16 +565,17 @@ public class Model {
         if (apply) {
             calculateLighting(minIntensity, lightIntensity, x, y, z);
         } else {
-            unmodifiedNormals = new Normal[vertexCount];
-
-            for (int v = 0; v < vertexCount; v++) {
-                Normal current = normals[v];
-                Normal copy = unmodifiedNormals[v] = new Normal();
-                copy.x = current.x;
-                copy.y = current.y;
-                copy.z = current.z;
-                copy.magnitude = current.magnitude;
+            if (unmodifiedNormalX == null || unmodifiedNormalX.length < vertexCount) {
+                unmodifiedNormalX = new int[vertexCount];
+                unmodifiedNormalY = new int[vertexCount];
+                unmodifiedNormalZ = new int[vertexCount];
+                unmodifiedNormalMagnitude = new int[vertexCount];
             }
+
+            System.arraycopy(normalX, 0, unmodifiedNormalX, 0, vertexCount);
+            System.arraycopy(normalY, 0, unmodifiedNormalY, 0, vertexCount);
+            System.arraycopy(normalZ, 0, unmodifiedNormalZ, 0, vertexCount);
+            System.arraycopy(normalMagnitude, 0, unmodifiedNormalMagnitude, 0, vertexCount);
         }
 
         if (apply) {
@@ -606,11 +595,12 @@ public class Model {
      * @param z the light source z.
      */
     public final void calculateLighting(int minIntensity, int intensity, int x, int y, int z) {
-        if (colorA == null) {
-            colorA = new int[triangleCount];
-            colorB = new int[triangleCount];
-            colorC = new int[triangleCount];
-        }
+        ensureColorCapacity();
+
+        final int[] normalX = this.normalX;
+        final int[] normalY = this.normalY;
+        final int[] normalZ = this.normalZ;
+        final int[] normalMagnitude = this.normalMagnitude;
 
         for (int t = 0; t < triangleCount; t++) {
             int a = triangleVertexA[t];
@@ -620,33 +610,27 @@ public class Model {
             if (triangleType == null) {
                 int color = triangleColor[t];
 
-                Normal n = normals[a];
-                int lightness = minIntensity + ((x * n.x + y * n.y + z * n.z) / (intensity * n.magnitude));
+                int lightness = minIntensity + ((x * normalX[a] + y * normalY[a] + z * normalZ[a]) / (intensity * normalMagnitude[a]));
 
                 colorA[t] = adjustTriangleHSLLightness(color, lightness, 0);
 
-                n = normals[b];
-                lightness = minIntensity + ((x * n.x + y * n.y + z * n.z) / (intensity * n.magnitude));
+                lightness = minIntensity + ((x * normalX[b] + y * normalY[b] + z * normalZ[b]) / (intensity * normalMagnitude[b]));
                 colorB[t] = adjustTriangleHSLLightness(color, lightness, 0);
 
-                n = normals[c];
-                lightness = minIntensity + ((x * n.x + y * n.y + z * n.z) / (intensity * n.magnitude));
+                lightness = minIntensity + ((x * normalX[c] + y * normalY[c] + z * normalZ[c]) / (intensity * normalMagnitude[c]));
                 colorC[t] = adjustTriangleHSLLightness(color, lightness, 0);
             } else if ((triangleType[t] & 0x1) == 0) {
                 int color = triangleColor[t];
                 int info = triangleType[t];
                 int lightness;
 
-                Normal n = normals[a];
-                lightness = minIntensity + ((x * n.x + y * n.y + z * n.z) / (intensity * n.magnitude));
+                lightness = minIntensity + ((x * normalX[a] + y * normalY[a] + z * normalZ[a]) / (intensity * normalMagnitude[a]));
                 colorA[t] = adjustTriangleHSLLightness(color, lightness, info);
 
-                n = normals[b];
-                lightness = minIntensity + ((x * n.x + y * n.y + z * n.z) / (intensity * n.magnitude));
+                lightness = minIntensity + ((x * normalX[b] + y * normalY[b] + z * normalZ[b]) / (intensity * normalMagnitude[b]));
                 colorB[t] = adjustTriangleHSLLightness(color, lightness, info);
 
-                n = normals[c];
-                lightness = minIntensity + ((x * n.x + y * n.y + z * n.z) / (intensity * n.magnitude));
+                lightness = minIntensity + ((x * normalX[c] + y * normalY[c] + z * normalZ[c]) / (intensity * normalMagnitude[c]));
                 colorC[t] = adjustTriangleHSLLightness(color, lightness, info);
             }
         }
@@ -684,6 +668,7 @@ public class Model {
         boundLengthXZ = (int) Math.sqrt((double) boundLengthXZ);
         maxDepth = (int) Math.sqrt((double) (boundLengthXZ * boundLengthXZ + maxBoundY * maxBoundY));
         minDepth = maxDepth + (int) Math.sqrt((double) (boundLengthXZ * boundLengthXZ + minBoundY * minBoundY));
+        boundsCalculated = true;
     }
 
     /**
@@ -741,6 +726,7 @@ public class Model {
         boundLengthXZ = (int) Math.sqrt((double) boundLengthXZ);
         maxDepth = (int) Math.sqrt((double) (boundLengthXZ * boundLengthXZ + maxBoundY * maxBoundY));
         minDepth = maxDepth + (int) Math.sqrt((double) (boundLengthXZ * boundLengthXZ + minBoundY * minBoundY));
+        boundsCalculated = true;
     }
 
     /**
@@ -751,6 +737,8 @@ public class Model {
      * @param z the z.
      */
     public void translate(int x, int y, int z) {
+        this.boundsCalculated = false;
+
         for (int v = 0; v < this.vertexCount; v++) {
             this.vertexX[v] += x;
             this.vertexY[v] += y;
@@ -771,8 +759,35 @@ public class Model {
      * @param cameraPitch the camera pitch.
      */
     public void draw(int pitch, int yaw, int roll, int eyePitch, int sceneX, int sceneY, int sceneZ) {
-        final int centerX = Graphics3D.centerX;
-        final int centerY = Graphics3D.centerY;
+        draw(RenderContext.DEFAULT, pitch, yaw, roll, eyePitch, sceneX, sceneY, sceneZ);
+    }
+
+    /**
+     * Draws this model that does not take input and ignores NearZ/FarZ constants. (<b>Warning:</b> not for drawing
+     * models on a scene.)
+     *
+     * @param ctx the context to draw into.
+     * @param pitch the pitch.
+     * @param yaw the yaw.
+     * @param roll the roll.
+     * @param sceneX the camera x.
+     * @param sceneY the camera y.
+     * @param sceneZ the camera z.
+     * @param cameraPitch the camera pitch.
+     */
+    public void draw(RenderContext ctx, int pitch, int yaw, int roll, int eyePitch, int sceneX, int sceneY, int sceneZ) {
+        if (isOffScreen(ctx, eyePitch, sceneX, sceneY, sceneZ)) {
+            ctx.culledModelCount++;
+            return;
+        }
+
+        ctx.ensureVertexCapacity(vertexCount);
+        final int[] vertexScreenX = ctx.vertexScreenX;
+        final int[] vertexScreenY = ctx.vertexScreenY;
+        final int[] vertexDepth = ctx.vertexDepth;
+
+        final int centerX = ctx.centerX;
+        final int centerY = ctx.centerY;
 
         int pitchSine = sin[pitch];
         int pitchCosine = cos[pitch];
@@ -825,12 +840,97 @@ public class Model {
             vertexScreenY[v] = centerY + (y << 9) / z;
         }
 
-        draw(0, false, false);
+        draw(ctx, 0, false, false);
+    }
+
+    /**
+     * Returns whether nothing would be drawn by {@link #drawSimple} or the equivalent {@code draw}, going by the bounding
+     * sphere of this model. The sphere must be entirely in front of the camera, since vertices behind it are still
+     * projected, and its projection must lie entirely outside the clip. Always {@code false} when the boundaries
+     * haven't been calculated since the vertices last changed.
+     *
+     * @param ctx the context to draw into.
+     * @param eyePitch the camera pitch.
+     * @param eyeX the camera x.
+     * @param eyeY the camera y.
+     * @param eyeZ the camera z.
+     * @return {@code true} if the model can be skipped.
+     */
+    private boolean isOffScreen(RenderContext ctx, int eyePitch, int eyeX, int eyeY, int eyeZ) {
+        if (!boundsCalculated) {
+            return false;
+        }
+
+        int height = Math.max(maxBoundY, minBoundY);
+
+        // padded for the rounding each fixed point rotation adds to the vertices
+        int radius = (int) Math.sqrt((double) boundLengthXZ * boundLengthXZ + (double) height * height) + 8;
+
+        int sinEyePitch = sin[eyePitch];
+        int cosEyePitch = cos[eyePitch];
+        int x = eyeX;
+        int y = ((eyeY * cosEyePitch) - (eyeZ * sinEyePitch)) >> 16;
+        int z = ((eyeY * sinEyePitch) + (eyeZ * cosEyePitch)) >> 16;
+
+        int nearZ = z - radius;
+        int farZ = z + radius;
+
+        if (nearZ < 1) {
+            return false;
+        }
+
+        // the extremes of (x << 9) / z over the box around the sphere
+        int minX = ctx.centerX + ((x - radius) << 9) / (x - radius <= 0 ? nearZ : farZ);
+        int maxX = ctx.centerX + ((x + radius) << 9) / (x + radius >= 0 ? nearZ : farZ);
+        int minY = ctx.centerY + ((y - radius) << 9) / (y - radius <= 0 ? nearZ : farZ);
+        int maxY = ctx.centerY + ((y + radius) << 9) / (y + radius >= 0 ? nearZ : farZ);
+
+        if (maxY <= 0 || minY >= ctx.bottom) {
+            return true;
+        }
+        return (maxX <= 0 || minX >= ctx.rightX) && minX > -CULL_LIMIT && maxX < CULL_LIMIT;
+    }
+
+    /**
+     * Returns whether a triangle lies entirely outside the clip, meaning the rasterizer would draw nothing for it.
+     *
+     * @param ctx the context to draw into.
+     * @param xA the x of a.
+     * @param xB the x of b.
+     * @param xC the x of c.
+     * @param yA the y of a.
+     * @param yB the y of b.
+     * @param yC the y of c.
+     * @return {@code true} if the triangle can be skipped.
+     */
+    private static boolean isOutside(RenderContext ctx, int xA, int xB, int xC, int yA, int yB, int yC) {
+        if ((yA <= 0 && yB <= 0 && yC <= 0) || (yA >= ctx.bottom && yB >= ctx.bottom && yC >= ctx.bottom)) {
+            return true;
+        }
+
+        if (xA <= -CULL_LIMIT || xB <= -CULL_LIMIT || xC <= -CULL_LIMIT || xA >= CULL_LIMIT || xB >= CULL_LIMIT || xC >= CULL_LIMIT) {
+            return false;
+        }
+        return (xA <= 0 && xB <= 0 && xC <= 0) || (xA >= ctx.rightX && xB >= ctx.rightX && xC >= ctx.rightX);
     }
 
     public void drawSimple(int pitch, int yaw, int roll, int eyePitch, int eyeX, int eyeY, int eyeZ) {
-        int centerX = Graphics3D.centerX;
-        int centerY = Graphics3D.centerY;
+        drawSimple(RenderContext.DEFAULT, pitch, yaw, roll, eyePitch, eyeX, eyeY, eyeZ);
+    }
+
+    public void drawSimple(RenderContext ctx, int pitch, int yaw, int roll, int eyePitch, int eyeX, int eyeY, int eyeZ) {
+        if (isOffScreen(ctx, eyePitch, eyeX, eyeY, eyeZ)) {
+            ctx.culledModelCount++;
+            return;
+        }
+
+        ctx.ensureVertexCapacity(vertexCount);
+        final int[] vertexScreenX = ctx.vertexScreenX;
+        final int[] vertexScreenY = ctx.vertexScreenY;
+        final int[] vertexDepth = ctx.vertexDepth;
+
+        int centerX = ctx.centerX;
+        int centerY = ctx.centerY;
         int sinPitch = sin[pitch];
         int cosPitch = cos[pitch];
         int sinYaw = sin[yaw];
@@ -888,7 +988,7 @@ public class Model {
 
         }
         try {
-            draw(0, false, false);
+            draw(ctx, 0, false, false);
         } catch (Exception ignored) {
         }
     }
@@ -909,6 +1009,32 @@ public class Model {
      * @param bitset the model bitset. (Used to identify model in the case of input)
      */
     public void draw(int pitch, int yaw, int cameraPitchSine, int cameraPitchCosine, int cameraYawSine, int cameraYawCosine, int sceneX, int sceneY, int sceneZ, int bitset) {
+        draw(RenderContext.DEFAULT, pitch, yaw, cameraPitchSine, cameraPitchCosine, cameraYawSine, cameraYawCosine, sceneX, sceneY, sceneZ, bitset);
+    }
+
+    /**
+     * Draws the model.
+     *
+     * @param ctx the context to draw into.
+     * @param pitch the model pitch.
+     * @param yaw the model yaw.
+     * @param cameraPitchSine the camera pitch sine.
+     * @param cameraPitchCosine the camera pitch cosine.
+     * @param cameraYawSine the camera yaw sine.
+     * @param cameraYawCosine the camera yaw cosine.
+     * @param sceneX the scene x.
+     * @param sceneY the scene y.
+     * @param sceneZ the scene z.
+     * @param bitset the model bitset. (Used to identify model in the case of input)
+     */
+    public void draw(RenderContext ctx, int pitch, int yaw, int cameraPitchSine, int cameraPitchCosine, int cameraYawSine, int cameraYawCosine, int sceneX, int sceneY, int sceneZ, int bitset) {
+        ctx.ensureVertexCapacity(vertexCount);
+        final int[] vertexScreenX = ctx.vertexScreenX;
+        final int[] vertexScreenY = ctx.vertexScreenY;
+        final int[] vertexDepth = ctx.vertexDepth;
+        final int[] vertexProjectX = ctx.vertexProjectX;
+        final int[] vertexProjectY = ctx.vertexProjectY;
+
         int a = sceneZ * cameraYawCosine - sceneX * cameraYawSine >> 16;
         int farZ = sceneY * cameraPitchSine + a * cameraPitchCosine >> 16;
         int c = boundLengthXZ * cameraPitchCosine >> 16;
@@ -923,13 +1049,13 @@ public class Model {
 
         int minX = e - boundLengthXZ << 9;
 
-        if (minX / nearZ >= Graphics2D.halfWidth) {
+        if (minX / nearZ >= ctx.halfWidth) {
             return;
         }
 
         int maxX = e + boundLengthXZ << 9;
 
-        if (maxX / nearZ <= -Graphics2D.halfWidth) {
+        if (maxX / nearZ <= -ctx.halfWidth) {
             return;
         }
 
@@ -938,14 +1064,14 @@ public class Model {
 
         int maxY = h + i << 9;
 
-        if (maxY / nearZ <= -Graphics2D.halfHeight) {
+        if (maxY / nearZ <= -ctx.halfHeight) {
             return;
         }
 
         int k = i + (maxBoundY * cameraPitchCosine >> 16);
         int minY = h - k << 9;
 
-        if (minY / nearZ >= Graphics2D.halfHeight) {
+        if (minY / nearZ >= ctx.halfHeight) {
             return;
         }
 
@@ -981,16 +1107,16 @@ public class Model {
                 minY /= maxZ;
             }
 
-            int x = mouseX - Graphics3D.centerX;
-            int y = mouseY - Graphics3D.centerY;
+            int x = mouseX - ctx.centerX;
+            int y = mouseY - ctx.centerY;
 
             if (x > minX && x < maxX && y > minY && y < maxY) {
                 hasInput = true;
             }
         }
 
-        int centerX = Graphics3D.centerX;
-        int centerY = Graphics3D.centerY;
+        int centerX = ctx.centerX;
+        int centerY = ctx.centerY;
 
         int pitchSine = 0;
         int pitchCosine = 0;
@@ -1054,7 +1180,7 @@ public class Model {
         }
 
         try {
-            draw(bitset, project, hasInput);
+            draw(ctx, bitset, project, hasInput);
         } catch (Exception ex) {
 
         }
@@ -1064,11 +1190,23 @@ public class Model {
     /**
      * Draws the model after checking for z correction, input, and sufficient triangle area.
      *
+     * @param ctx the context to draw into.
      * @param bitset the model bitset. (For input)
      * @param projected whether the model has corrected triangles.
      * @param hasInput whether the model can take input.
      */
-    private void draw(int bitset, boolean projected, boolean hasInput) {
+    private void draw(RenderContext ctx, int bitset, boolean projected, boolean hasInput) {
+        ctx.ensureTriangleCapacity(triangleCount);
+        final int[] vertexScreenX = ctx.vertexScreenX;
+        final int[] vertexScreenY = ctx.vertexScreenY;
+        final boolean[] testTriangleX = ctx.testTriangleX;
+        final boolean[] correctTriangleZ = ctx.correctTriangleZ;
+        final TileRasterizer tiles = ctx.tiles != null && ctx.tiles.accepts(triangleCount) ? ctx.tiles : null;
+
+        if (tiles != null) {
+            tiles.reset();
+        }
+
         for (int t = 0; t < triangleCount; t++) {
             if (triangleType == null || triangleType[t] != -1) {
                 int a = triangleVertexA[t];
@@ -1080,7 +1218,7 @@ public class Model {
 
                 if (projected && (xA == -5000 || xB == -5000 || xC == -5000)) {
                     correctTriangleZ[t] = true;
-                    drawTriangle(t);
+                    submitTriangle(ctx, tiles, t);
                 } else {
                     if (hasInput && withinTriangle(mouseX, mouseY, vertexScreenY[a], vertexScreenY[b], vertexScreenY[c], xA, xB, xC)) {
                         //hoveredBitsets[hoverCount++] = bitset;
@@ -1092,36 +1230,83 @@ public class Model {
 
                     // change to > 0 to only allow front faces, < 0 for back faces, and != 0 for both faces.
                     if (area > 0) {
+                        int yA = vertexScreenY[a];
+                        int yB = vertexScreenY[b];
+                        int yC = vertexScreenY[c];
+
+                        // scanlines cover [min, max) on both axes, so a triangle outside the clip draws nothing
+                        if (isOutside(ctx, xA, xB, xC, yA, yB, yC)) {
+                            ctx.culledTriangleCount++;
+                            continue;
+                        }
+
                         correctTriangleZ[t] = false;
-                        testTriangleX[t] = xA < 0 || xB < 0 || xC < 0 || xA > Graphics2D.rightX || xB > Graphics2D.rightX || xC > Graphics2D.rightX;
-                        drawTriangle(t);
+                        testTriangleX[t] = xA < 0 || xB < 0 || xC < 0 || xA > ctx.rightX || xB > ctx.rightX || xC > ctx.rightX;
+                        submitTriangle(ctx, tiles, t);
                     }
                 }
             }
         }
+
+        if (tiles != null) {
+            ctx.frameTriangleCount += tiles.rasterize(ctx, this::drawTriangle);
+        }
+    }
+
+    /**
+     * Draws the triangle, or submits it to be drawn later if the model is being tiled.
+     *
+     * @param ctx the context to draw into.
+     * @param tiles the tile rasterizer, or {@code null} to draw the triangle immediately.
+     * @param index the triangle index.
+     */
+    private void submitTriangle(RenderContext ctx, TileRasterizer tiles, int index) {
+        if (tiles == null) {
+            drawTriangle(ctx, index);
+            return;
+        }
+
+        // corrected triangles are reprojected when drawn, so we can't tell which rows they cover yet
+        if (ctx.correctTriangleZ[index]) {
+            tiles.submit(index, Integer.MIN_VALUE, Integer.MAX_VALUE);
+            return;
+        }
+
+        final int[] vertexScreenY = ctx.vertexScreenY;
+        int yA = vertexScreenY[triangleVertexA[index]];
+        int yB = vertexScreenY[triangleVertexB[index]];
+        int yC = vertexScreenY[triangleVertexC[index]];
+        tiles.submit(index, Math.min(yA, Math.min(yB, yC)), Math.max(yA, Math.max(yB, yC)));
     }
 
     /**
      * Draws the triangle.
      *
+     * @param ctx the context to draw into.
      * @param index the triangle index.
      */
-    private void drawTriangle(int index) {
-        frameTriangleCount++;
+    private void drawTriangle(RenderContext ctx, int index) {
+        final int[] vertexScreenX = ctx.vertexScreenX;
+        final int[] vertexScreenY = ctx.vertexScreenY;
+        final int[] vertexDepth = ctx.vertexDepth;
+        final boolean[] testTriangleX = ctx.testTriangleX;
+        final boolean[] correctTriangleZ = ctx.correctTriangleZ;
+
+        ctx.frameTriangleCount++;
 
         if (correctTriangleZ[index]) {
-            drawCorrectedTriangle(index);
+            drawCorrectedTriangle(ctx, index);
         } else {
             int a = triangleVertexA[index];
             int b = triangleVertexB[index];
             int c = triangleVertexC[index];
 
-            Graphics3D.testX = testTriangleX[index];
+            ctx.testX = testTriangleX[index];
 
             if (triangleAlpha == null) {
-                Graphics3D.alpha = 0;
+                ctx.alpha = 0;
             } else {
-                Graphics3D.alpha = triangleAlpha[index];
+                ctx.alpha = triangleAlpha[index];
             }
 
             int type;
@@ -1133,9 +1318,9 @@ public class Model {
             }
 
             if (type == 0) {
-                Graphics3D.fillShadedTriangleDepth(vertexScreenX[a], vertexScreenY[a], vertexDepth[a], vertexScreenX[b], vertexScreenY[b], vertexDepth[b], vertexScreenX[c], vertexScreenY[c], vertexDepth[c], colorA[index], colorB[index], colorC[index]);
+                Graphics3D.fillShadedTriangleDepth(ctx, vertexScreenX[a], vertexScreenY[a], vertexDepth[a], vertexScreenX[b], vertexScreenY[b], vertexDepth[b], vertexScreenX[c], vertexScreenY[c], vertexDepth[c], colorA[index], colorB[index], colorC[index]);
             } else if (type == 1) {
-                Graphics3D.fillTriangleDepth(vertexScreenX[a], vertexScreenY[a], vertexDepth[a], vertexScreenX[b], vertexScreenY[b], vertexDepth[b], vertexScreenX[c], vertexScreenY[c], vertexDepth[c], palette[colorA[index]]);
+                Graphics3D.fillTriangleDepth(ctx, vertexScreenX[a], vertexScreenY[a], vertexDepth[a], vertexScreenX[b], vertexScreenY[b], vertexDepth[b], vertexScreenX[c], vertexScreenY[c], vertexDepth[c], ctx.palette[colorA[index]]);
             }
         }
     }
@@ -1143,11 +1328,22 @@ public class Model {
     /**
      * Draws the corrected triangle.
      *
+     * @param ctx the context to draw into.
      * @param index the triangle index.
      */
-    private void drawCorrectedTriangle(int index) {
-        int cx = Graphics3D.centerX;
-        int cy = Graphics3D.centerY;
+    private void drawCorrectedTriangle(RenderContext ctx, int index) {
+        final int[] vertexScreenX = ctx.vertexScreenX;
+        final int[] vertexScreenY = ctx.vertexScreenY;
+        final int[] vertexDepth = ctx.vertexDepth;
+        final int[] vertexProjectX = ctx.vertexProjectX;
+        final int[] vertexProjectY = ctx.vertexProjectY;
+        final int[] tmpX = ctx.tmpX;
+        final int[] tmpY = ctx.tmpY;
+        final int[] tmpZ = ctx.tmpZ;
+        final int[] tmpColor = ctx.tmpColor;
+
+        int cx = ctx.centerX;
+        int cy = ctx.centerY;
         int n = 0;
 
         int vA = triangleVertexA[index];
@@ -1248,11 +1444,11 @@ public class Model {
         int yC = tmpY[2];
 
         if (((xA - xB) * (yC - yB) - (yA - yB) * (xC - xB)) > 0) {
-            Graphics3D.testX = false;
+            ctx.testX = false;
 
             if (n == 3) {
-                if (xA < 0 || xB < 0 || xC < 0 || xA > Graphics2D.rightX || xB > Graphics2D.rightX || xC > Graphics2D.rightX) {
-                    Graphics3D.testX = true;
+                if (xA < 0 || xB < 0 || xC < 0 || xA > ctx.rightX || xB > ctx.rightX || xC > ctx.rightX) {
+                    ctx.testX = true;
                 }
 
                 int type;
@@ -1264,13 +1460,13 @@ public class Model {
                 }
 
                 if (type == 0) {
-                    Graphics3D.fillShadedTriangleDepth(xA, yA, zA, xB, yB, zB, xC, yC, zC, tmpColor[0], tmpColor[1], tmpColor[2]);
+                    Graphics3D.fillShadedTriangleDepth(ctx, xA, yA, zA, xB, yB, zB, xC, yC, zC, tmpColor[0], tmpColor[1], tmpColor[2]);
                 } else if (type == 1) {
-                    Graphics3D.fillTriangleDepth(xA, yA, zA, xB, yB, zB, xC, yC, zC, palette[colorA[index]]);
+                    Graphics3D.fillTriangleDepth(ctx, xA, yA, zA, xB, yB, zB, xC, yC, zC, ctx.palette[colorA[index]]);
                 }
             } else if (n == 4) {
-                if (xA < 0 || xB < 0 || xC < 0 || xA > Graphics2D.rightX || xB > Graphics2D.rightX || xC > Graphics2D.rightX || tmpX[3] < 0 || tmpX[3] > Graphics2D.rightX) {
-                    Graphics3D.testX = true;
+                if (xA < 0 || xB < 0 || xC < 0 || xA > ctx.rightX || xB > ctx.rightX || xC > ctx.rightX || tmpX[3] < 0 || tmpX[3] > ctx.rightX) {
+                    ctx.testX = true;
                 }
 
                 int type;
@@ -1282,15 +1478,15 @@ public class Model {
                 }
 
                 // one extra
-                frameTriangleCount++;
+                ctx.frameTriangleCount++;
 
                 if (type == 0) {
-                    Graphics3D.fillShadedTriangleDepth(xA, yA, zA, xB, yB, zB, xC, yC, zC, tmpColor[0], tmpColor[1], tmpColor[2]);
-                    Graphics3D.fillShadedTriangleDepth(xA, yA, zA, xC, yC, zC, tmpX[3], tmpY[3], tmpZ[3], tmpColor[0], tmpColor[2], tmpColor[3]);
+                    Graphics3D.fillShadedTriangleDepth(ctx, xA, yA, zA, xB, yB, zB, xC, yC, zC, tmpColor[0], tmpColor[1], tmpColor[2]);
+                    Graphics3D.fillShadedTriangleDepth(ctx, xA, yA, zA, xC, yC, zC, tmpX[3], tmpY[3], tmpZ[3], tmpColor[0], tmpColor[2], tmpColor[3]);
                 } else if (type == 1) {
-                    int rgb = palette[colorA[index]];
-                    Graphics3D.fillTriangleDepth(xA, yA, zA, xB, yB, zB, xC, yC, zC, rgb);
-                    Graphics3D.fillTriangleDepth(xA, yA, zA, xC, yC, zC, tmpX[3], tmpY[3], tmpZ[3], rgb);
+                    int rgb = ctx.palette[colorA[index]];
+                    Graphics3D.fillTriangleDepth(ctx, xA, yA, zA, xB, yB, zB, xC, yC, zC, rgb);
+                    Graphics3D.fillTriangleDepth(ctx, xA, yA, zA, xC, yC, zC, tmpX[3], tmpY[3], tmpZ[3], rgb);
                 }
             }
         }
@@ -0,0 +1,266 @@
+package media;
+
+/*
+ * Copyright (C) 2015 Dane.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+/**
+ * A model which shares the geometry of another and only copies what it changes. Vertices, triangles and colors are
+ * read from the source model until the instance is scaled, translated, flipped or recolored, at which point the
+ * affected arrays are copied. Lighting results and normals always belong to the instance.
+ *
+ * An instance can be pointed at another source with {@link #set(Model)}, which keeps every array it allocated for
+ * reuse. Rendering many models through one instance per thread then allocates nothing once the arrays have grown to
+ * fit the largest model.
+ *
+ * The source model must not be modified while it has instances, which makes this suited to models held in a cache.
+ *
+ * @author Dane
+ */
+public class ModelInstance extends Model {
+
+    /**
+     * The model whose geometry is shared.
+     */
+    private Model source;
+
+    /**
+     * Whether the vertex, triangle and color arrays are the copies below rather than those of the source.
+     */
+    private boolean ownsVertices, ownsTriangles, ownsColors;
+
+    /**
+     * The copied vertex arrays, kept across sources for reuse.
+     */
+    private int[] ownVertexX, ownVertexY, ownVertexZ;
+
+    /**
+     * The copied triangle arrays, kept across sources for reuse.
+     */
+    private int[] ownTriangleVertexA, ownTriangleVertexB, ownTriangleVertexC;
+
+    /**
+     * The copied triangle colors, kept across sources for reuse.
+     */
+    private int[] ownTriangleColor;
+
+    /**
+     * Constructs a new instance of the provided model.
+     *
+     * @param source the model whose geometry is shared.
+     */
+    public ModelInstance(Model source) {
+        set(source);
+    }
+
+    /**
+     * Points this instance at a new source, discarding any changes made to the previous one.
+     *
+     * @param source the model whose geometry is shared.
+     */
+    public void set(Model source) {
+        this.source = source;
+        this.ownsVertices = false;
+        this.ownsTriangles = false;
+        this.ownsColors = false;
+
+        this.vertexCount = source.vertexCount;
+        this.vertexX = source.vertexX;
+        this.vertexY = source.vertexY;
+        this.vertexZ = source.vertexZ;
+
+        this.triangleCount = source.triangleCount;
+        this.triangleVertexA = source.triangleVertexA;
+        this.triangleVertexB = source.triangleVertexB;
+        this.triangleVertexC = source.triangleVertexC;
+        this.triangleColor = source.triangleColor;
+        this.triangleType = source.triangleType;
+        this.trianglePriorities = source.trianglePriorities;
+        this.triangleAlpha = source.triangleAlpha;
+        this.priority = source.priority;
+
+        this.minBoundX = source.minBoundX;
+        this.maxBoundX = source.maxBoundX;
+        this.minBoundZ = source.minBoundZ;
+        this.maxBoundZ = source.maxBoundZ;
+        this.minBoundY = source.minBoundY;
+        this.maxBoundY = source.maxBoundY;
+        this.boundLengthXZ = source.boundLengthXZ;
+        this.maxDepth = source.maxDepth;
+        this.minDepth = source.minDepth;
+        this.boundsCalculated = source.boundsCalculated;
+    }
+
+    /**
+     * Returns the model whose geometry is shared.
+     *
+     * @return the source model.
+     */
+    public Model getSource() {
+        return this.source;
+    }
+
+    @Override
+    public void recolor(int src, int dst) {
+        if (src == dst) {
+            return;
+        }
+
+        // only copy once a triangle actually changes color
+        for (int t = 0; t < triangleCount; t++) {
+            if (triangleColor[t] == src) {
+                ownColors();
+                super.recolor(src, dst);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void scale(int x, int z, int y) {
+        if (x == 128 && z == 128 && y == 128) {
+            return;
+        }
+        ownVertices();
+        super.scale(x, z, y);
+    }
+
+    @Override
+    public void translate(int x, int y, int z) {
+        if (x == 0 && y == 0 && z == 0) {
+            return;
+        }
+        ownVertices();
+        super.translate(x, y, z);
+    }
+
+    @Override
+    public void flipBackwards() {
+        ownVertices();
+        ownTriangles();
+        super.flipBackwards();
+    }
+
+    @Override
+    public void setColor(int hsl) {
+        if (this.ownTriangleColor == null || this.ownTriangleColor.length < this.triangleCount) {
+            this.ownTriangleColor = new int[this.triangleCount];
+        }
+        this.triangleColor = this.ownTriangleColor;
+        this.ownsColors = true;
+        super.setColor(hsl);
+    }
+
+    @Override
+    public void setVertexCount(int count) {
+        super.setVertexCount(count);
+        this.ownVertexX = this.vertexX;
+        this.ownVertexY = this.vertexY;
+        this.ownVertexZ = this.vertexZ;
+        this.ownsVertices = true;
+    }
+
+    @Override
+    public void setTriangleCount(int count) {
+        super.setTriangleCount(count);
+        this.ownTriangleVertexA = this.triangleVertexA;
+        this.ownTriangleVertexB = this.triangleVertexB;
+        this.ownTriangleVertexC = this.triangleVertexC;
+        this.ownsTriangles = true;
+    }
+
+    @Override
+    public int setVertex(int index, int x, int y, int z) {
+        ownVertices();
+        return super.setVertex(index, x, y, z);
+    }
+
+    @Override
+    public int setTriangle(int index, int a, int b, int c) {
+        ownTriangles();
+        return super.setTriangle(index, a, b, c);
+    }
+
+    /**
+     * Copies the vertex arrays from the source if they haven't been already.
+     */
+    private void ownVertices() {
+        if (this.ownsVertices) {
+            return;
+        }
+
+        if (this.ownVertexX == null || this.ownVertexX.length < this.vertexCount) {
+            this.ownVertexX = new int[this.vertexCount];
+            this.ownVertexY = new int[this.vertexCount];
+            this.ownVertexZ = new int[this.vertexCount];
+        }
+
+        System.arraycopy(this.vertexX, 0, this.ownVertexX, 0, this.vertexCount);
+        System.arraycopy(this.vertexY, 0, this.ownVertexY, 0, this.vertexCount);
+        System.arraycopy(this.vertexZ, 0, this.ownVertexZ, 0, this.vertexCount);
+
+        this.vertexX = this.ownVertexX;
+        this.vertexY = this.ownVertexY;
+        this.vertexZ = this.ownVertexZ;
+        this.ownsVertices = true;
+    }
+
+    /**
+     * Copies the triangle arrays from the source if they haven't been already.
+     */
+    private void ownTriangles() {
+        if (this.ownsTriangles) {
+            return;
+        }
+
+        if (this.ownTriangleVertexA == null || this.ownTriangleVertexA.length < this.triangleCount) {
+            this.ownTriangleVertexA = new int[this.triangleCount];
+            this.ownTriangleVertexB = new int[this.triangleCount];
+            this.ownTriangleVertexC = new int[this.triangleCount];
+        }
+
+        System.arraycopy(this.triangleVertexA, 0, this.ownTriangleVertexA, 0, this.triangleCount);
+        System.arraycopy(this.triangleVertexB, 0, this.ownTriangleVertexB, 0, this.triangleCount);
+        System.arraycopy(this.triangleVertexC, 0, this.ownTriangleVertexC, 0, this.triangleCount);
+
+        this.triangleVertexA = this.ownTriangleVertexA;
+        this.triangleVertexB = this.ownTriangleVertexB;
+        this.triangleVertexC = this.ownTriangleVertexC;
+        this.ownsTriangles = true;
+    }
+
+    /**
+     * Copies the triangle colors from the source if they haven't been already.
+     */
+    private void ownColors() {
+        if (this.ownsColors) {
+            return;
+        }
+
+        if (this.ownTriangleColor == null || this.ownTriangleColor.length < this.triangleCount) {
+            this.ownTriangleColor = new int[this.triangleCount];
+        }
+
+        if (this.triangleColor != null) {
+            System.arraycopy(this.triangleColor, 0, this.ownTriangleColor, 0, this.triangleCount);
+        }
+
+        this.triangleColor = this.ownTriangleColor;
+        this.ownsColors = true;
+    }
+
+}
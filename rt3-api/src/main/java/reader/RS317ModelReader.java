@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2015 Dane.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package reader;
+
+import media.Model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes models in the format used by the 317 cache. The decoder reads a {@link ByteBuffer} in place with absolute
+ * gets, so a model can be decoded straight from a heap array, a direct buffer or a slice of a memory mapped file
+ * without copying it. Every stream in the model is walked by its own int cursor and every output array is allocated
+ * once, at the size the footer gives.
+ *
+ * @author Dane
+ */
+public class RS317ModelReader extends ModelReader {
+
+	/**
+	 * The length of the footer which holds the counts, flags and stream lengths.
+	 */
+	public static final int FOOTER_LENGTH = 18;
+
+	/**
+	 * Constructs a new 317 model reader.
+	 */
+	public RS317ModelReader() {
+
+	}
+
+	@Override
+	public Model read(InputStream in) throws IOException {
+		try (in) {
+			return decode(ByteBuffer.wrap(in.readAllBytes()));
+		}
+	}
+
+	/**
+	 * Decodes the model between the position and limit of the provided buffer. Neither is changed.
+	 *
+	 * @param data the encoded model.
+	 * @return the model.
+	 */
+	public Model decode(ByteBuffer data) {
+		int footer = data.limit() - FOOTER_LENGTH;
+		int vertexCount = readUShort(data, footer);
+		int triangleCount = readUShort(data, footer + 2);
+		int texturedCount = data.get(footer + 4) & 0xff;
+		boolean textures = data.get(footer + 5) == 1;
+		boolean priorities = (data.get(footer + 6) & 0xff) == 255;
+		boolean alpha = data.get(footer + 7) == 1;
+		boolean triangleSkins = data.get(footer + 8) == 1;
+		boolean vertexSkins = data.get(footer + 9) == 1;
+		int xLength = readUShort(data, footer + 10);
+		int yLength = readUShort(data, footer + 12);
+		int zLength = readUShort(data, footer + 14);
+		int triangleLength = readUShort(data, footer + 16);
+
+		// the streams are laid out back to back in this order, skipping the ones the flags leave out
+		int offset = data.position();
+		int vertexFlags = offset;
+		offset += vertexCount;
+		int triangleTypes = offset;
+		offset += triangleCount;
+
+		if (priorities) {
+			offset += triangleCount;
+		}
+
+		if (triangleSkins) {
+			offset += triangleCount;
+		}
+
+		if (textures) {
+			offset += triangleCount;
+		}
+
+		if (vertexSkins) {
+			offset += vertexCount;
+		}
+
+		if (alpha) {
+			offset += triangleCount;
+		}
+
+		int triangleData = offset;
+		offset += triangleLength;
+		int colors = offset;
+		offset += triangleCount * 2;
+		offset += texturedCount * 6;
+		int xData = offset;
+		offset += xLength;
+		int yData = offset;
+		offset += yLength;
+		int zData = offset;
+
+		Model model = new Model();
+		model.setVertexCount(vertexCount);
+		model.setTriangleCount(triangleCount);
+		model.triangleColor = new int[triangleCount];
+
+		int[] vertexX = model.vertexX;
+		int[] vertexY = model.vertexY;
+		int[] vertexZ = model.vertexZ;
+		int x = 0;
+		int y = 0;
+		int z = 0;
+
+		for (int v = 0; v < vertexCount; v++) {
+			int flags = data.get(vertexFlags + v);
+
+			if ((flags & 1) != 0) {
+				x += readSmart(data, xData);
+				xData += getSmartLength(data, xData);
+			}
+
+			if ((flags & 2) != 0) {
+				y += readSmart(data, yData);
+				yData += getSmartLength(data, yData);
+			}
+
+			if ((flags & 4) != 0) {
+				z += readSmart(data, zData);
+				zData += getSmartLength(data, zData);
+			}
+
+			vertexX[v] = x;
+			vertexY[v] = y;
+			vertexZ[v] = z;
+		}
+
+		int[] triangleColor = model.triangleColor;
+		for (int t = 0; t < triangleCount; t++) {
+			triangleColor[t] = readUShort(data, colors + t * 2);
+		}
+
+		int[] triangleA = model.triangleVertexA;
+		int[] triangleB = model.triangleVertexB;
+		int[] triangleC = model.triangleVertexC;
+		int a = 0;
+		int b = 0;
+		int c = 0;
+		int last = 0;
+
+		for (int t = 0; t < triangleCount; t++) {
+			int type = data.get(triangleTypes + t) & 0xff;
+
+			// 1 starts a new triangle, the others reuse two vertices of the previous one and read only the third
+			if (type == 1) {
+				a = last += readSmart(data, triangleData);
+				triangleData += getSmartLength(data, triangleData);
+				b = last += readSmart(data, triangleData);
+				triangleData += getSmartLength(data, triangleData);
+				c = last += readSmart(data, triangleData);
+				triangleData += getSmartLength(data, triangleData);
+			} else if (type == 2) {
+				b = c;
+				c = last += readSmart(data, triangleData);
+				triangleData += getSmartLength(data, triangleData);
+			} else if (type == 3) {
+				a = c;
+				c = last += readSmart(data, triangleData);
+				triangleData += getSmartLength(data, triangleData);
+			} else if (type == 4) {
+				int tmp = a;
+				a = b;
+				b = tmp;
+				c = last += readSmart(data, triangleData);
+				triangleData += getSmartLength(data, triangleData);
+			} else {
+				continue;
+			}
+
+			triangleA[t] = a;
+			triangleB[t] = b;
+			triangleC[t] = c;
+		}
+		return model;
+	}
+
+	private static int readUShort(ByteBuffer data, int offset) {
+		return ((data.get(offset) & 0xff) << 8) | (data.get(offset + 1) & 0xff);
+	}
+
+	private static int readSmart(ByteBuffer data, int offset) {
+		int value = data.get(offset) & 0xff;
+		if (value < 128) {
+			return value - 64;
+		}
+		return readUShort(data, offset) - 49152;
+	}
+
+	private static int getSmartLength(ByteBuffer data, int offset) {
+		return data.get(offset) < 0 ? 2 : 1;
+	}
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2015 Dane.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package image;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Checks that a {@link CoarseDepthBuffer} never changes what's drawn, however late it's attached to a depth buffer.
+ * Every scene is drawn once without one and compared against drawing it with one.
+ */
+public class CoarseDepthBufferTest {
+
+	private static final int SIZE = 320;
+
+	private static final int SCENES = 50;
+
+	@Test
+	public void attachedBeforeDepthBuffer() {
+		for (int seed = 0; seed < SCENES; seed++) {
+			RenderContext ctx = context();
+			ctx.setCoarseDepth(true);
+			ctx.setDepthBuffer();
+			drawScene(ctx, seed, 0, 1);
+			assertMatches(seed, ctx);
+		}
+	}
+
+	@Test
+	public void attachedAfterDepthBuffer() {
+		for (int seed = 0; seed < SCENES; seed++) {
+			RenderContext ctx = context();
+			ctx.setDepthBuffer();
+			ctx.setCoarseDepth(true);
+			drawScene(ctx, seed, 0, 1);
+			assertMatches(seed, ctx);
+		}
+	}
+
+	@Test
+	public void attachedMidFrame() {
+		for (int seed = 0; seed < SCENES; seed++) {
+			RenderContext ctx = context();
+			ctx.setDepthBuffer();
+			drawScene(ctx, seed, 0, 2);
+			ctx.setCoarseDepth(true);
+			drawScene(ctx, seed, 1, 2);
+			assertMatches(seed, ctx);
+		}
+	}
+
+	@Test
+	public void producerBoundWithoutReset() {
+		for (int seed = 0; seed < SCENES; seed++) {
+			ImageProducer3D producer = new ImageProducer3D(SIZE, SIZE);
+			producer.setCoarseDepth(true);
+			RenderContext ctx = new RenderContext();
+			producer.bind(ctx);
+			drawScene(ctx, seed, 0, 1);
+			assertMatches(seed, ctx);
+		}
+	}
+
+	private static RenderContext context() {
+		RenderContext ctx = new RenderContext();
+		ctx.setTarget(new int[SIZE * SIZE], SIZE, SIZE);
+		ctx.setOffsets();
+		return ctx;
+	}
+
+	/**
+	 * Draws the scene for the provided seed without a coarse depth buffer and compares it with what was drawn into the
+	 * provided context.
+	 */
+	private static void assertMatches(int seed, RenderContext actual) {
+		RenderContext expected = context();
+		expected.setDepthBuffer();
+		drawScene(expected, seed, 0, 1);
+		assertArrayEquals(expected.target, actual.target, "pixels of scene " + seed);
+		assertArrayEquals(expected.depthBuffer, actual.depthBuffer, "depth of scene " + seed);
+	}
+
+	/**
+	 * Draws a part of a scene of large flat and shaded triangles which overlap a lot, so plenty of them and their spans
+	 * end up hidden. The scene is split into parts triangle by triangle, so drawing every part draws the whole scene.
+	 *
+	 * @param part the part to draw.
+	 * @param parts the number of parts.
+	 */
+	private static void drawScene(RenderContext ctx, int seed, int part, int parts) {
+		Random random = new Random(seed);
+		int[] palette = ctx.palette;
+
+		for (int n = 0; n < 400; n++) {
+			int xA = random.nextInt(SIZE), yA = random.nextInt(SIZE), zA = 50 + random.nextInt(3000);
+			int xB = random.nextInt(SIZE), yB = random.nextInt(SIZE), zB = 50 + random.nextInt(3000);
+			int xC = random.nextInt(SIZE), yC = random.nextInt(SIZE), zC = 50 + random.nextInt(3000);
+			boolean shaded = random.nextBoolean();
+			// like a model's, the corners share a hue and saturation and only differ in lightness
+			int hsl = random.nextInt(palette.length >> 7) << 7;
+			int colorA = hsl | 8 + random.nextInt(112), colorB = hsl | 8 + random.nextInt(112), colorC = hsl | 8 + random.nextInt(112);
+
+			if (n % parts != part) {
+				continue;
+			}
+
+			if (shaded) {
+				Graphics3D.fillShadedTriangleDepth(ctx, xA, yA, zA, xB, yB, zB, xC, yC, zC, colorA, colorB, colorC);
+			} else {
+				Graphics3D.fillTriangleDepth(ctx, xA, yA, zA, xB, yB, zB, xC, yC, zC, palette[colorA]);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2015 Dane.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package image;
+
+import java.util.Random;
+import media.Model;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks the vector scanline kernel against the scalar one, both called directly on random spans and through the
+ * scanline routines in {@link Graphics3D}, which clip the spans before handing them to the kernel.
+ */
+public class ScanlineKernelTest {
+
+	private static final int SIZE = 256;
+
+	private final int[] palette = Palettes.get(Palettes.DEFAULT_BRIGHTNESS);
+
+	private final int[] expectedDst = new int[SIZE], expectedDepth = new int[SIZE];
+
+	private final int[] actualDst = new int[SIZE], actualDepth = new int[SIZE];
+
+	private Random random;
+
+	@BeforeEach
+	public void setUp() {
+		assumeTrue(ScanlineKernels.VECTOR != null, "run with --add-modules jdk.incubator.vector");
+		this.random = new Random(0x5ca1ab1e);
+	}
+
+	@Test
+	public void randomSpans() {
+		for (int n = 0; n < 4096; n++) {
+			int off = this.random.nextInt(16);
+			compare(n & 3, off, this.random.nextInt(SIZE - off - 3));
+		}
+	}
+
+	@Test
+	public void edgeLengths() {
+		// every length up to a few vectors, starting at the front of the buffer, part way in and flush with its end
+		for (int length = 0; length <= 64; length++) {
+			for (int op = 0; op < 4; op++) {
+				compare(op, 0, length);
+				compare(op, 7, length);
+				compare(op, SIZE - (op < 2 ? length : length & ~3), length);
+			}
+		}
+	}
+
+	@Test
+	public void clippedScanlines() {
+		int width = 64, height = 64;
+		RenderContext expected = context(ScanlineKernels.SCALAR, width, height);
+		RenderContext actual = context(ScanlineKernels.VECTOR, width, height);
+
+		for (int n = 0; n < 4096; n++) {
+			// the top offset sits anywhere, so spans above it, on its row and below it are all covered
+			int topOffset = this.random.nextInt(height) * width;
+			int off = this.random.nextInt(height) * width;
+			int xA = this.random.nextInt(width + 40) - 20;
+			int xB = this.random.nextInt(width + 40) - 20;
+			int zA = this.random.nextInt(1 << 20);
+			int zB = this.random.nextInt(1 << 20);
+			int colorA = this.random.nextInt(palette.length) << 8;
+			int colorB = this.random.nextInt(palette.length) << 8;
+			int rgb = this.random.nextInt() & 0xFFFFFF;
+			int alpha = this.random.nextInt(4) == 0 ? this.random.nextInt(256) : 0;
+			boolean textured = this.random.nextBoolean();
+
+			for (RenderContext ctx : new RenderContext[]{expected, actual}) {
+				ctx.topOffset = topOffset;
+				ctx.alpha = alpha;
+				ctx.texturedShading = textured;
+
+				if ((n & 1) == 0) {
+					Graphics3D.drawScanlineDepth(ctx, ctx.target, off, 0, xA, xB, zA, zB, rgb);
+				} else {
+					Graphics3D.drawShadedScanlineDepth(ctx, ctx.target, off, 0, 0, xA, xB, zA, zB, colorA, colorB);
+				}
+			}
+
+			assertArrayEquals(expected.target, actual.target, "pixels after scanline " + n);
+			assertArrayEquals(expected.depthBuffer, actual.depthBuffer, "depth after scanline " + n);
+		}
+	}
+
+	private RenderContext context(ScanlineKernel kernel, int width, int height) {
+		RenderContext ctx = new RenderContext();
+		ctx.scanlines = kernel;
+		ctx.setTarget(new int[width * height], width, height);
+		ctx.setOffsets();
+		ctx.setDepthBuffer();
+		ctx.testX = true;
+
+		Random fill = new Random(width * height);
+		for (int i = 0; i < ctx.depthBuffer.length; i++) {
+			ctx.target[i] = fill.nextInt() & 0xFFFFFF;
+			ctx.depthBuffer[i] = fill.nextInt(1 << 20);
+		}
+		return ctx;
+	}
+
+	/**
+	 * Draws one random span with both kernels over the same random pixels and depths, and compares the results.
+	 *
+	 * @param op the kernel routine, in the order they're declared on {@link ScanlineKernel}.
+	 * @param off the offset of the first pixel.
+	 * @param length the number of pixels, rounded down to whole blocks by the shaded routines.
+	 */
+	private void compare(int op, int off, int length) {
+		int z = this.random.nextInt(1 << 24);
+		// flat spans over depths equal to theirs check that ties are drawn
+		int zSlope = this.random.nextInt(4) == 0 ? 0 : this.random.nextInt(1 << 16) - (1 << 15);
+
+		for (int i = 0; i < SIZE; i++) {
+			this.expectedDst[i] = this.actualDst[i] = this.random.nextInt() & 0xFFFFFF;
+			this.expectedDepth[i] = this.actualDepth[i] = this.random.nextInt(4) == 0 ? z : this.random.nextInt(Model.FAR_Z_1616);
+		}
+
+		int blocks = length >> 2;
+		int rgb = this.random.nextInt() & 0xFFFFFF;
+		int alpha = this.random.nextInt(256) + 1;
+		int color = this.random.nextInt(palette.length - 1) << 8;
+		int colorSlope = blocks == 0 ? 0 : (this.random.nextInt(palette.length) - color / 256) * 256 / blocks;
+
+		switch (op) {
+			case 0:
+				ScanlineKernels.SCALAR.fillDepth(this.expectedDst, this.expectedDepth, off, length, z, zSlope, rgb);
+				ScanlineKernels.VECTOR.fillDepth(this.actualDst, this.actualDepth, off, length, z, zSlope, rgb);
+				break;
+			case 1:
+				ScanlineKernels.SCALAR.blendDepth(this.expectedDst, this.expectedDepth, off, length, z, zSlope, rgb, alpha);
+				ScanlineKernels.VECTOR.blendDepth(this.actualDst, this.actualDepth, off, length, z, zSlope, rgb, alpha);
+				break;
+			case 2:
+				ScanlineKernels.SCALAR.fillShadedDepth(this.expectedDst, this.expectedDepth, this.palette, off, blocks, color, colorSlope, z, zSlope);
+				ScanlineKernels.VECTOR.fillShadedDepth(this.actualDst, this.actualDepth, this.palette, off, blocks, color, colorSlope, z, zSlope);
+				break;
+			default:
+				ScanlineKernels.SCALAR.blendShaded(this.expectedDst, this.palette, off, blocks, color, colorSlope, alpha);
+				ScanlineKernels.VECTOR.blendShaded(this.actualDst, this.palette, off, blocks, color, colorSlope, alpha);
+				break;
+		}
+
+		String span = "op " + op + " at " + off + " for " + length;
+		assertArrayEquals(this.expectedDst, this.actualDst, "pixels, " + span);
+		assertArrayEquals(this.expectedDepth, this.actualDepth, "depth, " + span);
+	}
+
+}
@@ -0,0 +1,46 @@
+package bench;
+
+import image.Graphics2D;
+import image.RenderContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link Graphics2D} rectangle fills over the whole viewport.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class Graphics2DBenchmark {
+
+	@Param({"32", "320", "1024"})
+	public int viewport;
+
+	private RenderContext ctx;
+
+	@Setup
+	public void setup() {
+		ctx = new RenderContext();
+		ctx.setTarget(new int[viewport * viewport], viewport, viewport);
+	}
+
+	@Benchmark
+	public int fillRectOpaque() {
+		Graphics2D.fillRect(ctx, 0, 0, viewport, viewport, 0x554b3f);
+		return ctx.target[0];
+	}
+
+	@Benchmark
+	public int fillRectAlpha() {
+		Graphics2D.fillRect(ctx, 0, 0, viewport, viewport, 0x554b3f, 128);
+		return ctx.target[0];
+	}
+}
@@ -0,0 +1,206 @@
+package bench;
+
+import media.Model;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * Synthetic models for the benchmarks, so runs don't depend on a cache being present.
+ */
+public final class Meshes {
+
+	/**
+	 * Builds a lumpy sphere with exactly the provided number of triangles, all facing outwards.
+	 *
+	 * @param triangles the triangle count.
+	 * @param radius the radius.
+	 * @param seed the seed for the surface noise and colors.
+	 * @return the model.
+	 */
+	public static Model sphere(int triangles, int radius, long seed) {
+		Random random = new Random(seed);
+		int segments = Math.max(3, (int) Math.sqrt(triangles));
+		int rings = Math.max(2, (triangles + 2 * segments - 1) / (2 * segments) + 1);
+
+		Model model = new Model();
+		model.setVertexCount((rings + 1) * segments);
+		model.setTriangleCount(triangles);
+
+		for (int r = 0; r <= rings; r++) {
+			double phi = Math.PI * r / rings;
+			for (int s = 0; s < segments; s++) {
+				double theta = 2 * Math.PI * s / segments;
+				int length = radius - random.nextInt(radius / 8 + 1);
+				model.setVertex(r * segments + s,
+						(int) (length * Math.sin(phi) * Math.cos(theta)),
+						(int) (-length * Math.cos(phi)),
+						(int) (length * Math.sin(phi) * Math.sin(theta)));
+			}
+		}
+
+		int t = 0;
+		for (int r = 0; r < rings && t < triangles; r++) {
+			for (int s = 0; s < segments && t < triangles; s++) {
+				int a = r * segments + s;
+				int b = r * segments + (s + 1) % segments;
+				int c = a + segments;
+				int d = b + segments;
+				model.setTriangle(t++, a, c, b);
+				if (t < triangles) {
+					model.setTriangle(t++, b, c, d);
+				}
+			}
+		}
+
+		model.triangleColor = new int[triangles];
+		for (int i = 0; i < triangles; i++) {
+			model.triangleColor[i] = (random.nextInt(64) << 10) | (random.nextInt(8) << 7) | (32 + random.nextInt(64));
+		}
+		return model;
+	}
+
+	/**
+	 * Builds lumpy spheres nested inside each other, outermost first, so every inner shell is drawn behind one which
+	 * was drawn before it.
+	 *
+	 * @param triangles the triangle count, shared between the shells.
+	 * @param radius the radius of the outermost shell.
+	 * @param shells the number of shells.
+	 * @param seed the seed for the surface noise and colors.
+	 * @return the model.
+	 */
+	public static Model shells(int triangles, int radius, int shells, long seed) {
+		Model[] parts = new Model[shells];
+		int vertexCount = 0;
+
+		for (int i = 0; i < shells; i++) {
+			parts[i] = sphere(triangles / shells + (i < triangles % shells ? 1 : 0), radius * (shells - i) / shells, seed + i);
+			vertexCount += parts[i].vertexCount;
+		}
+
+		Model model = new Model();
+		model.setVertexCount(vertexCount);
+		model.setTriangleCount(triangles);
+		model.triangleColor = new int[triangles];
+
+		int vertexOffset = 0;
+		int triangleOffset = 0;
+
+		for (Model part : parts) {
+			for (int v = 0; v < part.vertexCount; v++) {
+				model.setVertex(vertexOffset + v, part.vertexX[v], part.vertexY[v], part.vertexZ[v]);
+			}
+
+			for (int t = 0; t < part.triangleCount; t++) {
+				model.setTriangle(triangleOffset + t, vertexOffset + part.triangleVertexA[t], vertexOffset + part.triangleVertexB[t], vertexOffset + part.triangleVertexC[t]);
+			}
+
+			System.arraycopy(part.triangleColor, 0, model.triangleColor, triangleOffset, part.triangleCount);
+			vertexOffset += part.vertexCount;
+			triangleOffset += part.triangleCount;
+		}
+		return model;
+	}
+
+	/**
+	 * Encodes a model in the 317 cache format with no priorities, skins, textures or alpha. Triangles which share
+	 * two vertices with the one before are written with the shorter types, as the cache does.
+	 *
+	 * @param model the model.
+	 * @return the encoded model.
+	 */
+	public static byte[] encode317(Model model) {
+		ByteArrayOutputStream flags = new ByteArrayOutputStream();
+		ByteArrayOutputStream x = new ByteArrayOutputStream();
+		ByteArrayOutputStream y = new ByteArrayOutputStream();
+		ByteArrayOutputStream z = new ByteArrayOutputStream();
+		int lastX = 0, lastY = 0, lastZ = 0;
+
+		for (int v = 0; v < model.vertexCount; v++) {
+			int dx = model.vertexX[v] - lastX;
+			int dy = model.vertexY[v] - lastY;
+			int dz = model.vertexZ[v] - lastZ;
+
+			// a zero delta is left out and only marked by its bit being clear
+			if (dx != 0) {
+				writeSmart(x, dx);
+			}
+
+			if (dy != 0) {
+				writeSmart(y, dy);
+			}
+
+			if (dz != 0) {
+				writeSmart(z, dz);
+			}
+			flags.write((dx != 0 ? 1 : 0) | (dy != 0 ? 2 : 0) | (dz != 0 ? 4 : 0));
+			lastX = model.vertexX[v];
+			lastY = model.vertexY[v];
+			lastZ = model.vertexZ[v];
+		}
+
+		ByteArrayOutputStream types = new ByteArrayOutputStream();
+		ByteArrayOutputStream triangles = new ByteArrayOutputStream();
+		ByteArrayOutputStream colors = new ByteArrayOutputStream();
+		int a = 0, b = 0, c = 0, last = 0;
+
+		for (int t = 0; t < model.triangleCount; t++) {
+			int nextA = model.triangleVertexA[t];
+			int nextB = model.triangleVertexB[t];
+			int nextC = model.triangleVertexC[t];
+
+			if (nextA == a && nextB == c) {
+				types.write(2);
+			} else if (nextA == c && nextB == b) {
+				types.write(3);
+			} else if (nextA == b && nextB == a) {
+				types.write(4);
+			} else {
+				types.write(1);
+				writeSmart(triangles, nextA - last);
+				writeSmart(triangles, nextB - nextA);
+				last = nextB;
+			}
+			writeSmart(triangles, nextC - last);
+			last = nextC;
+			a = nextA;
+			b = nextB;
+			c = nextC;
+
+			int color = model.triangleColor[t];
+			colors.write(color >> 8);
+			colors.write(color);
+		}
+
+		ByteBuffer footer = ByteBuffer.allocate(18);
+		footer.putShort((short) model.vertexCount).putShort((short) model.triangleCount);
+		footer.put(new byte[6]);
+		footer.putShort((short) x.size()).putShort((short) y.size()).putShort((short) z.size()).putShort((short) triangles.size());
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.writeBytes(flags.toByteArray());
+		out.writeBytes(types.toByteArray());
+		out.writeBytes(triangles.toByteArray());
+		out.writeBytes(colors.toByteArray());
+		out.writeBytes(x.toByteArray());
+		out.writeBytes(y.toByteArray());
+		out.writeBytes(z.toByteArray());
+		out.writeBytes(footer.array());
+		return out.toByteArray();
+	}
+
+	private static void writeSmart(ByteArrayOutputStream out, int value) {
+		if (value >= -64 && value < 64) {
+			out.write(value + 64);
+		} else {
+			value += 49152;
+			out.write(value >> 8);
+			out.write(value);
+		}
+	}
+
+	private Meshes() {
+	}
+}
@@ -0,0 +1,115 @@
+package bench;
+
+import image.Graphics3D;
+import image.RenderContext;
+import image.TileRasterizer;
+import media.Model;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link Model} pipeline: normals, lighting and drawing into a square viewport.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ModelBenchmark {
+
+	@Param({"100", "1000", "16000"})
+	public int triangles;
+
+	@Param({"32", "320", "1024"})
+	public int viewport;
+
+	private RenderContext ctx;
+
+	private RenderContext tiledCtx;
+
+	private RenderContext coarseCtx;
+
+	private Model model;
+
+	private Model shells;
+
+	private int zoom;
+
+	@Setup
+	public void setup() {
+		ctx = new RenderContext();
+		ctx.setTarget(new int[viewport * viewport], viewport, viewport);
+		ctx.setOffsets();
+		ctx.setDepthBuffer();
+		Graphics3D.createPalette(ctx, 0.7);
+
+		tiledCtx = new RenderContext();
+		tiledCtx.setTarget(new int[viewport * viewport], viewport, viewport);
+		tiledCtx.setOffsets();
+		tiledCtx.setDepthBuffer();
+		tiledCtx.tiles = new TileRasterizer();
+		Graphics3D.createPalette(tiledCtx, 0.7);
+
+		coarseCtx = new RenderContext();
+		coarseCtx.setTarget(new int[viewport * viewport], viewport, viewport);
+		coarseCtx.setOffsets();
+		coarseCtx.setCoarseDepth(true);
+		coarseCtx.setDepthBuffer();
+		Graphics3D.createPalette(coarseCtx, 0.7);
+
+		model = Meshes.sphere(triangles, 256, triangles);
+		model.applyLighting(64, 768, -50, -10, -50, true);
+
+		shells = Meshes.shells(triangles, 256, 4, triangles);
+		shells.applyLighting(64, 768, -50, -10, -50, true);
+
+		// keep the model filling roughly the same share of every viewport
+		zoom = 256 * 1024 / viewport;
+	}
+
+	@Benchmark
+	public int[] calculateNormals() {
+		model.calculateNormals();
+		return model.normalX;
+	}
+
+	@Benchmark
+	public int[] applyLighting() {
+		model.applyLighting(64, 768, -50, -10, -50, true);
+		return model.colorA;
+	}
+
+	@Benchmark
+	public int drawSimple() {
+		ctx.clearDepthBuffer();
+		model.drawSimple(ctx, 0, 300, 0, 200, 0, (Graphics3D.sin[200] * zoom) >> 16, (Graphics3D.cos[200] * zoom) >> 16);
+		return ctx.target[ctx.offsets[viewport / 2] + viewport / 2];
+	}
+
+	@Benchmark
+	public int drawSimpleTiled() {
+		tiledCtx.clearDepthBuffer();
+		model.drawSimple(tiledCtx, 0, 300, 0, 200, 0, (Graphics3D.sin[200] * zoom) >> 16, (Graphics3D.cos[200] * zoom) >> 16);
+		return tiledCtx.target[tiledCtx.offsets[viewport / 2] + viewport / 2];
+	}
+
+	@Benchmark
+	public int drawShells() {
+		ctx.clearDepthBuffer();
+		shells.drawSimple(ctx, 0, 300, 0, 200, 0, (Graphics3D.sin[200] * zoom) >> 16, (Graphics3D.cos[200] * zoom) >> 16);
+		return ctx.target[ctx.offsets[viewport / 2] + viewport / 2];
+	}
+
+	@Benchmark
+	public int drawShellsCoarseDepth() {
+		coarseCtx.clearDepthBuffer();
+		shells.drawSimple(coarseCtx, 0, 300, 0, 200, 0, (Graphics3D.sin[200] * zoom) >> 16, (Graphics3D.cos[200] * zoom) >> 16);
+		return coarseCtx.target[coarseCtx.offsets[viewport / 2] + viewport / 2];
+	}
+}
@@ -0,0 +1,89 @@
+package bench;
+
+import media.Model;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import reader.RS317ModelReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a full pass of the {@link RS317ModelReader} over a synthetic model index shaped like index 1 of the cache:
+ * mostly small models with a few large ones. The models are decoded from heap buffers, from slices of one direct
+ * buffer as they would be from a memory mapped index, and through the stream path which copies each one first.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ModelDecodeBenchmark {
+
+	@Param({"2000"})
+	public int models;
+
+	private final RS317ModelReader reader = new RS317ModelReader();
+
+	private byte[][] encoded;
+
+	private ByteBuffer[] heap, mapped;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(models);
+		encoded = new byte[models][];
+		heap = new ByteBuffer[models];
+		mapped = new ByteBuffer[models];
+		int total = 0;
+
+		for (int i = 0; i < models; i++) {
+			// about one model in twenty is a large one
+			int triangles = random.nextInt(20) == 0 ? 1000 + random.nextInt(3000) : 20 + random.nextInt(400);
+			encoded[i] = Meshes.encode317(Meshes.sphere(triangles, 64 + random.nextInt(512), i));
+			heap[i] = ByteBuffer.wrap(encoded[i]);
+			total += encoded[i].length;
+		}
+
+		ByteBuffer region = ByteBuffer.allocateDirect(total);
+		for (int i = 0; i < models; i++) {
+			mapped[i] = region.slice(region.position(), encoded[i].length);
+			region.put(encoded[i]);
+		}
+	}
+
+	@Benchmark
+	public int decodeHeap() {
+		int triangles = 0;
+		for (ByteBuffer data : heap) {
+			triangles += reader.decode(data).triangleCount;
+		}
+		return triangles;
+	}
+
+	@Benchmark
+	public int decodeMapped() {
+		int triangles = 0;
+		for (ByteBuffer data : mapped) {
+			triangles += reader.decode(data).triangleCount;
+		}
+		return triangles;
+	}
+
+	@Benchmark
+	public int decodeStream() throws IOException {
+		int triangles = 0;
+		for (byte[] data : encoded) {
+			Model model = reader.read(new ByteArrayInputStream(data));
+			triangles += model.triangleCount;
+		}
+		return triangles;
+	}
+}
@@ -0,0 +1,41 @@
+package bench;
+
+import image.Graphics3D;
+import image.Palettes;
+import image.RenderContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures selecting and building the HSL to RGB palette.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PaletteBenchmark {
+
+	private final RenderContext ctx = new RenderContext();
+
+	/**
+	 * Selecting a palette which has already been built, which is what every render after the first pays.
+	 */
+	@Benchmark
+	public int[] createPalette() {
+		Graphics3D.createPalette(ctx, 0.7);
+		return ctx.palette;
+	}
+
+	/**
+	 * Building a palette from scratch, which is paid once per exponent.
+	 */
+	@Benchmark
+	public int[] buildPalette() {
+		return Palettes.create(0.7);
+	}
+}
@@ -0,0 +1,91 @@
+package bench;
+
+import image.Graphics3D;
+import image.RenderContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link Graphics3D} triangle and scanline fills. Every triangle is drawn at the same depth so each
+ * pixel passes the depth test and the numbers reflect the full fill cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RasterizerBenchmark {
+
+	private static final int TRIANGLES = 256;
+
+	private static final int DEPTH = 100;
+
+	@Param({"32", "320", "1024"})
+	public int viewport;
+
+	private RenderContext ctx;
+
+	private int[] x, y, color;
+
+	private int scanlineOffset;
+
+	@Setup
+	public void setup() {
+		ctx = new RenderContext();
+		ctx.setTarget(new int[viewport * viewport], viewport, viewport);
+		ctx.setOffsets();
+		ctx.setDepthBuffer();
+		Graphics3D.createPalette(ctx, 0.7);
+
+		Random random = new Random(viewport);
+		x = new int[TRIANGLES * 3];
+		y = new int[TRIANGLES * 3];
+		color = new int[TRIANGLES * 3];
+		int size = Math.max(8, viewport / 4);
+		for (int t = 0; t < TRIANGLES; t++) {
+			int ox = random.nextInt(viewport - size / 2 + 1) - size / 4;
+			int oy = random.nextInt(viewport - size / 2 + 1) - size / 4;
+			for (int v = 0; v < 3; v++) {
+				x[t * 3 + v] = ox + random.nextInt(size);
+				y[t * 3 + v] = oy + random.nextInt(size);
+				color[t * 3 + v] = (random.nextInt(64) << 10) | (random.nextInt(8) << 7) | random.nextInt(128);
+			}
+		}
+		scanlineOffset = ctx.offsets[viewport / 2];
+	}
+
+	@Benchmark
+	public int fillShadedTriangleDepth() {
+		for (int t = 0; t < TRIANGLES * 3; t += 3) {
+			ctx.testX = true;
+			Graphics3D.fillShadedTriangleDepth(ctx, x[t], y[t], DEPTH, x[t + 1], y[t + 1], DEPTH, x[t + 2], y[t + 2], DEPTH, color[t], color[t + 1], color[t + 2]);
+		}
+		return ctx.target[scanlineOffset];
+	}
+
+	@Benchmark
+	public int fillTriangleDepth() {
+		for (int t = 0; t < TRIANGLES * 3; t += 3) {
+			ctx.testX = true;
+			Graphics3D.fillTriangleDepth(ctx, x[t], y[t], DEPTH, x[t + 1], y[t + 1], DEPTH, x[t + 2], y[t + 2], DEPTH, color[t] & 0xffffff);
+		}
+		return ctx.target[scanlineOffset];
+	}
+
+	@Benchmark
+	public int drawShadedScanlineDepth() {
+		ctx.testX = false;
+		int z = DEPTH << 16;
+		for (int t = 0; t < TRIANGLES; t++) {
+			Graphics3D.drawShadedScanlineDepth(ctx, ctx.target, scanlineOffset, 0, 0, 0, viewport - 1, z, z, 0x3f40 << 8, 0x3f7f << 8);
+		}
+		return ctx.target[scanlineOffset];
+	}
+}
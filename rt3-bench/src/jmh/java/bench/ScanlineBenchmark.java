@@ -0,0 +1,83 @@
+package bench;
+
+import image.Palettes;
+import image.ScanlineKernel;
+import image.ScanlineKernels;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link ScanlineKernel} implementations on a single span. The depth slope alternates sign between
+ * calls so the spans see both passing and failing depth tests. Each kernel is checked against the scalar kernel
+ * before it's measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ScanlineBenchmark {
+
+	private static final int DEPTH = 1 << 20;
+
+	@Param({"scalar", "vector"})
+	public String kernel;
+
+	@Param({"16", "64", "320"})
+	public int length;
+
+	private ScanlineKernel scanlines;
+
+	private int[] dst, depthBuffer, palette;
+
+	private int zSlope = 1;
+
+	@Setup
+	public void setup() {
+		scanlines = kernel.equals("vector") ? ScanlineKernels.VECTOR : ScanlineKernels.SCALAR;
+		if (scanlines == null) {
+			throw new IllegalStateException("vector kernel unavailable, run with --add-modules jdk.incubator.vector");
+		}
+		if (!ScanlineKernels.verify(scanlines, length, 1024)) {
+			throw new IllegalStateException(kernel + " kernel doesn't match the scalar kernel");
+		}
+		dst = new int[length];
+		depthBuffer = new int[length];
+		Arrays.fill(depthBuffer, DEPTH);
+		palette = Palettes.get(0.7);
+	}
+
+	@Benchmark
+	public int fillDepth() {
+		zSlope = -zSlope;
+		scanlines.fillDepth(dst, depthBuffer, 0, length, DEPTH, zSlope, 0x7f7f7f);
+		return dst[length - 1];
+	}
+
+	@Benchmark
+	public int blendDepth() {
+		zSlope = -zSlope;
+		scanlines.blendDepth(dst, depthBuffer, 0, length, DEPTH, zSlope, 0x3f3f3f, 128);
+		return dst[length - 1];
+	}
+
+	@Benchmark
+	public int fillShadedDepth() {
+		zSlope = -zSlope;
+		scanlines.fillShadedDepth(dst, depthBuffer, palette, 0, length >> 2, 20000 << 8, 64, DEPTH, zSlope);
+		return dst[length - 1];
+	}
+
+	@Benchmark
+	public int blendShaded() {
+		scanlines.blendShaded(dst, palette, 0, length >> 2, 20000 << 8, 64, 128);
+		return dst[length - 1];
+	}
+}
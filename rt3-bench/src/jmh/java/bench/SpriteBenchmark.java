@@ -0,0 +1,77 @@
+package bench;
+
+import image.RenderContext;
+import image.Sprite;
+import image.SpriteAtlas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures scaling a 32x32 icon up to the whole viewport, as the editor preview does, from a {@link Sprite} and from
+ * heap and direct {@link SpriteAtlas} pages.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SpriteBenchmark {
+
+	@Param({"32", "320", "1024"})
+	public int viewport;
+
+	private RenderContext ctx;
+
+	private Sprite sprite;
+
+	private SpriteAtlas heapAtlas, directAtlas;
+
+	private int heapHandle, directHandle;
+
+	@Setup
+	public void setup() {
+		ctx = new RenderContext();
+		ctx.setTarget(new int[viewport * viewport], viewport, viewport);
+
+		sprite = new Sprite(32, 32);
+		Random random = new Random(32);
+		int[] pixels = sprite.getPixels();
+		for (int i = 0; i < pixels.length; i++) {
+			// leave roughly a quarter transparent, like a rendered icon's background
+			pixels[i] = random.nextInt(4) == 0 ? 0 : random.nextInt(0xffffff) + 1;
+		}
+
+		// put the icon somewhere in the middle of a page, as it would be among thousands of others
+		heapAtlas = new SpriteAtlas(32, 32, false);
+		heapHandle = heapAtlas.reserve(500);
+		heapAtlas.set(heapHandle, sprite);
+		directAtlas = new SpriteAtlas(32, 32, true);
+		directHandle = directAtlas.reserve(500);
+		directAtlas.set(directHandle, sprite);
+	}
+
+	@Benchmark
+	public int draw() {
+		sprite.draw(ctx, 0, 0, viewport, viewport);
+		return ctx.target[0];
+	}
+
+	@Benchmark
+	public int drawHeapAtlas() {
+		heapAtlas.draw(ctx, heapHandle, 0, 0, viewport, viewport);
+		return ctx.target[0];
+	}
+
+	@Benchmark
+	public int drawDirectAtlas() {
+		directAtlas.draw(ctx, directHandle, 0, 0, viewport, viewport);
+		return ctx.target[0];
+	}
+}